@@ -0,0 +1,22 @@
+package com.example.rentalrequest.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs JMH with machine-readable JSON output by default, so results can be diffed between commits.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.addAll(List.of("-rf", "json"));
+        }
+        if (!jmhArgs.contains("-rff")) {
+            jmhArgs.addAll(List.of("-rff", "target/jmh-result.json"));
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(String[]::new));
+    }
+}
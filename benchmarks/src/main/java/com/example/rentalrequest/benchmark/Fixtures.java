@@ -0,0 +1,115 @@
+package com.example.rentalrequest.benchmark;
+
+import com.example.rentalrequest.dto.RentalRequestDTO;
+import com.example.rentalrequest.model.Accessory;
+import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.model.CarImage;
+import com.example.rentalrequest.model.RentalRequest;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test data and wiring for benchmarks. Services are created without a Spring context; the hot paths
+ * measured here never touch their repositories.
+ */
+public final class Fixtures {
+
+    private static final String[] BRANDS = {"Toyota", "Honda", "Hyundai", "Suzuki", "Mahindra", "Kia"};
+    private static final String[] LOCATIONS = {"Chennai", "Bangalore", "Hyderabad", "Mumbai", "Pune"};
+
+    private Fixtures() {
+    }
+
+    /** Instantiates a constructor-injected service with every dependency left null. */
+    public static <T> T newService(Class<T> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructors()[0];
+            return type.cast(constructor.newInstance(new Object[constructor.getParameterCount()]));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + type.getSimpleName(), e);
+        }
+    }
+
+    public static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name, e);
+        }
+    }
+
+    public static Car car(long id) {
+        Car car = new Car();
+        car.setId(id);
+        car.setBrand(BRANDS[(int) (id % BRANDS.length)]);
+        car.setModel("Model " + id);
+        car.setFuel(id % 2 == 0 ? "Petrol" : "Diesel");
+        car.setCarType("SUV");
+        car.setPlateNumber("TN-" + (1000 + id));
+        car.setMainLocation(LOCATIONS[(int) (id % LOCATIONS.length)]);
+        car.setColor("White");
+        car.setTransmission("Automatic");
+        car.setYear(2020 + (int) (id % 5));
+        car.setPassengers(5);
+        car.setNoOfAirBags(6);
+        car.setDescription("Well maintained family car with " + id + " km on the clock");
+        car.setDailyPrice(BigDecimal.valueOf(2500 + id % 10 * 100));
+        car.setWeeklyPrice(BigDecimal.valueOf(15000));
+        car.setMonthlyPrice(BigDecimal.valueOf(55000));
+        car.setAvailable(id % 3 != 0);
+
+        // Back-references stay unset: @Data hashCode on the bidirectional pair would recurse
+        for (int i = 0; i < 3; i++) {
+            Accessory accessory = new Accessory();
+            accessory.setId(id * 10 + i);
+            accessory.setName("Accessory " + i);
+            accessory.setAvailable(true);
+            car.getAccessories().add(accessory);
+
+            CarImage image = new CarImage();
+            image.setId(id * 10 + i);
+            image.setImageUrl("https://bucket.s3.us-east-1.amazonaws.com/" + id + "_" + i + ".jpg");
+            car.getImages().add(image);
+        }
+        return car;
+    }
+
+    public static List<Car> fleet(int size) {
+        List<Car> cars = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            cars.add(car(id));
+        }
+        return cars;
+    }
+
+    public static RentalRequestDTO rentalRequestDTO() {
+        RentalRequestDTO dto = new RentalRequestDTO();
+        dto.setCustomerName("Priya Raman");
+        dto.setPhoneNumber("+91 98765 43210");
+        dto.setEmail("priya.raman@example.com");
+        dto.setCarModel("Toyota Innova");
+        dto.setPickupDateTime(LocalDateTime.now().plusDays(2));
+        dto.setDropDateTime(LocalDateTime.now().plusDays(6));
+        return dto;
+    }
+
+    public static RentalRequest rentalRequest() {
+        RentalRequestDTO dto = rentalRequestDTO();
+        RentalRequest rental = new RentalRequest();
+        rental.setId(1L);
+        rental.setCustomerName(dto.getCustomerName());
+        rental.setPhoneNumber(dto.getPhoneNumber());
+        rental.setEmail(dto.getEmail());
+        rental.setCarModel(dto.getCarModel());
+        rental.setPickupDateTime(dto.getPickupDateTime());
+        rental.setDropDateTime(dto.getDropDateTime());
+        return rental;
+    }
+}
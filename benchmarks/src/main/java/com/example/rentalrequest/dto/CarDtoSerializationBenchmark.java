@@ -0,0 +1,51 @@
+package com.example.rentalrequest.dto;
+
+import com.example.rentalrequest.benchmark.Fixtures;
+import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.service.CarServiceAccess;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarDtoSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int fleetSize;
+
+    private ObjectMapper objectMapper;
+    private List<CarDTO> cars;
+    private Map<String, Object> envelope;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        List<Car> fleet = Fixtures.fleet(fleetSize);
+        cars = CarServiceAccess.toDTOs(fleet);
+        envelope = Map.of("data", cars, "totalData", cars.size(), "status", "success");
+    }
+
+    @Benchmark
+    public byte[] serializeCarList() throws Exception {
+        return objectMapper.writeValueAsBytes(cars);
+    }
+
+    // The GET /api/cars response body
+    @Benchmark
+    public byte[] serializeCarEnvelope() throws Exception {
+        return objectMapper.writeValueAsBytes(envelope);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.benchmark.Fixtures;
+import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.repository.CarFeedRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The /api/cars/simple partner feed: cursor over an embedded H2 car table straight into a JsonGenerator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarFeedBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int fleetSize;
+
+    private CarService carService;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:car-feed;DB_CLOSE_DELAY=-1;NON_KEYWORDS=YEAR", "sa", ""));
+        jdbcTemplate.execute("drop table if exists car");
+        jdbcTemplate.execute("create table car (id bigint primary key, brand varchar(255), model varchar(255),"
+                + " fuel varchar(255), car_type varchar(255), plate_number varchar(255), main_location varchar(255),"
+                + " color varchar(255), transmission varchar(255), year int, passengers int, no_of_air_bags int,"
+                + " description varchar(1000), daily_price decimal(10,2), weekly_price decimal(10,2),"
+                + " monthly_price decimal(10,2), available boolean)");
+        List<Car> fleet = Fixtures.fleet(fleetSize);
+        jdbcTemplate.batchUpdate("insert into car values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                fleet.stream().map(car -> new Object[]{car.getId(), car.getBrand(), car.getModel(), car.getFuel(),
+                        car.getCarType(), car.getPlateNumber(), car.getMainLocation(), car.getColor(),
+                        car.getTransmission(), car.getYear(), car.getPassengers(), car.getNoOfAirBags(),
+                        car.getDescription(), car.getDailyPrice(), car.getWeeklyPrice(), car.getMonthlyPrice(),
+                        car.isAvailable()}).toList());
+
+        CarFeedRepository carFeedRepository = new CarFeedRepository(jdbcTemplate);
+        // H2 rejects Connector/J's Integer.MIN_VALUE streaming hint, as in the test profile
+        Fixtures.setField(carFeedRepository, "fetchSize", 500);
+
+        carService = Fixtures.newService(CarService.class);
+        Fixtures.setField(carService, "carFeedRepository", carFeedRepository);
+        // Unstarted, the router knows a single shard and runs the feed on the calling thread
+        Fixtures.setField(carService, "shardRouter", Fixtures.newService(ShardRouter.class));
+        Fixtures.setField(carService, "objectMapper", new ObjectMapper());
+        out = new ByteArrayOutputStream(fleetSize * 512);
+    }
+
+    @Benchmark
+    public int writeAllCarsSimple() throws Exception {
+        out.reset();
+        carService.writeAllCarsSimple(out);
+        return out.size();
+    }
+}
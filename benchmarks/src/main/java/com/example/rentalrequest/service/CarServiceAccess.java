@@ -0,0 +1,22 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.benchmark.Fixtures;
+import com.example.rentalrequest.dto.CarDTO;
+import com.example.rentalrequest.model.Car;
+
+import java.util.List;
+
+/**
+ * Exposes {@link CarService}'s package-private DTO mapping to benchmarks in other packages.
+ */
+public final class CarServiceAccess {
+
+    private static final CarService CAR_SERVICE = Fixtures.newService(CarService.class);
+
+    private CarServiceAccess() {
+    }
+
+    public static List<CarDTO> toDTOs(List<Car> cars) {
+        return cars.stream().map(CAR_SERVICE::convertToDTO).toList();
+    }
+}
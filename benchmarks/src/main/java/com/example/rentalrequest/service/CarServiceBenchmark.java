@@ -0,0 +1,31 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.benchmark.Fixtures;
+import com.example.rentalrequest.dto.CarDTO;
+import com.example.rentalrequest.model.Car;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CarServiceBenchmark {
+
+    private CarService carService;
+    private Car car;
+
+    @Setup
+    public void setUp() {
+        carService = Fixtures.newService(CarService.class);
+        car = Fixtures.car(42);
+    }
+
+    @Benchmark
+    public CarDTO convertToDTO() {
+        return carService.convertToDTO(car);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.benchmark.Fixtures;
+import com.example.rentalrequest.dto.RentalRequestDTO;
+import com.example.rentalrequest.model.RentalRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RentalRequestServiceBenchmark {
+
+    private RentalRequestService rentalRequestService;
+    private RentalRequestDTO dto;
+    private RentalRequest rental;
+
+    @Setup
+    public void setUp() {
+        rentalRequestService = Fixtures.newService(RentalRequestService.class);
+        dto = Fixtures.rentalRequestDTO();
+        rental = Fixtures.rentalRequest();
+    }
+
+    @Benchmark
+    public void validateRentalRequest(Blackhole blackhole) {
+        rentalRequestService.validateRentalRequestDTO(dto);
+        blackhole.consume(dto);
+    }
+
+    @Benchmark
+    public int calculateRentalDays() {
+        return rentalRequestService.calculateRentalDays(rental.getPickupDateTime(), rental.getDropDateTime());
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalAmount() {
+        return rentalRequestService.calculateTotalAmount(rental);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.rentalrequest.util;
+
+import com.example.rentalrequest.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptionUtilBenchmark {
+
+    @Param({"Priya Raman", "priya.raman.long.address@example-company.co.in"})
+    public String plaintext;
+
+    private EncryptionUtil encryptionUtil;
+    private String ciphertext;
+
+    @Setup
+    public void setUp() {
+        encryptionUtil = new EncryptionUtil();
+        Fixtures.setField(encryptionUtil, "encryptionKey", "CarRental2025SecretKey1234567890");
+        ciphertext = encryptionUtil.encrypt(plaintext);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return encryptionUtil.encrypt(plaintext);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return encryptionUtil.decrypt(ciphertext);
+    }
+}
@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+#
+# Time-to-first-request of the plain executable jar against the fast-startup build.
+#
+#   ./mvnw -Pfast-startup package
+#   scripts/measure-startup.sh [runs]
+#
+# Each run launches the application, polls REQUEST_PATH until it answers with anything other than a
+# connection error, and records the wall-clock time from launch. Both modes use the same database
+# (SPRING_DATASOURCE_URL etc. are passed through). Prints every run and the median per mode.
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+REQUEST_PATH="${REQUEST_PATH:-/api/cars}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-300}"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+TARGET="$ROOT/target"
+JAR_NAME="$(cd "$TARGET" && ls rentalrequestapp-*.jar | grep -v -- '-plain.jar' | head -n 1 || true)"
+FAST_DIR="$TARGET/fast-startup"
+LOG_DIR="$TARGET/startup-measurements"
+
+if [[ -z "$JAR_NAME" || ! -f "$FAST_DIR/app.aot" ]]; then
+    echo "Build first with: ./mvnw -Pfast-startup package" >&2
+    exit 1
+fi
+mkdir -p "$LOG_DIR"
+
+now_millis() {
+    date +%s%3N
+}
+
+# Launches "$@" from the given directory and prints the milliseconds until the first HTTP response
+measure() {
+    local dir="$1" log="$2"
+    shift 2
+
+    local start pid code
+    start="$(now_millis)"
+    (cd "$dir" && exec "$@" --server.port="$PORT" --logging.file.name="$log.app.log") > "$log" 2>&1 &
+    pid=$!
+
+    while true; do
+        code="$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT$REQUEST_PATH" || true)"
+        if [[ "$code" != "000" ]]; then
+            break
+        fi
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Application exited before serving a request, see $log" >&2
+            exit 1
+        fi
+        if (( $(now_millis) - start > TIMEOUT_SECONDS * 1000 )); then
+            kill "$pid"
+            echo "No response within ${TIMEOUT_SECONDS}s, see $log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+
+    echo $(( $(now_millis) - start ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+declare -a baseline fast
+for (( run = 1; run <= RUNS; run++ )); do
+    baseline+=("$(measure "$TARGET" "$LOG_DIR/baseline-$run.log" "$JAVA" -jar "$JAR_NAME")")
+    fast+=("$(measure "$FAST_DIR" "$LOG_DIR/fast-$run.log" "$JAVA" -XX:AOTCache=app.aot -Dspring.aot.enabled=true \
+        -jar "$JAR_NAME" --spring.profiles.active=fast-startup)")
+    echo "run $run: baseline ${baseline[-1]} ms, fast-startup ${fast[-1]} ms"
+done
+
+echo
+echo "time to first request on $REQUEST_PATH (median of $RUNS)"
+echo "  baseline:     $(printf '%s\n' "${baseline[@]}" | median) ms"
+echo "  fast-startup: $(printf '%s\n' "${fast[@]}" | median) ms"
+echo "logs in $LOG_DIR"
@@ -0,0 +1,108 @@
+package com.example.rentalrequest.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Business and security meters published on {@code /actuator/prometheus}. Meters are registered once up front
+ * so the hot paths only pay for a counter increment or a timer record.
+ */
+@Component
+public class ApplicationMetrics {
+
+    private final Counter rentalsCreatedDirect;
+    private final Counter rentalsCreatedJournal;
+    private final Counter rentalsApproved;
+    private final Counter rentalsRejected;
+
+    private final Timer encryptTimer;
+    private final Timer decryptTimer;
+
+    private final Timer jwtValid;
+    private final Timer jwtInvalid;
+
+    private final Timer s3UploadTimer;
+    private final DistributionSummary s3UploadBytes;
+
+    public ApplicationMetrics(MeterRegistry registry) {
+        rentalsCreatedDirect = rentalCounter(registry, "created", "direct");
+        rentalsCreatedJournal = rentalCounter(registry, "created", "journal");
+        rentalsApproved = rentalCounter(registry, "approved", "admin");
+        rentalsRejected = rentalCounter(registry, "rejected", "admin");
+
+        encryptTimer = encryptionTimer(registry, "encrypt");
+        decryptTimer = encryptionTimer(registry, "decrypt");
+
+        jwtValid = jwtTimer(registry, "valid");
+        jwtInvalid = jwtTimer(registry, "invalid");
+
+        s3UploadTimer = Timer.builder("storage.upload.duration")
+                .description("Time to upload one car image to the object store")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(5))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+        s3UploadBytes = DistributionSummary.builder("storage.upload.size")
+                .description("Size of uploaded car images")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public void rentalsCreated(boolean journaled, int count) {
+        (journaled ? rentalsCreatedJournal : rentalsCreatedDirect).increment(count);
+    }
+
+    public void rentalApproved() {
+        rentalsApproved.increment();
+    }
+
+    public void rentalRejected() {
+        rentalsRejected.increment();
+    }
+
+    public void recordEncryption(boolean encrypt, long nanos) {
+        (encrypt ? encryptTimer : decryptTimer).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordJwtVerification(boolean valid, long nanos) {
+        (valid ? jwtValid : jwtInvalid).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUpload(long bytes, long nanos) {
+        s3UploadBytes.record(bytes);
+        s3UploadTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private static Counter rentalCounter(MeterRegistry registry, String event, String source) {
+        return Counter.builder("rentals.requests")
+                .description("Rental request lifecycle events")
+                .tag("event", event)
+                .tag("source", source)
+                .register(registry);
+    }
+
+    private static Timer encryptionTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("encryption.field.duration")
+                .description("Time spent encrypting or decrypting one personal-data column value")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private static Timer jwtTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.jwt.verification")
+                .description("Time to parse and validate a bearer token, including the user lookup")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(2))
+                .register(registry);
+    }
+}
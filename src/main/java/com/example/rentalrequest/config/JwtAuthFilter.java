@@ -24,6 +24,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private ApplicationMetrics metrics;
+
     // ✅ Skip JWT check only for public GET requests
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -53,6 +56,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String jwt = null;
         String username = null;
+        long verificationStarted = System.nanoTime();
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             jwt = authHeader.substring(7);
@@ -68,7 +72,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
             System.out.println("🔍 UserDetails authorities: " + userDetails.getAuthorities());
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            boolean valid = jwtUtil.validateToken(jwt, userDetails);
+            metrics.recordJwtVerification(valid, System.nanoTime() - verificationStarted);
+
+            if (valid) {
                 Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
 
                 System.out.println("🔍 Final authorities being set: " + authorities);
@@ -85,6 +92,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 System.out.println("❌ JWT validation failed for user: " + username);
             }
         } else if (username == null) {
+            if (jwt != null) {
+                metrics.recordJwtVerification(false, System.nanoTime() - verificationStarted);
+            }
             System.out.println("🔍 No username extracted from JWT");
         } else {
             System.out.println("🔍 Authentication already exists in SecurityContext");
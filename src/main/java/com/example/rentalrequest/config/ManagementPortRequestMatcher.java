@@ -0,0 +1,33 @@
+package com.example.rentalrequest.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Matches requests that arrived on the actuator's own port ({@code management.server.port}). That port is not
+ * routed through the public proxy, so it can serve the Prometheus scrape without a token. The port is taken
+ * from the management server once it has started, which also covers a random port; when the actuator shares
+ * the application port nothing matches.
+ */
+@Component
+public class ManagementPortRequestMatcher implements RequestMatcher, ApplicationListener<WebServerInitializedEvent> {
+
+    private static final String MANAGEMENT_NAMESPACE = "management";
+
+    private volatile int managementPort = -1;
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        if (MANAGEMENT_NAMESPACE.equals(event.getApplicationContext().getServerNamespace())) {
+            managementPort = event.getWebServer().getPort();
+        }
+    }
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        return managementPort > 0 && request.getLocalPort() == managementPort;
+    }
+}
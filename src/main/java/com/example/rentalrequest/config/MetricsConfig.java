@@ -0,0 +1,147 @@
+package com.example.rentalrequest.config;
+
+import com.example.rentalrequest.service.AccessoryInventoryService;
+import com.example.rentalrequest.service.CacheInvalidationBus;
+import com.example.rentalrequest.service.CarAvailabilityBroadcaster;
+import com.example.rentalrequest.service.OutboxDispatcher;
+import com.example.rentalrequest.service.PasswordVerificationExecutor;
+import com.example.rentalrequest.service.RentalIntakeService;
+import com.example.rentalrequest.util.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes the in-process stats the admin endpoints already report (intake journal, rate limiters,
+ * password hashing pool, virtual-thread pinning, car stream, outbox, cache invalidation, accessory reservations) as meters, so they can be scraped and alerted on.
+ * HTTP, JVM, Hikari and Hibernate meters come from Spring Boot's auto-configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder rentalIntakeMetrics(RentalIntakeService intakeService) {
+        return registry -> {
+            Gauge.builder("rentals.intake.queue.depth", intakeService, RentalIntakeService::getQueueDepth)
+                    .description("Journaled rental requests not yet in the database")
+                    .register(registry);
+            Gauge.builder("rentals.intake.lag", intakeService, RentalIntakeService::getLagMillis)
+                    .description("Age of the oldest undrained rental request")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            Gauge.builder("rentals.intake.drain.rate", intakeService, RentalIntakeService::getDrainRatePerSecond)
+                    .description("Smoothed rate at which journaled requests reach the database")
+                    .baseUnit("requests.per.second")
+                    .register(registry);
+            Gauge.builder("rentals.intake.quarantined", intakeService, RentalIntakeService::getQuarantinedCount)
+                    .description("Journaled rental requests moved to the dead-letter file")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder rateLimitMetrics(RateLimitFilter rateLimitFilter) {
+        return registry -> {
+            for (TokenBucketRateLimiter limiter : rateLimitFilter.getLimiters()) {
+                Tags tags = Tags.of("policy", limiter.getName());
+                FunctionCounter.builder("ratelimit.requests", limiter, TokenBucketRateLimiter::getAllowedCount)
+                        .tags(tags.and("outcome", "allowed"))
+                        .register(registry);
+                FunctionCounter.builder("ratelimit.requests", limiter, TokenBucketRateLimiter::getRejectedCount)
+                        .tags(tags.and("outcome", "rejected"))
+                        .register(registry);
+                FunctionCounter.builder("ratelimit.overflow", limiter, TokenBucketRateLimiter::getOverflowCount)
+                        .tags(tags)
+                        .register(registry);
+                Gauge.builder("ratelimit.buckets", limiter, TokenBucketRateLimiter::getBucketCount)
+                        .tags(tags)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordVerificationMetrics(PasswordVerificationExecutor passwordVerificationExecutor) {
+        return new ExecutorServiceMetrics(passwordVerificationExecutor.getExecutor(), "password-verification", Tags.empty());
+    }
+
+    @Bean
+    public MeterBinder carStreamMetrics(CarAvailabilityBroadcaster broadcaster) {
+        return registry -> {
+            Gauge.builder("cars.stream.subscribers", broadcaster, CarAvailabilityBroadcaster::getSubscriberCount)
+                    .description("Open car availability event streams")
+                    .register(registry);
+            FunctionCounter.builder("cars.stream.evictions", broadcaster, CarAvailabilityBroadcaster::getEvictedCount)
+                    .description("Subscribers disconnected because their event buffer filled up")
+                    .register(registry);
+            FunctionCounter.builder("cars.stream.refused", broadcaster, CarAvailabilityBroadcaster::getRefusedCount)
+                    .description("Streams turned away because max-subscribers were already open")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder outboxMetrics(OutboxDispatcher outboxDispatcher) {
+        return registry -> {
+            Gauge.builder("outbox.pending", outboxDispatcher, OutboxDispatcher::getPendingCount)
+                    .description("Outbox events not yet delivered")
+                    .register(registry);
+            Gauge.builder("outbox.lag", outboxDispatcher, OutboxDispatcher::getOldestPendingAgeMillis)
+                    .description("Age of the oldest undelivered outbox event")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder cacheInvalidationMetrics(CacheInvalidationBus cacheInvalidationBus) {
+        return registry -> {
+            Gauge.builder("cache.invalidation.queue.depth", cacheInvalidationBus, CacheInvalidationBus::getQueueDepth)
+                    .description("Cache invalidations waiting to be sent to the other nodes")
+                    .register(registry);
+            Gauge.builder("cache.invalidation.staleness", cacheInvalidationBus, CacheInvalidationBus::getStalenessMillis)
+                    .description("Time since this node last completed a poll for other nodes' invalidations")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            FunctionCounter.builder("cache.invalidation.sent", cacheInvalidationBus, CacheInvalidationBus::getSentCount)
+                    .description("Coalesced invalidations sent to the other nodes")
+                    .register(registry);
+            FunctionCounter.builder("cache.invalidation.received", cacheInvalidationBus, CacheInvalidationBus::getReceivedCount)
+                    .description("Invalidations received from the other nodes")
+                    .register(registry);
+            FunctionCounter.builder("cache.invalidation.coalesced", cacheInvalidationBus, CacheInvalidationBus::getCoalescedCount)
+                    .description("Published invalidations already covered by a queued one")
+                    .register(registry);
+            FunctionCounter.builder("cache.invalidation.full.evictions", cacheInvalidationBus, CacheInvalidationBus::getFullEvictionCount)
+                    .description("Times every cache was dropped because invalidations stopped arriving")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder accessoryReservationMetrics(AccessoryInventoryService accessoryInventoryService) {
+        return registry -> {
+            FunctionCounter.builder("accessories.reservations", accessoryInventoryService, AccessoryInventoryService::getReservedCount)
+                    .description("Accessory reservations taken at rental approval")
+                    .tag("outcome", "reserved")
+                    .register(registry);
+            FunctionCounter.builder("accessories.reservations", accessoryInventoryService, AccessoryInventoryService::getRejectedCount)
+                    .description("Rental approvals turned away because an accessory was short")
+                    .tag("outcome", "rejected")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder virtualThreadPinningMetrics(ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor) {
+        return registry -> pinningMonitor.ifAvailable(monitor ->
+                FunctionCounter.builder("jvm.threads.virtual.pinned", monitor, VirtualThreadPinningMonitor::getPinnedEventCount)
+                        .description("Virtual threads that blocked while pinned longer than the configured threshold")
+                        .register(registry));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.rentalrequest.config;
+
+import com.example.rentalrequest.util.TokenBucketRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client rate limiting for the public endpoints, answering 429 with {@code Retry-After} once a client's
+ * bucket is empty. Clients are keyed by remote address; behind a proxy set
+ * {@code server.forward-headers-strategy} so that address is the real client.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ratelimit.max-buckets:200000}")
+    private int maxBuckets;
+
+    @Value("${app.ratelimit.login.capacity:5}")
+    private int loginCapacity;
+
+    @Value("${app.ratelimit.login.refill-per-minute:10}")
+    private int loginRefillPerMinute;
+
+    @Value("${app.ratelimit.login-user.capacity:10}")
+    private int loginUserCapacity;
+
+    @Value("${app.ratelimit.login-user.refill-per-minute:20}")
+    private int loginUserRefillPerMinute;
+
+    @Value("${app.ratelimit.rental-submit.capacity:10}")
+    private int rentalSubmitCapacity;
+
+    @Value("${app.ratelimit.rental-submit.refill-per-minute:20}")
+    private int rentalSubmitRefillPerMinute;
+
+    @Value("${app.ratelimit.catalog.capacity:100}")
+    private int catalogCapacity;
+
+    @Value("${app.ratelimit.catalog.refill-per-minute:600}")
+    private int catalogRefillPerMinute;
+
+    private TokenBucketRateLimiter loginLimiter;
+    private TokenBucketRateLimiter loginUserLimiter;
+    private TokenBucketRateLimiter rentalSubmitLimiter;
+    private TokenBucketRateLimiter catalogLimiter;
+
+    @PostConstruct
+    void createLimiters() {
+        loginLimiter = new TokenBucketRateLimiter("login", loginCapacity, loginRefillPerMinute, maxBuckets);
+        loginUserLimiter = new TokenBucketRateLimiter("login-user", loginUserCapacity, loginUserRefillPerMinute, maxBuckets);
+        rentalSubmitLimiter = new TokenBucketRateLimiter("rental-submit", rentalSubmitCapacity, rentalSubmitRefillPerMinute, maxBuckets);
+        catalogLimiter = new TokenBucketRateLimiter("catalog", catalogCapacity, catalogRefillPerMinute, maxBuckets);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || resolvePolicy(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        TokenBucketRateLimiter limiter = resolvePolicy(request);
+        long waitNanos = limiter.tryAcquire(request.getRemoteAddr());
+
+        // Credential stuffing spreads over many addresses, so logins are also limited per account
+        if (waitNanos == 0 && limiter == loginLimiter) {
+            String username = request.getParameter("username");
+            if (username != null && !username.isBlank()) {
+                waitNanos = loginUserLimiter.tryAcquire(username.trim().toLowerCase());
+            }
+        }
+
+        if (waitNanos > 0) {
+            reject(request, response, limiter, waitNanos);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${app.ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        int evicted = 0;
+        for (TokenBucketRateLimiter limiter : getLimiters()) {
+            evicted += limiter.evictIdle();
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    public List<TokenBucketRateLimiter> getLimiters() {
+        return List.of(loginLimiter, loginUserLimiter, rentalSubmitLimiter, catalogLimiter);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private TokenBucketRateLimiter resolvePolicy(HttpServletRequest request) {
+        String path = request.getServletPath();
+        String method = request.getMethod();
+
+        if ("POST".equals(method)) {
+            if (path.equals("/api/auth/login")) {
+                return loginLimiter;
+            }
+            if (path.equals("/api/rentals")) {
+                return rentalSubmitLimiter;
+            }
+        } else if ("GET".equals(method) && path.startsWith("/api/cars")) {
+            return catalogLimiter;
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        TokenBucketRateLimiter limiter, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        log.debug("Rate limit '{}' exceeded for {}", limiter.getName(), request.getRemoteAddr());
+
+        Map<String, Object> errorResponse = Map.of(
+                "timestamp", LocalDateTime.now(),
+                "status", HttpStatus.TOO_MANY_REQUESTS.value(),
+                "error", "Too Many Requests",
+                "message", "Rate limit exceeded. Please retry after " + retryAfterSeconds + " seconds.",
+                "path", "uri=" + request.getRequestURI()
+        );
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
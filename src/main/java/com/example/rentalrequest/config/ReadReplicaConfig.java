@@ -0,0 +1,103 @@
+package com.example.rentalrequest.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured DataSource with a primary pool plus one pool per read replica when
+ * {@code app.datasource.replica.enabled=true}. Without it the application talks to the primary only. Backs
+ * off when sharding is enabled, where {@link ShardingConfig} refuses to start rather than register a second
+ * primary DataSource.
+ */
+@Configuration
+@ConditionalOnExpression("${app.datasource.replica.enabled:false} and !${app.sharding.enabled:false}")
+@Slf4j
+public class ReadReplicaConfig {
+
+    @Value("${app.datasource.replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${app.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica.maximum-pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${app.datasource.replica.max-lag:5s}")
+    private Duration maxLag;
+
+    @Value("${app.datasource.replica.lag-query:SHOW REPLICA STATUS}")
+    private String lagQuery;
+
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                     DataSourceProperties properties,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String url = replicaUrls.get(i).trim();
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(url);
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            meterRegistry.ifAvailable(replica::setMetricRegistry);
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        routingDataSource = new ReadReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, lagQuery);
+        routingDataSource.refreshReplicaHealth();
+        log.info("Read-only transactions routed across {} replica(s), max lag {} s", replicas.size(), maxLag.toSeconds());
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:2000}")
+    public void checkReplicaLag() {
+        if (routingDataSource != null) {
+            routingDataSource.refreshReplicaHealth();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.rentalrequest.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections for {@code @Transactional(readOnly = true)} work to a healthy replica, round-robin, and
+ * everything else to the primary. Replicas whose replication lag exceeds the tolerance (or whose lag check
+ * fails) are taken out of rotation until they catch up; with none left, reads fall back to the primary.
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * read-only flag is known before the connection is chosen.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private static final List<String> LAG_COLUMNS = List.of("Seconds_Behind_Source", "Seconds_Behind_Master");
+
+    private final List<String> replicaNames;
+    private final Map<String, DataSource> replicas;
+    private final Duration maxLag;
+    private final String lagQuery;
+
+    private final Map<String, ReplicaHealth> health = new ConcurrentHashMap<>();
+    private volatile List<String> healthyReplicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag, String lagQuery) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.replicaNames = List.copyOf(replicas.keySet());
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+        this.healthyReplicas = replicaNames;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        List<String> candidates = healthyReplicas;
+        if (candidates.isEmpty()) {
+            fallbackReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return candidates.get(Math.floorMod(nextReplica.getAndIncrement(), candidates.size()));
+    }
+
+    /**
+     * Measures every replica's lag and rebuilds the rotation. Called on a schedule; a replica stays out
+     * of rotation until a later check sees it within tolerance again.
+     */
+    public void refreshReplicaHealth() {
+        List<String> healthy = new ArrayList<>();
+        for (String name : replicaNames) {
+            ReplicaHealth previous = health.get(name);
+            ReplicaHealth current = checkReplica(name, replicas.get(name));
+            health.put(name, current);
+
+            if (current.healthy()) {
+                healthy.add(name);
+            }
+            if (previous != null && previous.healthy() != current.healthy()) {
+                if (current.healthy()) {
+                    log.info("Replica {} is back in rotation (lag {} s)", name, current.lagSeconds());
+                } else {
+                    log.warn("Replica {} taken out of rotation: {}", name, current.reason());
+                }
+            }
+        }
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> replicaStatus = new LinkedHashMap<>();
+        for (String name : replicaNames) {
+            ReplicaHealth replicaHealth = health.get(name);
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("healthy", healthyReplicas.contains(name));
+            entry.put("lagSeconds", replicaHealth != null ? replicaHealth.lagSeconds() : null);
+            entry.put("reason", replicaHealth != null ? replicaHealth.reason() : null);
+            replicaStatus.put(name, entry);
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("maxLagSeconds", maxLag.toSeconds());
+        status.put("replicas", replicaStatus);
+        status.put("replicaReads", replicaReads.sum());
+        status.put("fallbackReads", fallbackReads.sum());
+        return status;
+    }
+
+    @Override
+    public void close() {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close replica pool: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private ReplicaHealth checkReplica(String name, DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                return new ReplicaHealth(false, null, "lag query returned no rows (replication not configured?)");
+            }
+
+            long lag = rs.getLong(lagColumn(rs.getMetaData()));
+            if (rs.wasNull()) {
+                return new ReplicaHealth(false, null, "replication is not running");
+            }
+            if (lag > maxLag.toSeconds()) {
+                return new ReplicaHealth(false, lag, "lag " + lag + " s exceeds " + maxLag.toSeconds() + " s");
+            }
+            return new ReplicaHealth(true, lag, null);
+        } catch (Exception e) {
+            log.debug("Lag check failed for replica {}: {}", name, e.getMessage());
+            return new ReplicaHealth(false, null, "lag check failed: " + e.getMessage());
+        }
+    }
+
+    // SHOW REPLICA STATUS returns dozens of columns; a custom lag query returns the lag in the first one
+    private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (LAG_COLUMNS.stream().anyMatch(metaData.getColumnLabel(i)::equalsIgnoreCase)) {
+                return i;
+            }
+        }
+        return 1;
+    }
+
+    private record ReplicaHealth(boolean healthy, Long lagSeconds, String reason) {
+    }
+}
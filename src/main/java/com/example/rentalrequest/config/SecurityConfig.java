@@ -1,6 +1,7 @@
 package com.example.rentalrequest.config;
 
 import com.example.rentalrequest.service.CustomUserDetailsService;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -40,11 +41,22 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    // Only run the rate limiter inside the security chain, not a second time as a plain servlet filter
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter, DaoAuthenticationProvider authProvider) throws Exception {
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter, RateLimitFilter rateLimitFilter,
+                                           DaoAuthenticationProvider authProvider,
+                                           ManagementPortRequestMatcher managementPort) throws Exception {
         return http
                 .authenticationProvider(authProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, JwtAuthFilter.class)
                 .cors(Customizer.withDefaults()) // ✅ Enable CORS
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -53,8 +65,16 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/test").permitAll()
                         .requestMatchers("/api/public/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/rentals").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/rentals/intake/*").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/cars").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/cars/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/accessory-stock").permitAll()
+                        // Health details are only shown to admins (management.endpoint.health.roles)
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/info").permitAll()
+                        // Prometheus scrapes the management port, which the public proxy doesn't route to
+                        .requestMatchers(request -> managementPort.matches(request)
+                                && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .build();
@@ -0,0 +1,36 @@
+package com.example.rentalrequest.config;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's next connection is taken from. Unset means the home shard (0), which also
+ * holds every table that isn't sharded: users, outbox bookkeeping, leases, fleet statistics.
+ */
+public final class ShardContext {
+
+    public static final int HOME_SHARD = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : HOME_SHARD;
+    }
+
+    public static <T> T callInShard(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.rentalrequest.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out connections from the shard named by {@link ShardContext}. Must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the shard is chosen at the first
+ * statement rather than when the transaction begins. A transaction is pinned to the shard of its first
+ * connection (or the one {@link #pinTransaction} named earlier), so it never spans two shards.
+ */
+@Slf4j
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<DataSource> shards;
+    private final LongAdder[] connections;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        this.connections = new LongAdder[shards.size()];
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+            connections[i] = new LongAdder();
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(ShardContext.HOME_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer pinned = getTransactionShard();
+        int shard = pinned != null ? pinned : ShardContext.current();
+        if (shard < 0 || shard >= shards.size()) {
+            throw new IllegalStateException("No shard " + shard + "; " + shards.size() + " are configured");
+        }
+        if (pinned == null) {
+            pinTransaction(shard);
+        }
+        connections[shard].increment();
+        return shard;
+    }
+
+    /**
+     * Ties the current transaction, if there is one, to {@code shard}: every connection it takes from here on,
+     * including the one Hibernate flushes through at commit, comes from that shard whatever the thread's
+     * {@link ShardContext} says by then. A transaction cannot be moved to another shard once pinned.
+     */
+    public void pinTransaction(int shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Integer pinned = getTransactionShard();
+        if (pinned != null) {
+            if (pinned != shard) {
+                throw new IllegalStateException("Cannot use shard " + shard + " in a transaction already on shard " + pinned);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // A REQUIRES_NEW transaction on this thread picks its own shard
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ShardRoutingDataSource.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(ShardRoutingDataSource.this, shard);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ShardRoutingDataSource.this);
+            }
+        });
+    }
+
+    /**
+     * @return the shard the current transaction is pinned to, or null if it hasn't used one yet
+     */
+    public Integer getTransactionShard() {
+        return (Integer) TransactionSynchronizationManager.getResource(this);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> perShard = new LinkedHashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            perShard.put("shard-" + i, connections[i].sum());
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("shards", shards.size());
+        status.put("connectionsByShard", perShard);
+        return status;
+    }
+
+    @Override
+    public void close() {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close shard pool: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
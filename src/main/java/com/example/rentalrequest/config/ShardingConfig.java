@@ -0,0 +1,145 @@
+package com.example.rentalrequest.config;
+
+import com.example.rentalrequest.util.ShardIds;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured DataSource with one pool per shard when {@code app.sharding.enabled=true}.
+ * Every shard gets the full schema from the same Flyway migrations; cars, their accessories and images, and
+ * rental requests are spread across shards by location, everything else lives on the home shard. Ids of the
+ * sharded tables come from per-shard ranges (see {@link ShardIds}). Read replicas are not supported on top
+ * of shards, so startup fails if both are switched on.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@Slf4j
+public class ShardingConfig {
+
+    /** Tables whose rows live on their location's shard and therefore need shard-range ids. */
+    private static final List<String> SHARDED_TABLES = List.of("car", "accessory", "car_image", "rental_request", "outbox_event",
+            "accessory_stock", "accessory_reservation");
+
+    @Value("${app.sharding.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${app.sharding.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${app.sharding.maximum-pool-size:10}")
+    private int poolSize;
+
+    @Value("${app.datasource.replica.enabled:false}")
+    private boolean replicasEnabled;
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        if (replicasEnabled) {
+            // ReadReplicaConfig steps aside when sharding is on, so this is the one place the clash surfaces
+            throw new IllegalStateException("app.sharding.enabled and app.datasource.replica.enabled cannot both be true:"
+                    + " replicas would only cover the home shard; switch one of them off");
+        }
+        // Bound rather than @Value-split: JDBC urls may contain commas, so they can also be listed as urls[0], urls[1]
+        List<String> shardUrls = Binder.get(environment).bind("app.sharding.urls", Bindable.listOf(String.class)).orElse(List.of());
+        List<DataSource> shards = new ArrayList<>();
+        for (String url : shardUrls) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + shards.size());
+            shard.setJdbcUrl(url.trim());
+            shard.setUsername(username);
+            shard.setPassword(password);
+            shard.setDriverClassName(properties.determineDriverClassName());
+            shard.setMaximumPoolSize(poolSize);
+            meterRegistry.ifAvailable(shard::setMetricRegistry);
+            shards.add(shard);
+        }
+        if (shards.isEmpty() || shards.size() > ShardIds.MAX_SHARDS) {
+            throw new IllegalStateException("app.sharding.urls must list 1 to " + ShardIds.MAX_SHARDS + " databases");
+        }
+
+        log.info("Cars and rental requests sharded by location across {} databases", shards.size());
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /**
+     * Migrates every shard rather than just the home one, then moves each shard's id counters into its range.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardedMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            List<DataSource> shards = shardRoutingDataSource.getShards();
+            for (int shard = 0; shard < shards.size(); shard++) {
+                Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shards.get(shard)).load().migrate();
+                rebaseIds(shard, shards.get(shard));
+            }
+        };
+    }
+
+    // Cached query results would be shared between shards that returned different rows
+    @Bean
+    public HibernatePropertiesCustomizer shardedQueryCacheCustomizer() {
+        return properties -> properties.put("hibernate.cache.use_query_cache", "false");
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private void rebaseIds(int shard, DataSource dataSource) {
+        long base = ShardIds.base(shard);
+        if (base == 0) {
+            return;
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        boolean mysql = isMySql(dataSource);
+        for (String table : SHARDED_TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+            if (maxId != null && maxId >= base) {
+                continue; // already handing out ids from this shard's range
+            }
+            jdbcTemplate.execute(mysql
+                    ? "alter table " + table + " auto_increment = " + base
+                    : "alter table " + table + " alter column id restart with " + base);
+            log.info("Shard {}: {} ids now start at {}", shard, table, base);
+        }
+    }
+
+    private static boolean isMySql(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot inspect shard database", e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.rentalrequest.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event while virtual threads are enabled and keeps a
+ * per-call-site count, so code that blocks while pinned to its carrier (native frames, class initialisers,
+ * synchronized blocks on older JDKs) shows up before it starves the carrier pool.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String OTHER_SITES = "<other>";
+    private static final int SITE_DEPTH = 3;
+
+    @Value("${app.virtual-threads.pinning-threshold:20ms}")
+    private Duration threshold;
+
+    @Value("${app.virtual-threads.max-tracked-sites:100}")
+    private int maxTrackedSites;
+
+    private RecordingStream stream;
+
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final LongAccumulator maxPinnedNanos = new LongAccumulator(Math::max, 0);
+    private final ConcurrentHashMap<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("Virtual thread pinning monitor started (threshold {} ms)", threshold.toMillis());
+        } catch (RuntimeException e) {
+            log.warn("Virtual thread pinning monitor unavailable: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public Map<String, Object> getReport() {
+        List<Map<String, Object>> sites = pinnedSites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .map(e -> Map.<String, Object>of("site", e.getKey(), "count", e.getValue().sum()))
+                .collect(Collectors.toList());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("thresholdMillis", threshold.toMillis());
+        report.put("pinnedEvents", pinnedEvents.sum());
+        report.put("maxPinnedMillis", TimeUnit.NANOSECONDS.toMillis(maxPinnedNanos.get()));
+        report.put("sites", sites);
+        return report;
+    }
+
+    public long getPinnedEventCount() {
+        return pinnedEvents.sum();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        maxPinnedNanos.accumulate(event.getDuration().toNanos());
+
+        String site = describeSite(event.getStackTrace());
+        LongAdder counter = pinnedSites.get(site);
+        if (counter == null) {
+            if (pinnedSites.size() >= maxTrackedSites) {
+                site = OTHER_SITES;
+            }
+            String newSite = site;
+            counter = pinnedSites.computeIfAbsent(site, key -> {
+                log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), newSite);
+                return new LongAdder();
+            });
+        }
+        counter.increment();
+    }
+
+    // The interesting frames are the first ones outside the JDK, i.e. our code or a driver
+    private String describeSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<unknown>";
+        }
+
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        int first = 0;
+        for (int i = 0; i < frames.size(); i++) {
+            String type = frames.get(i).getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                first = i;
+                break;
+            }
+        }
+
+        return frames.subList(first, Math.min(first + SITE_DEPTH, frames.size())).stream()
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.rentalrequest.controller;
+
+import com.example.rentalrequest.dto.AccessoryStockDTO;
+import com.example.rentalrequest.model.AccessoryStock;
+import com.example.rentalrequest.service.AccessoryInventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/accessory-stock")
+@RequiredArgsConstructor
+public class AccessoryStockController {
+
+    private final AccessoryInventoryService accessoryInventoryService;
+
+    // Units free on every day of the range, for customers choosing accessories with a rental
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getStock(
+            @RequestParam String location,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(accessoryInventoryService.getStockAt(location, from, to));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<AccessoryStock> createStock(@RequestBody AccessoryStockDTO dto) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(accessoryInventoryService.createStock(dto));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/{id}")
+    public ResponseEntity<AccessoryStock> updateStock(@PathVariable Long id, @RequestBody AccessoryStockDTO dto) {
+        return ResponseEntity.ok(accessoryInventoryService.updateStock(id, dto));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(accessoryInventoryService.getStats());
+    }
+}
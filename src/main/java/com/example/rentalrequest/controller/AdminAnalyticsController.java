@@ -0,0 +1,39 @@
+package com.example.rentalrequest.controller;
+
+import com.example.rentalrequest.service.FleetStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+public class AdminAnalyticsController {
+
+    private final FleetStatsService fleetStatsService;
+
+    // Served from the pre-aggregated fleet_daily_stats rows only; defaults to the last 30 days by day
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/fleet")
+    public ResponseEntity<Map<String, Object>> getFleetStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String groupBy) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return ResponseEntity.ok(fleetStatsService.getFleetStats(start, end, groupBy));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/fleet/reconcile")
+    public ResponseEntity<Map<String, Object>> reconcileFleetStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(fleetStatsService.reconcile(from, to));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.rentalrequest.controller;
+
+import com.example.rentalrequest.model.CacheInvalidation;
+import com.example.rentalrequest.service.CacheInvalidationBus;
+import com.example.rentalrequest.service.SecondLevelCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+public class AdminCacheController {
+
+    private final SecondLevelCacheService secondLevelCacheService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getCacheReport() {
+        return ResponseEntity.ok(secondLevelCacheService.getReport());
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping
+    public ResponseEntity<Map<String, String>> evictAll() {
+        secondLevelCacheService.evictAll();
+        // Rows edited outside the application are stale on every node, not just this one
+        cacheInvalidationBus.publish(CacheInvalidation.region(CacheInvalidation.CAR));
+        cacheInvalidationBus.publish(CacheInvalidation.region(CacheInvalidation.ACCESSORY));
+        return ResponseEntity.ok(Map.of("message", "All cache regions evicted"));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/invalidation")
+    public ResponseEntity<Map<String, Object>> getInvalidationStats() {
+        return ResponseEntity.ok(cacheInvalidationBus.getStats());
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/{region}")
+    public ResponseEntity<Map<String, String>> evictRegion(@PathVariable String region) {
+        secondLevelCacheService.evictRegion(region);
+        return ResponseEntity.ok(Map.of("message", "Cache region evicted", "region", region));
+    }
+}
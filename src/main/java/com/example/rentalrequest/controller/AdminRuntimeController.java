@@ -0,0 +1,81 @@
+package com.example.rentalrequest.controller;
+
+import com.example.rentalrequest.config.ReadReplicaRoutingDataSource;
+import com.example.rentalrequest.config.VirtualThreadPinningMonitor;
+import com.example.rentalrequest.service.CarAvailabilityBroadcaster;
+import com.example.rentalrequest.service.CarReleaseScheduler;
+import com.example.rentalrequest.service.OutboxDispatcher;
+import com.example.rentalrequest.service.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/runtime")
+@RequiredArgsConstructor
+public class AdminRuntimeController {
+
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+    private final ObjectProvider<ReadReplicaRoutingDataSource> replicaRouting;
+    private final CarAvailabilityBroadcaster carAvailabilityBroadcaster;
+    private final OutboxDispatcher outboxDispatcher;
+    private final CarReleaseScheduler carReleaseScheduler;
+    private final ShardRouter shardRouter;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/threads")
+    public ResponseEntity<Map<String, Object>> getThreadingReport() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("virtualThreadsEnabled", virtualThreadsEnabled);
+        response.put("liveThreads", Thread.activeCount());
+
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        if (monitor != null) {
+            response.put("pinning", monitor.getReport());
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/datasources")
+    public ResponseEntity<Map<String, Object>> getDataSourceReport() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        ReadReplicaRoutingDataSource routing = replicaRouting.getIfAvailable();
+        response.put("replicaRoutingEnabled", routing != null);
+        if (routing != null) {
+            response.put("routing", routing.getStatus());
+        }
+        response.put("sharding", shardRouter.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/car-stream")
+    public ResponseEntity<Map<String, Object>> getCarStreamReport() {
+        return ResponseEntity.ok(carAvailabilityBroadcaster.getStats());
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> getOutboxReport() {
+        return ResponseEntity.ok(outboxDispatcher.getStats());
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/car-release")
+    public ResponseEntity<Map<String, Object>> getCarReleaseReport() {
+        return ResponseEntity.ok(carReleaseScheduler.getStats());
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.rentalrequest.controller;
 
+import com.example.rentalrequest.dto.PasswordChangeRequest;
+import com.example.rentalrequest.service.PasswordVerificationExecutor;
+import com.example.rentalrequest.service.UserAccountService;
 import com.example.rentalrequest.util.JwtUtil;
 import com.example.rentalrequest.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.*;
@@ -12,6 +16,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -21,26 +27,34 @@ public class AuthController {
     private final AuthenticationManager authManager;
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
+    private final PasswordVerificationExecutor passwordVerificationExecutor;
+    private final UserAccountService userAccountService;
 
+    // BCrypt runs on the bounded verification pool; the request thread is released while it works
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@RequestParam String username, @RequestParam String password) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> login(@RequestParam String username, @RequestParam String password) {
         try {
-            Authentication auth = authManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(username, password)
-            );
-
-            UserDetails userDetails = (UserDetails) auth.getPrincipal();
-            String token = jwtUtil.generateToken(userDetails);
+            return passwordVerificationExecutor.submit(() -> authenticate(username, password));
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body(Map.of("error", "Too many login attempts in progress, please retry shortly")));
+        }
+    }
 
-            return ResponseEntity.ok(Map.of(
-                    "token", token,
-                    "message", "Login successful",
-                    "username", username
-            ));
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/hashing-stats")
+    public ResponseEntity<Map<String, Object>> hashingStats() {
+        return ResponseEntity.ok(passwordVerificationExecutor.getStats());
+    }
 
-        } catch (BadCredentialsException ex) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Invalid username or password"));
-        }
+    @PreAuthorize("hasRole('ADMIN')")
+    // In the body, not the query string, so the password stays out of access and proxy logs
+    @PutMapping("/users/{username}/password")
+    public ResponseEntity<Map<String, String>> changePassword(@PathVariable String username,
+                                                              @RequestBody PasswordChangeRequest request) {
+        userAccountService.changePassword(username, request.getPassword());
+        return ResponseEntity.ok(Map.of("message", "Password changed", "username", username));
     }
 
     @GetMapping("/test")
@@ -69,6 +83,26 @@ public class AuthController {
                 "authorities", auth.getAuthorities()
         ));
     }
+
+    private ResponseEntity<Map<String, String>> authenticate(String username, String password) {
+        try {
+            Authentication auth = authManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(username, password)
+            );
+
+            UserDetails userDetails = (UserDetails) auth.getPrincipal();
+            String token = jwtUtil.generateToken(userDetails);
+
+            return ResponseEntity.ok(Map.of(
+                    "token", token,
+                    "message", "Login successful",
+                    "username", username
+            ));
+
+        } catch (BadCredentialsException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid username or password"));
+        }
+    }
 }
 
 
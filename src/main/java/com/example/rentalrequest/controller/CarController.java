@@ -2,13 +2,18 @@ package com.example.rentalrequest.controller;
 
 import com.example.rentalrequest.dto.CarDTO;
 import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.service.CarAvailabilityBroadcaster;
 import com.example.rentalrequest.service.CarService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.List;
@@ -20,10 +25,13 @@ import java.util.Map;
 public class CarController {
 
     private final CarService carService;
+    private final CarAvailabilityBroadcaster carAvailabilityBroadcaster;
 
+    // Listings take optional fields=id,brand,... and expand=accessories,images; fields alone skips the associations
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllCars() {
-        List<CarDTO> cars = carService.getAllCarsWithAccessories();
+    public ResponseEntity<Map<String, Object>> getAllCars(@RequestParam(required = false) String fields,
+                                                          @RequestParam(required = false) String expand) {
+        List<Map<String, Object>> cars = carService.getCars(fields, expand);
 
         Map<String, Object> response = Map.of(
                 "data", cars,
@@ -34,10 +42,11 @@ public class CarController {
         return ResponseEntity.ok(response);
     }
 
+    // Partner feed, pulled in full every few minutes: streamed from the database cursor into the response
     @GetMapping("/simple")
-    public ResponseEntity<List<Map<String, Object>>> getAllCarsSimple() {
-        List<Map<String, Object>> cars = carService.getAllCarsSimple();
-        return ResponseEntity.ok(cars);
+    public void getAllCarsSimple(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        carService.writeAllCarsSimple(response.getOutputStream());
     }
 
     // REMOVE @PreAuthorize annotation to make this endpoint public
@@ -85,14 +94,27 @@ public class CarController {
     }
 
     @GetMapping("/available")
-    public ResponseEntity<List<Car>> getAvailableCars() {
-        List<Car> availableCars = carService.findAvailableCars();
+    public ResponseEntity<List<Map<String, Object>>> getAvailableCars(@RequestParam(required = false) String fields,
+                                                                      @RequestParam(required = false) String expand) {
+        List<Map<String, Object>> availableCars = carService.findAvailableCars(fields, expand);
         return ResponseEntity.ok(availableCars);
     }
 
+    // Pushes availability and price changes instead of clients polling /available; reconnects send Last-Event-ID
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCarChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return carAvailabilityBroadcaster.subscribe(lastEventId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, carAvailabilityBroadcaster.getReconnectMs() / 1000)))
+                        .build());
+    }
+
     @GetMapping("/location/{location}")
-    public ResponseEntity<List<Car>> getCarsByLocation(@PathVariable String location) {
-        List<Car> cars = carService.findCarsByLocation(location);
+    public ResponseEntity<List<Map<String, Object>>> getCarsByLocation(@PathVariable String location,
+                                                                       @RequestParam(required = false) String fields,
+                                                                       @RequestParam(required = false) String expand) {
+        List<Map<String, Object>> cars = carService.findCarsByLocation(location, fields, expand);
         return ResponseEntity.ok(cars);
     }
 
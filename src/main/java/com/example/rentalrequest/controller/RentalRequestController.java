@@ -1,7 +1,13 @@
 package com.example.rentalrequest.controller;
 
 import com.example.rentalrequest.dto.RentalRequestDTO;
+import com.example.rentalrequest.model.AccessoryReservation;
 import com.example.rentalrequest.model.RentalRequest;
+import com.example.rentalrequest.model.RentalStatus;
+import com.example.rentalrequest.service.AccessoryInventoryService;
+import com.example.rentalrequest.service.IdempotencyService;
+import com.example.rentalrequest.service.RentalIntakeService;
+import com.example.rentalrequest.service.RentalListingService;
 import com.example.rentalrequest.service.RentalRequestService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -19,11 +25,16 @@ import java.util.Map;
 public class RentalRequestController {
 
     private final RentalRequestService rentalRequestService;
+    private final RentalListingService rentalListingService;
+    private final RentalIntakeService rentalIntakeService;
+    private final IdempotencyService idempotencyService;
+    private final AccessoryInventoryService accessoryInventoryService;
 
+    // Listings take an optional fields=id,customerName,status,... so unused personal data is never decrypted
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping
-    public ResponseEntity<List<RentalRequest>> getAllRequests() {
-        List<RentalRequest> requests = rentalRequestService.getAllRequests();
+    public ResponseEntity<List<Map<String, Object>>> getAllRequests(@RequestParam(required = false) String fields) {
+        List<Map<String, Object>> requests = rentalListingService.getAllRequests(fields);
         return ResponseEntity.ok(requests);
     }
 
@@ -34,8 +45,27 @@ public class RentalRequestController {
         return ResponseEntity.ok(request);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{id}/accessories")
+    public ResponseEntity<List<AccessoryReservation>> getAccessoryReservations(@PathVariable Long id) {
+        return ResponseEntity.ok(accessoryInventoryService.getReservations(id));
+    }
+
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createRentalRequest(@RequestBody RentalRequestDTO dto) {
+    public ResponseEntity<Map<String, Object>> createRentalRequest(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody RentalRequestDTO dto) {
+        // Retried submissions with the same key get the original response instead of a new row
+        return idempotencyService.execute(idempotencyKey, dto, () -> submitRentalRequest(dto));
+    }
+
+    private ResponseEntity<Map<String, Object>> submitRentalRequest(RentalRequestDTO dto) {
+        if (rentalIntakeService.isJournalMode()) {
+            Map<String, Object> queued = new HashMap<>(rentalIntakeService.submit(dto));
+            queued.put("message", "Rental request received! Admin will review your request.");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(queued);
+        }
+
         Map<String, Object> result = rentalRequestService.createRentalRequest(dto);
 
         // Use HashMap to safely handle potentially null values
@@ -71,11 +101,19 @@ public class RentalRequestController {
         return ResponseEntity.ok(Map.of("message", "Rental request deleted successfully"));
     }
 
+    // Keyset-paginated by pickup time; pass the previous page's nextCursor to continue
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/pending")
-    public ResponseEntity<List<RentalRequest>> getPendingRequests() {
-        List<RentalRequest> pendingRequests = rentalRequestService.getPendingRequests();
-        return ResponseEntity.ok(pendingRequests);
+    public ResponseEntity<Map<String, Object>> getPendingRequests(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size,
+                                                                  @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(rentalListingService.getPendingRequests(cursor, size, fields));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/counts")
+    public ResponseEntity<Map<RentalStatus, Long>> getStatusCounts() {
+        return ResponseEntity.ok(rentalRequestService.getStatusCounts());
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -110,9 +148,21 @@ public class RentalRequestController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/intake/{trackingId}")
+    public ResponseEntity<Map<String, Object>> getIntakeStatus(@PathVariable String trackingId) {
+        return ResponseEntity.ok(rentalIntakeService.getTrackingStatus(trackingId));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/intake/stats")
+    public ResponseEntity<Map<String, Object>> getIntakeStats() {
+        return ResponseEntity.ok(rentalIntakeService.getStats());
+    }
+
     @GetMapping("/customer/{customerName}")
-    public ResponseEntity<List<RentalRequest>> getRequestsByCustomer(@PathVariable String customerName) {
-        List<RentalRequest> requests = rentalRequestService.getRequestsByCustomerName(customerName);
+    public ResponseEntity<List<Map<String, Object>>> getRequestsByCustomer(@PathVariable String customerName,
+                                                                           @RequestParam(required = false) String fields) {
+        List<Map<String, Object>> requests = rentalListingService.getRequestsByCustomerName(customerName, fields);
         return ResponseEntity.ok(requests);
     }
 }
@@ -0,0 +1,19 @@
+package com.example.rentalrequest.converter;
+
+import com.example.rentalrequest.model.RentalStatus;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class RentalStatusConverter implements AttributeConverter<RentalStatus, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(RentalStatus attribute) {
+        return attribute != null ? attribute.getCode() : null;
+    }
+
+    @Override
+    public RentalStatus convertToEntityAttribute(Integer dbData) {
+        return dbData != null ? RentalStatus.fromCode(dbData) : null;
+    }
+}
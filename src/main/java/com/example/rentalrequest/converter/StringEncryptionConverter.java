@@ -1,5 +1,6 @@
 package com.example.rentalrequest.converter;
 
+import com.example.rentalrequest.config.ApplicationMetrics;
 import com.example.rentalrequest.util.EncryptionUtil;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
@@ -13,13 +14,22 @@ public class StringEncryptionConverter implements AttributeConverter<String, Str
     @Autowired
     private EncryptionUtil encryptionUtil;
 
+    @Autowired
+    private ApplicationMetrics metrics;
+
     @Override
     public String convertToDatabaseColumn(String attribute) {
-        return encryptionUtil.encrypt(attribute);
+        long started = System.nanoTime();
+        String encrypted = encryptionUtil.encrypt(attribute);
+        metrics.recordEncryption(true, System.nanoTime() - started);
+        return encrypted;
     }
 
     @Override
     public String convertToEntityAttribute(String dbData) {
-        return encryptionUtil.decrypt(dbData);
+        long started = System.nanoTime();
+        String decrypted = encryptionUtil.decrypt(dbData);
+        metrics.recordEncryption(false, System.nanoTime() - started);
+        return decrypted;
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.rentalrequest.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessoryStockDTO {
+    private String location;
+    private String name;
+    private Integer quantity;
+}
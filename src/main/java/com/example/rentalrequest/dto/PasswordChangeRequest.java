@@ -0,0 +1,14 @@
+package com.example.rentalrequest.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PasswordChangeRequest {
+    @NotBlank(message = "Password is required")
+    private String password;
+}
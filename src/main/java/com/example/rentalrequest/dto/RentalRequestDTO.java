@@ -2,6 +2,7 @@ package com.example.rentalrequest.dto;
 
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 public class RentalRequestDTO {
@@ -9,8 +10,11 @@ public class RentalRequestDTO {
     private String phoneNumber;
     private String email;
     private String carModel; // auto-filled from selected car in frontend
+    private Long carId; // selected car, keeps the request on that car's shard; assigned for real on approval
+    private String location; // pickup branch, e.g. the selected car's main location
     private LocalDateTime pickupDateTime;
     private LocalDateTime dropDateTime;
+    private Map<String, Integer> accessories; // accessory name -> units, from the pickup location's stock
 }
 
 
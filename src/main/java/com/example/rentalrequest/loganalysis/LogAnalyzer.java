@@ -0,0 +1,253 @@
+package com.example.rentalrequest.loganalysis;
+
+import com.example.rentalrequest.loganalysis.LogPattern.LogLine;
+import com.example.rentalrequest.loganalysis.LogStats.StartupRun;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Offline analyser for the application's file logs. Reads {@code app.log} and its gzip-rotated archives in
+ * parallel, one file per worker, streaming each line by line so memory depends on the number of distinct
+ * loggers and threads rather than on the size of the logs.
+ * <p>
+ * Run with {@code mvn -P log-analysis compile exec:java} or directly:
+ * <pre>
+ * java -cp target/classes com.example.rentalrequest.loganalysis.LogAnalyzer logs \
+ *     [--properties=src/main/resources/application.properties] [--pattern=...] [--threads=4] \
+ *     [--correlation-key=requestId] [--top=10]
+ * </pre>
+ */
+public class LogAnalyzer {
+
+    private static final String DEFAULT_PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final LogPattern pattern;
+    private final String correlationKey;
+    private final int maxOpenCorrelations;
+    private final int threads;
+
+    public LogAnalyzer(LogPattern pattern, String correlationKey, int maxOpenCorrelations, int threads) {
+        this.pattern = pattern;
+        this.correlationKey = correlationKey;
+        this.maxOpenCorrelations = maxOpenCorrelations;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Path> inputs = new ArrayList<>();
+        String layout = null;
+        String propertiesFile = "src/main/resources/application.properties";
+        String correlationKey = "requestId";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int top = 10;
+        int maxOpen = 100_000;
+
+        for (String arg : args) {
+            if (arg.startsWith("--pattern=")) {
+                layout = value(arg);
+            } else if (arg.startsWith("--properties=")) {
+                propertiesFile = value(arg);
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--correlation-key=")) {
+                correlationKey = value(arg);
+            } else if (arg.startsWith("--top=")) {
+                top = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--max-open-correlations=")) {
+                maxOpen = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            } else {
+                inputs.add(Path.of(arg));
+            }
+        }
+        if (layout == null) {
+            layout = readLayout(Path.of(propertiesFile));
+        }
+        if (inputs.isEmpty()) {
+            inputs.add(Path.of("logs"));
+        }
+
+        List<Path> files = collectFiles(inputs);
+        LogPattern pattern = new LogPattern(layout);
+        if (!pattern.hasMdc(correlationKey)) {
+            System.err.printf("Layout has no %%X{%s}; request latencies will not be reported%n", correlationKey);
+        }
+
+        long started = System.nanoTime();
+        LogStats stats = new LogAnalyzer(pattern, correlationKey, maxOpen, threads).analyze(files);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        new LogReport(stats, top).print(System.out);
+        System.out.printf("%nAnalysed %d files in %d ms%n", files.size(), elapsedMillis);
+    }
+
+    public LogStats analyze(List<Path> files) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+        try {
+            List<Future<LogStats>> results = new ArrayList<>();
+            for (Path file : files) {
+                results.add(executor.submit(() -> analyzeFile(file)));
+            }
+            LogStats merged = new LogStats(correlationKey, maxOpenCorrelations);
+            for (Future<LogStats> result : results) {
+                merged.merge(result.get());
+            }
+            return merged;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof UncheckedIOException io ? io : new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public LogStats analyzeFile(Path file) {
+        LogStats stats = new LogStats(correlationKey, maxOpenCorrelations);
+        try (BufferedReader reader = open(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                LogLine parsed = pattern.parse(line);
+                if (parsed != null) {
+                    stats.accept(parsed);
+                } else {
+                    stats.acceptContinuation(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file, e);
+        }
+        stats.finish();
+        return stats;
+    }
+
+    /**
+     * Log files under the given paths: rotated archives in name (and so date) order, then the live files.
+     */
+    public static List<Path> collectFiles(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (!Files.isDirectory(input)) {
+                files.add(input);
+                continue;
+            }
+            try (Stream<Path> entries = Files.list(input)) {
+                entries.filter(Files::isRegularFile)
+                        .filter(path -> path.getFileName().toString().contains(".log"))
+                        .forEach(files::add);
+            }
+        }
+        files.sort(Comparator.comparing((Path path) -> !isGzip(path)).thenComparing(Path::toString));
+        return files;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private static BufferedReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (isGzip(file)) {
+            in = new GZIPInputStream(in, READ_BUFFER_SIZE);
+        }
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        return new BufferedReader(reader, READ_BUFFER_SIZE);
+    }
+
+    private static boolean isGzip(Path file) {
+        return file.getFileName().toString().endsWith(".gz");
+    }
+
+    private static String readLayout(Path propertiesFile) throws IOException {
+        if (!Files.exists(propertiesFile)) {
+            return DEFAULT_PATTERN;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(propertiesFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties.getProperty("logging.pattern.file", DEFAULT_PATTERN);
+    }
+
+    private static String value(String arg) {
+        return arg.substring(arg.indexOf('=') + 1);
+    }
+
+    /**
+     * Plain-text rendering of merged {@link LogStats}.
+     */
+    static class LogReport {
+
+        private final LogStats stats;
+        private final int top;
+
+        LogReport(LogStats stats, int top) {
+            this.stats = stats;
+            this.top = top;
+        }
+
+        void print(PrintStream out) {
+            double minutes = stats.getSpanMinutes();
+            out.printf("Records: %d (+%d continuation lines, %d unattributed)%n",
+                    stats.getRecords(), stats.getContinuationLines(), stats.getOrphanLines());
+            out.printf("Span: %s .. %s (%.0f minutes)%n", stats.getFirst(), stats.getLast(), minutes);
+            Map.Entry<?, Long> peak = stats.getPeakMinute();
+            if (peak != null) {
+                out.printf("Peak minute: %s with %d records%n", peak.getKey(), peak.getValue());
+            }
+
+            section(out, "Levels", stats.getByLevel(), minutes);
+            section(out, "Top loggers", stats.getByLogger(), minutes);
+            section(out, "Top threads", stats.getByThread(), minutes);
+            section(out, "Warnings and errors by logger", stats.getProblemsByLogger(), minutes);
+            section(out, "Exceptions", stats.getExceptions(), minutes);
+            section(out, "Root causes", stats.getRootCauses(), minutes);
+
+            out.printf("%nStartups (%d)%n", stats.getStartups().size());
+            stats.getStartups().stream()
+                    .sorted(Comparator.comparing(StartupRun::getStartedAt))
+                    .forEach(run -> out.printf("  %s %s reported=%s phases=%s%n", run.getStartedAt(),
+                            run.getApplication(),
+                            run.getReportedMillis() != null ? run.getReportedMillis() + "ms" : "incomplete",
+                            run.getPhaseOffsetsMillis()));
+
+            if (stats.getLatencyCount() > 0) {
+                out.printf("%nRequest latency (%d requests, %d evicted while open)%n",
+                        stats.getLatencyCount(), stats.getDroppedCorrelations());
+                out.printf("  p50<=%dms p90<=%dms p99<=%dms max=%dms%n",
+                        stats.getLatencyPercentileMillis(0.50), stats.getLatencyPercentileMillis(0.90),
+                        stats.getLatencyPercentileMillis(0.99), stats.getLatencyMaxMillis());
+            }
+        }
+
+        private void section(PrintStream out, String title, Map<String, Long> counts, double minutes) {
+            if (counts.isEmpty()) {
+                return;
+            }
+            out.printf("%n%s%n", title);
+            counts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(top)
+                    .forEach(entry -> out.printf("  %8d  %8.2f/min  %s%n",
+                            entry.getValue(), entry.getValue() / minutes, entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.rentalrequest.loganalysis;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a Logback layout such as {@code logging.pattern.file} into a line matcher. Supports the conversion words
+ * the application's layouts use: {@code %d{...}}, {@code %thread}, {@code %level}, {@code %logger}, {@code %msg},
+ * {@code %X{key}} and {@code %n}, with or without padding. Lines that don't match are continuations (stack traces,
+ * multi-line messages) of the previous record.
+ */
+public class LogPattern {
+
+    private static final Pattern CONVERSION = Pattern.compile("%(-?\\d+(?:\\.\\d+)?)?([a-zA-Z]+)(\\{([^}]*)})?");
+
+    private final Pattern regex;
+    private final DateTimeFormatter timestampFormat;
+    private final Map<String, String> mdcGroups = new HashMap<>();
+
+    public LogPattern(String layout) {
+        StringBuilder builder = new StringBuilder("^");
+        DateTimeFormatter format = null;
+        Matcher matcher = CONVERSION.matcher(layout);
+        int literalStart = 0;
+        int mdcIndex = 0;
+
+        while (matcher.find()) {
+            appendLiteral(builder, layout.substring(literalStart, matcher.start()));
+            literalStart = matcher.end();
+            String option = matcher.group(4);
+
+            switch (matcher.group(2)) {
+                case "d", "date" -> {
+                    String datePattern = option == null || option.isBlank() ? "yyyy-MM-dd HH:mm:ss,SSS" : option;
+                    format = DateTimeFormatter.ofPattern(datePattern);
+                    builder.append("(?<ts>").append(dateRegex(datePattern)).append(")");
+                }
+                case "thread", "t" -> builder.append("(?<thread>.*?)");
+                case "level", "le", "p" -> builder.append("\\s*(?<level>[A-Z]+)\\s*");
+                case "logger", "lo", "c" -> builder.append("(?<logger>\\S+)");
+                case "msg", "m", "message" -> builder.append("(?<msg>.*)");
+                case "X", "mdc" -> {
+                    String group = "mdc" + mdcIndex++;
+                    mdcGroups.put(option == null ? "" : option.split(":-")[0], group);
+                    builder.append("(?<").append(group).append(">.*?)");
+                }
+                case "n" -> {
+                    // Lines are read without their terminator
+                }
+                default -> builder.append(".*?");
+            }
+        }
+        appendLiteral(builder, layout.substring(literalStart));
+        builder.append("$");
+
+        if (format == null) {
+            throw new IllegalArgumentException("Log layout has no %d timestamp: " + layout);
+        }
+        this.regex = Pattern.compile(builder.toString());
+        this.timestampFormat = format;
+    }
+
+    /**
+     * @return the parsed record, or null if the line is a continuation of the previous one
+     */
+    public LogLine parse(String line) {
+        Matcher matcher = regex.matcher(line);
+        if (!matcher.matches()) {
+            return null;
+        }
+        LocalDateTime timestamp;
+        try {
+            timestamp = LocalDateTime.parse(matcher.group("ts"), timestampFormat);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        return new LogLine(timestamp, group(matcher, "thread"), group(matcher, "level"), group(matcher, "logger"),
+                group(matcher, "msg"), mdc(matcher));
+    }
+
+    public boolean hasMdc(String key) {
+        return mdcGroups.containsKey(key);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private Map<String, String> mdc(Matcher matcher) {
+        if (mdcGroups.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> values = new HashMap<>();
+        mdcGroups.forEach((key, group) -> {
+            String value = matcher.group(group);
+            if (value != null && !value.isBlank()) {
+                values.put(key, value.trim());
+            }
+        });
+        return values;
+    }
+
+    private static String group(Matcher matcher, String name) {
+        try {
+            return matcher.group(name);
+        } catch (IllegalArgumentException e) {
+            return null; // the layout doesn't contain this conversion
+        }
+    }
+
+    private static void appendLiteral(StringBuilder builder, String literal) {
+        // Runs of spaces in a layout are padding as often as not, so allow any amount of whitespace
+        List<String> parts = new ArrayList<>(List.of(literal.split(" +", -1)));
+        for (int i = 0; i < parts.size(); i++) {
+            if (i > 0) {
+                builder.append("\\s+");
+            }
+            if (!parts.get(i).isEmpty()) {
+                builder.append(Pattern.quote(parts.get(i)));
+            }
+        }
+    }
+
+    private static String dateRegex(String datePattern) {
+        StringBuilder regex = new StringBuilder();
+        int i = 0;
+        while (i < datePattern.length()) {
+            char c = datePattern.charAt(i);
+            int run = 1;
+            while (i + run < datePattern.length() && datePattern.charAt(i + run) == c) {
+                run++;
+            }
+            if (c == '\'') {
+                int end = datePattern.indexOf('\'', i + 1);
+                end = end < 0 ? datePattern.length() : end;
+                regex.append(Pattern.quote(datePattern.substring(i + 1, end)));
+                i = end + 1;
+                continue;
+            }
+            if ("yMdHhmsSku".indexOf(c) >= 0) {
+                regex.append(run >= 3 && c == 'M' ? "\\p{L}+" : "\\d{" + run + "}");
+            } else if (Character.isLetter(c)) {
+                regex.append("\\S+");
+            } else {
+                regex.append(Pattern.quote(datePattern.substring(i, i + run)));
+            }
+            i += run;
+        }
+        return regex.toString();
+    }
+
+    public record LogLine(LocalDateTime timestamp, String thread, String level, String logger, String message,
+                          Map<String, String> mdc) {
+    }
+}
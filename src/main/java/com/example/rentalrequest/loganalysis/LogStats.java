@@ -0,0 +1,377 @@
+package com.example.rentalrequest.loganalysis;
+
+import com.example.rentalrequest.loganalysis.LogPattern.LogLine;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Counters gathered from one log file. Everything is a count or a bounded map so memory stays flat however
+ * large the file is; instances from different files are combined with {@link #merge(LogStats)}.
+ * <p>
+ * Not thread-safe; each file gets its own instance.
+ */
+public class LogStats {
+
+    private static final Pattern EXCEPTION_LINE =
+            Pattern.compile("^\\s*(?:Caused by: )?((?:[a-zA-Z_$][\\w$]*\\.)+[A-Z][\\w$]*(?:Exception|Error))(?::.*)?$");
+    private static final Pattern STARTING = Pattern.compile("^Starting (\\S+) using Java");
+    private static final Pattern STARTED = Pattern.compile("^Started (\\S+) in ([\\d.]+) seconds");
+    private static final Map<String, Pattern> STARTUP_PHASES = startupPhases();
+
+    /** Latencies go into power-of-two millisecond buckets: bucket {@code i} holds values below {@code 2^i} ms. */
+    private static final int LATENCY_BUCKETS = 40;
+
+    private final int maxOpenCorrelations;
+    private final String correlationKey;
+
+    private long records;
+    private long continuationLines;
+    private long orphanLines;
+    private LocalDateTime first;
+    private LocalDateTime last;
+
+    private final Map<String, Long> byLevel = new HashMap<>();
+    private final Map<String, Long> byLogger = new HashMap<>();
+    private final Map<String, Long> byThread = new HashMap<>();
+    private final Map<String, Long> problemsByLogger = new HashMap<>();
+    private final Map<String, Long> exceptions = new HashMap<>();
+    private final Map<String, Long> rootCauses = new HashMap<>();
+    private final Map<LocalDateTime, Long> byMinute = new HashMap<>();
+    private final List<StartupRun> startups = new ArrayList<>();
+
+    private final long[] latencyBuckets = new long[LATENCY_BUCKETS];
+    private long latencyCount;
+    private long latencyMaxMillis;
+    private long droppedCorrelations;
+    private final LinkedHashMap<String, Span> openSpans = new LinkedHashMap<>(16, 0.75f, true);
+
+    // State of the record currently being read, so continuation lines can be attributed to it
+    private boolean currentIsProblem;
+    private String currentException;
+    private String currentRootCause;
+    private StartupRun currentStartup;
+
+    public LogStats(String correlationKey, int maxOpenCorrelations) {
+        this.correlationKey = correlationKey;
+        this.maxOpenCorrelations = maxOpenCorrelations;
+    }
+
+    public void accept(LogLine line) {
+        finishRecord();
+        records++;
+
+        LocalDateTime timestamp = line.timestamp();
+        if (first == null || timestamp.isBefore(first)) {
+            first = timestamp;
+        }
+        if (last == null || timestamp.isAfter(last)) {
+            last = timestamp;
+        }
+        byMinute.merge(timestamp.truncatedTo(ChronoUnit.MINUTES), 1L, Long::sum);
+
+        String level = line.level() != null ? line.level() : "UNKNOWN";
+        increment(byLevel, level);
+        increment(byLogger, line.logger());
+        increment(byThread, line.thread());
+
+        currentIsProblem = "ERROR".equals(level) || "WARN".equals(level);
+        if (currentIsProblem) {
+            increment(problemsByLogger, level + " " + line.logger());
+        }
+
+        String message = line.message() != null ? line.message() : "";
+        trackStartup(timestamp, message);
+        trackCorrelation(timestamp, line.mdc().get(correlationKey));
+    }
+
+    public void acceptContinuation(String text) {
+        if (records == 0) {
+            orphanLines++;
+            return;
+        }
+        continuationLines++;
+        if (!currentIsProblem) {
+            return;
+        }
+        Matcher matcher = EXCEPTION_LINE.matcher(text);
+        if (matcher.matches()) {
+            if (currentException == null) {
+                currentException = matcher.group(1);
+            }
+            currentRootCause = matcher.group(1);
+        }
+    }
+
+    /**
+     * Closes the last record of the file and turns the correlation spans still open into latencies.
+     */
+    public void finish() {
+        finishRecord();
+        openSpans.values().forEach(this::recordLatency);
+        openSpans.clear();
+        if (currentStartup != null) {
+            startups.add(currentStartup);
+            currentStartup = null;
+        }
+    }
+
+    public LogStats merge(LogStats other) {
+        records += other.records;
+        continuationLines += other.continuationLines;
+        orphanLines += other.orphanLines;
+        if (other.first != null && (first == null || other.first.isBefore(first))) {
+            first = other.first;
+        }
+        if (other.last != null && (last == null || other.last.isAfter(last))) {
+            last = other.last;
+        }
+        mergeCounts(byLevel, other.byLevel);
+        mergeCounts(byLogger, other.byLogger);
+        mergeCounts(byThread, other.byThread);
+        mergeCounts(problemsByLogger, other.problemsByLogger);
+        mergeCounts(exceptions, other.exceptions);
+        mergeCounts(rootCauses, other.rootCauses);
+        other.byMinute.forEach((minute, count) -> byMinute.merge(minute, count, Long::sum));
+        startups.addAll(other.startups);
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            latencyBuckets[i] += other.latencyBuckets[i];
+        }
+        latencyCount += other.latencyCount;
+        latencyMaxMillis = Math.max(latencyMaxMillis, other.latencyMaxMillis);
+        droppedCorrelations += other.droppedCorrelations;
+        return this;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getContinuationLines() {
+        return continuationLines;
+    }
+
+    public long getOrphanLines() {
+        return orphanLines;
+    }
+
+    public LocalDateTime getFirst() {
+        return first;
+    }
+
+    public LocalDateTime getLast() {
+        return last;
+    }
+
+    public Map<String, Long> getByLevel() {
+        return byLevel;
+    }
+
+    public Map<String, Long> getByLogger() {
+        return byLogger;
+    }
+
+    public Map<String, Long> getByThread() {
+        return byThread;
+    }
+
+    public Map<String, Long> getProblemsByLogger() {
+        return problemsByLogger;
+    }
+
+    public Map<String, Long> getExceptions() {
+        return exceptions;
+    }
+
+    public Map<String, Long> getRootCauses() {
+        return rootCauses;
+    }
+
+    public List<StartupRun> getStartups() {
+        return startups;
+    }
+
+    public long getLatencyCount() {
+        return latencyCount;
+    }
+
+    public long getLatencyMaxMillis() {
+        return latencyMaxMillis;
+    }
+
+    public long getDroppedCorrelations() {
+        return droppedCorrelations;
+    }
+
+    /**
+     * Minutes covered by the logs, at least one so rates over a short file stay finite.
+     */
+    public double getSpanMinutes() {
+        if (first == null) {
+            return 1;
+        }
+        return Math.max(Duration.between(first, last).toSeconds() / 60.0, 1);
+    }
+
+    public Map.Entry<LocalDateTime, Long> getPeakMinute() {
+        return byMinute.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+    }
+
+    /**
+     * Upper bound of the bucket holding the given quantile; accurate to within a factor of two.
+     */
+    public long getLatencyPercentileMillis(double quantile) {
+        if (latencyCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * latencyCount);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += latencyBuckets[i];
+            if (seen >= rank) {
+                return Math.min(i == 0 ? 0 : 1L << i, latencyMaxMillis);
+            }
+        }
+        return latencyMaxMillis;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private void finishRecord() {
+        if (currentException != null) {
+            increment(exceptions, currentException);
+            increment(rootCauses, currentRootCause);
+        }
+        currentIsProblem = false;
+        currentException = null;
+        currentRootCause = null;
+    }
+
+    private void trackStartup(LocalDateTime timestamp, String message) {
+        Matcher starting = STARTING.matcher(message);
+        if (starting.find()) {
+            if (currentStartup != null) {
+                startups.add(currentStartup); // the previous run never finished starting
+            }
+            currentStartup = new StartupRun(starting.group(1), timestamp);
+            return;
+        }
+        if (currentStartup == null) {
+            return;
+        }
+        Matcher started = STARTED.matcher(message);
+        if (started.find()) {
+            currentStartup.phase("started", timestamp);
+            currentStartup.reportedMillis = Math.round(Double.parseDouble(started.group(2)) * 1000);
+            startups.add(currentStartup);
+            currentStartup = null;
+            return;
+        }
+        STARTUP_PHASES.forEach((phase, pattern) -> {
+            if (pattern.matcher(message).find()) {
+                currentStartup.phase(phase, timestamp);
+            }
+        });
+    }
+
+    private void trackCorrelation(LocalDateTime timestamp, String id) {
+        if (id == null) {
+            return;
+        }
+        Span span = openSpans.get(id);
+        if (span != null) {
+            span.last = timestamp;
+            return;
+        }
+        if (openSpans.size() >= maxOpenCorrelations) {
+            // Evict the least recently seen request; it is almost certainly finished
+            var eldest = openSpans.entrySet().iterator().next();
+            recordLatency(eldest.getValue());
+            openSpans.remove(eldest.getKey());
+            droppedCorrelations++;
+        }
+        openSpans.put(id, new Span(timestamp));
+    }
+
+    private void recordLatency(Span span) {
+        long millis = Math.max(Duration.between(span.first, span.last).toMillis(), 0);
+        int bucket = Math.min(64 - Long.numberOfLeadingZeros(millis), LATENCY_BUCKETS - 1);
+        latencyBuckets[bucket]++;
+        latencyCount++;
+        latencyMaxMillis = Math.max(latencyMaxMillis, millis);
+    }
+
+    private static void increment(Map<String, Long> counts, String key) {
+        counts.merge(key != null ? key : "?", 1L, Long::sum);
+    }
+
+    private static void mergeCounts(Map<String, Long> target, Map<String, Long> source) {
+        source.forEach((key, count) -> target.merge(key, count, Long::sum));
+    }
+
+    private static Map<String, Pattern> startupPhases() {
+        Map<String, Pattern> phases = new LinkedHashMap<>();
+        phases.put("repositories", Pattern.compile("^Bootstrapping Spring Data"));
+        phases.put("web-context", Pattern.compile("^Root WebApplicationContext: initialization completed"));
+        phases.put("datasource", Pattern.compile("^HikariPool-\\d+ - Start completed"));
+        phases.put("jpa", Pattern.compile("^Initialized JPA EntityManagerFactory"));
+        phases.put("tomcat", Pattern.compile("^Tomcat started on port"));
+        return phases;
+    }
+
+    private static class Span {
+        private final LocalDateTime first;
+        private LocalDateTime last;
+
+        Span(LocalDateTime first) {
+            this.first = first;
+            this.last = first;
+        }
+    }
+
+    /**
+     * One application start, with each phase as an offset from the "Starting ..." line.
+     */
+    public static class StartupRun {
+        private final String application;
+        private final LocalDateTime startedAt;
+        private final Map<String, Long> phaseOffsetsMillis = new LinkedHashMap<>();
+        private Long reportedMillis;
+
+        StartupRun(String application, LocalDateTime startedAt) {
+            this.application = application;
+            this.startedAt = startedAt;
+        }
+
+        private void phase(String name, LocalDateTime timestamp) {
+            phaseOffsetsMillis.putIfAbsent(name, Duration.between(startedAt, timestamp).toMillis());
+        }
+
+        public String getApplication() {
+            return application;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public Map<String, Long> getPhaseOffsetsMillis() {
+            return phaseOffsetsMillis;
+        }
+
+        /**
+         * What Spring Boot itself reported, or null if the run never finished starting.
+         */
+        public Long getReportedMillis() {
+            return reportedMillis;
+        }
+    }
+}
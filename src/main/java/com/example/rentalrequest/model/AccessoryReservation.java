@@ -0,0 +1,48 @@
+package com.example.rentalrequest.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Units of an {@link AccessoryStock} asked for with a rental request, held from its pickup day through its
+ * drop-off day once the request is approved.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessoryReservation {
+
+    public enum Status {
+        REQUESTED, RESERVED, RELEASED, CANCELLED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long rentalRequestId;
+
+    @Column(nullable = false)
+    private Long stockId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private LocalDate firstDay;
+
+    @Column(nullable = false)
+    private LocalDate lastDay;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
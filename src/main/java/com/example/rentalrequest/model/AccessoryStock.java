@@ -0,0 +1,29 @@
+package com.example.rentalrequest.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Units of one kind of accessory held at a location and shared by the rentals picked up there. How many are
+ * reserved on a given day lives in {@code accessory_stock_day}.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_accessory_stock_location_name", columnNames = {"location", "name"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessoryStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String location;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private int quantity;
+}
@@ -0,0 +1,26 @@
+package com.example.rentalrequest.model;
+
+/**
+ * One stale entry, or with a null {@code key} a whole region, of an in-process cache. Regions name what is
+ * cached, not where: {@link #CAR} covers the car entity, its accessory and image collections and cached car
+ * queries.
+ */
+public record CacheInvalidation(String region, String key) {
+
+    public static final String CAR = "car";
+    public static final String ACCESSORY = "accessory";
+    public static final String USER = "user";
+    public static final String ACCESSORY_STOCK = "accessory-stock";
+
+    public static CacheInvalidation of(String region, Object key) {
+        return new CacheInvalidation(region, String.valueOf(key));
+    }
+
+    public static CacheInvalidation region(String region) {
+        return new CacheInvalidation(region, null);
+    }
+
+    public boolean isRegionWide() {
+        return key == null;
+    }
+}
@@ -2,12 +2,16 @@ package com.example.rentalrequest.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,10 +38,17 @@ public class Car {
     private BigDecimal monthlyPrice;
     private boolean available;
 
+    // Excluded so equals/hashCode/toString never initialise the lazy collections or recurse into the children
     @OneToMany(mappedBy = "car", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Accessory> accessories = new HashSet<>();
 
     @OneToMany(mappedBy = "car", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<CarImage> images = new HashSet<>();
 
 }
@@ -0,0 +1,54 @@
+package com.example.rentalrequest.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    public enum Status {
+        PENDING, DELIVERED, DEAD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 32)
+    private String aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false, length = 64)
+    private String eventType;
+
+    @Column(nullable = false, length = 64)
+    private String handler;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Next time the event may be claimed: now for new events, the lease end while claimed, the backoff after a failure
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+
+    private LocalDateTime deliveredAt;
+
+    @Column(length = 1000)
+    private String lastError;
+}
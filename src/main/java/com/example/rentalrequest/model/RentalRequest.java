@@ -1,5 +1,6 @@
 package com.example.rentalrequest.model;
 
+import com.example.rentalrequest.converter.RentalStatusConverter;
 import com.example.rentalrequest.converter.StringEncryptionConverter;
 import jakarta.persistence.*;
 import lombok.*;
@@ -31,11 +32,28 @@ public class RentalRequest {
     // NO encryption for business logic fields
     private String carModel; // auto-filled from selected car
 
+    private String location; // pickup branch; decides the shard when sharding is enabled
+
     private LocalDateTime pickupDateTime;
     private LocalDateTime dropDateTime;
 
-    private String status; // pending / accepted / rejected
+    @Convert(converter = RentalStatusConverter.class)
+    @Column(name = "status_code", nullable = false, columnDefinition = "TINYINT")
+    private RentalStatus status;
     private String rejectionReason;
+
+    @Column(unique = true, length = 36)
+    private String trackingId; // set when the request came in through the intake journal
+
+    private Long carId; // the car taken out of service on approval
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime approvedAt;
+
+    private LocalDateTime rejectedAt;
+
+    private LocalDateTime carReleasedAt; // set once the car is available again after drop-off
 }
 
 
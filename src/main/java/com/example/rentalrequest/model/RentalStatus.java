@@ -0,0 +1,43 @@
+package com.example.rentalrequest.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Arrays;
+
+/**
+ * Lifecycle of a rental request, stored as a one-byte code in {@code rental_request.status_code}.
+ * Codes are persisted; never renumber existing constants.
+ */
+public enum RentalStatus {
+
+    PENDING(0),
+    APPROVED(1),
+    REJECTED(2);
+
+    private final int code;
+
+    RentalStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static RentalStatus fromCode(int code) {
+        for (RentalStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown rental status code: " + code);
+    }
+
+    @JsonCreator
+    public static RentalStatus fromName(String name) {
+        return Arrays.stream(values())
+                .filter(status -> status.name().equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown rental status: " + name));
+    }
+}
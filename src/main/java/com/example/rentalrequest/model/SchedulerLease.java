@@ -0,0 +1,23 @@
+package com.example.rentalrequest.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerLease {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(length = 128)
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
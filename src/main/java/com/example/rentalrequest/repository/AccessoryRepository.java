@@ -1,15 +1,35 @@
 package com.example.rentalrequest.repository;
 
 import com.example.rentalrequest.model.Accessory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AccessoryRepository extends JpaRepository<Accessory, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Accessory> findByCarId(Long carId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Accessory> findByAvailableTrue();
+
     List<Accessory> findByNameContainingIgnoreCase(String name);
+
+    // Names only, for expanding a page of car projections in one statement
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select a.car.id as carId, a.name as name from Accessory a where a.car.id in :carIds")
+    List<AccessoryName> findNamesByCarIdIn(@Param("carIds") Collection<Long> carIds);
+
+    interface AccessoryName {
+        Long getCarId();
+        String getName();
+    }
 }
 
 
@@ -0,0 +1,13 @@
+package com.example.rentalrequest.repository;
+
+import com.example.rentalrequest.model.AccessoryReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AccessoryReservationRepository extends JpaRepository<AccessoryReservation, Long> {
+
+    List<AccessoryReservation> findByRentalRequestIdOrderByStockId(Long rentalRequestId);
+}
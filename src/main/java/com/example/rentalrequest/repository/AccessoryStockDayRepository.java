@@ -0,0 +1,75 @@
+package com.example.rentalrequest.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-day reserved counters of {@code accessory_stock_day}. Reservations are single conditional UPDATEs over a
+ * stock's day range rather than read-then-write, so the row locks they take are held only from the statement to
+ * the end of the approving transaction, and only on the days being reserved.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccessoryStockDayRepository {
+
+    // Locks existing rows exclusively as well, so the reserve UPDATE that follows never has to upgrade a shared lock
+    private static final String ENSURE_DAY = "insert into accessory_stock_day (stock_id, stock_date, reserved) values (?, ?, 0)"
+            + " on duplicate key update reserved = reserved";
+
+    private static final String RESERVE = "update accessory_stock_day set reserved = reserved + ?"
+            + " where stock_id = ? and stock_date between ? and ? and reserved + ? <= ?";
+
+    private static final String RELEASE = "update accessory_stock_day set reserved = reserved - ?"
+            + " where stock_id = ? and stock_date between ? and ? and reserved >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds {@code quantity} to each day in {@code [first, last]} that stays within {@code capacity}.
+     *
+     * @return false if some day had no room; the days that did are already incremented, so the caller must
+     * roll back its transaction
+     */
+    public boolean reserve(long stockId, LocalDate first, LocalDate last, int quantity, int capacity) {
+        List<Object[]> days = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            days.add(new Object[]{stockId, Date.valueOf(day)});
+        }
+        jdbcTemplate.batchUpdate(ENSURE_DAY, days);
+        int updated = jdbcTemplate.update(RESERVE, quantity, stockId, Date.valueOf(first), Date.valueOf(last), quantity, capacity);
+        return updated == days.size();
+    }
+
+    public void release(long stockId, LocalDate first, LocalDate last, int quantity) {
+        jdbcTemplate.update(RELEASE, quantity, stockId, Date.valueOf(first), Date.valueOf(last), quantity);
+    }
+
+    /**
+     * Days from {@code from} on with at least one unit reserved, in day order.
+     */
+    public List<StockDay> findReservedFrom(long stockId, LocalDate from) {
+        return jdbcTemplate.query("select stock_id, stock_date, reserved from accessory_stock_day"
+                        + " where stock_id = ? and stock_date >= ? and reserved > 0 order by stock_date",
+                (rs, rowNum) -> new StockDay(rs.getLong("stock_id"), rs.getDate("stock_date").toLocalDate(), rs.getInt("reserved")),
+                stockId, Date.valueOf(from));
+    }
+
+    public int findMaxReservedFrom(long stockId, LocalDate from) {
+        Integer max = jdbcTemplate.queryForObject("select max(reserved) from accessory_stock_day where stock_id = ? and stock_date >= ?",
+                Integer.class, stockId, Date.valueOf(from));
+        return max == null ? 0 : max;
+    }
+
+    public int deleteBefore(LocalDate before) {
+        return jdbcTemplate.update("delete from accessory_stock_day where stock_date < ?", Date.valueOf(before));
+    }
+
+    public record StockDay(long stockId, LocalDate day, int reserved) {
+    }
+}
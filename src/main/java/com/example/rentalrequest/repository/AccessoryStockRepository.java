@@ -0,0 +1,29 @@
+package com.example.rentalrequest.repository;
+
+import com.example.rentalrequest.model.AccessoryStock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccessoryStockRepository extends JpaRepository<AccessoryStock, Long> {
+
+    Optional<AccessoryStock> findByLocationIgnoreCaseAndNameIgnoreCase(String location, String name);
+
+    List<AccessoryStock> findByLocationIgnoreCaseOrderByName(String location);
+
+    // Shared lock: reservations of the same stock don't block each other, only a quantity change does
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select s from AccessoryStock s where s.id = :id")
+    Optional<AccessoryStock> findByIdForReservation(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AccessoryStock s where s.id = :id")
+    Optional<AccessoryStock> findByIdForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,66 @@
+package com.example.rentalrequest.repository;
+
+import com.example.rentalrequest.model.CacheInvalidation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Appends to and reads from the {@code cache_invalidation} change log. Timestamps come from the database clock,
+ * so propagation delays and settle times don't depend on how well the nodes' clocks agree.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CacheInvalidationRepository {
+
+    private static final String INSERT = "insert into cache_invalidation (region, entity_key, origin, created_at)"
+            + " values (?, ?, ?, current_timestamp(6))";
+
+    private static final String SELECT_AFTER = "select id, region, entity_key, origin, created_at, current_timestamp(6) as db_now"
+            + " from cache_invalidation where id > ? order by id limit ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends one row per invalidation, as a single JDBC batch.
+     */
+    public void append(String origin, Collection<CacheInvalidation> invalidations) {
+        List<Object[]> rows = new ArrayList<>(invalidations.size());
+        for (CacheInvalidation invalidation : invalidations) {
+            rows.add(new Object[]{invalidation.region(), invalidation.key(), origin});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    public List<ChangeLogRow> findAfter(long cursor, int limit) {
+        return jdbcTemplate.query(SELECT_AFTER, (rs, rowNum) -> new ChangeLogRow(
+                rs.getLong("id"),
+                rs.getString("region"),
+                rs.getString("entity_key"),
+                rs.getString("origin"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getTimestamp("db_now").toLocalDateTime()), cursor, limit);
+    }
+
+    public long findMaxId() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from cache_invalidation", Long.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    public int deleteCreatedBefore(LocalDateTime before) {
+        return jdbcTemplate.update("delete from cache_invalidation where created_at < ?", Timestamp.valueOf(before));
+    }
+
+    /**
+     * One change-log row; {@code dbNow} is the database time when it was read.
+     */
+    public record ChangeLogRow(long id, String region, String key, String origin, LocalDateTime createdAt,
+                               LocalDateTime dbNow) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.rentalrequest.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-level car reads: only the requested attributes are selected and no association is touched.
+ */
+public interface CarAttributeQueries {
+
+    /**
+     * Rows ordered by id, each keyed by attribute name in the order {@code attributes} were given.
+     */
+    List<Map<String, Object>> findAttributes(Collection<String> attributes, CarFilter filter);
+
+    record CarFilter(Boolean available, String location, LocationMatch locationMatch) {
+
+        public static CarFilter all() {
+            return new CarFilter(null, null, null);
+        }
+
+        public static CarFilter availableOnly() {
+            return new CarFilter(true, null, null);
+        }
+
+        /** Index range scan on idx_car_location; case follows the column collation (insensitive on MySQL). */
+        public static CarFilter locationStartingWith(String location) {
+            return new CarFilter(null, location, LocationMatch.PREFIX);
+        }
+
+        /** Case-insensitive substring match; scans every row. */
+        public static CarFilter locationContaining(String location) {
+            return new CarFilter(null, location, LocationMatch.CONTAINS);
+        }
+    }
+
+    enum LocationMatch {
+        PREFIX, CONTAINS
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.rentalrequest.repository;
+
+import com.example.rentalrequest.model.Car;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class CarAttributeQueriesImpl implements CarAttributeQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAttributes(Collection<String> attributes, CarFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Car> car = query.from(Car.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String attribute : attributes) {
+            selections.add(car.get(attribute).alias(attribute));
+        }
+        query.multiselect(selections);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.available() != null) {
+            predicates.add(cb.equal(car.get("available"), filter.available()));
+        }
+        if (filter.location() != null && filter.locationMatch() == LocationMatch.CONTAINS) {
+            String pattern = "%" + escapeLike(filter.location().toLowerCase(Locale.ROOT)) + "%";
+            predicates.add(cb.like(cb.lower(car.get("mainLocation")), pattern, '\\'));
+        } else if (filter.location() != null) {
+            // Left unwrapped so the pattern, anchored at the start, can use the index
+            predicates.add(cb.like(car.get("mainLocation"), escapeLike(filter.location()) + "%", '\\'));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(car.get("id")));
+
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
+
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String attribute : attributes) {
+                row.put(attribute, tuple.get(attribute));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
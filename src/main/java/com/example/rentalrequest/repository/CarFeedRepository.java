@@ -0,0 +1,39 @@
+package com.example.rentalrequest.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Forward-only, read-only scan of the car table for the partner feed. Rows are handed to the caller one at a
+ * time straight off the cursor; nothing is mapped to entities or collected.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CarFeedRepository {
+
+    /** Column order read by {@link #forEachCar}; callers address columns by these positions. */
+    public static final String SELECT_CARS = "select id, brand, model, fuel, car_type, plate_number, main_location,"
+            + " color, transmission, year, passengers, no_of_air_bags, description, daily_price, weekly_price,"
+            + " monthly_price, available from car order by id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one instead of buffering the whole result
+    @Value("${app.cars.simple.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    public void forEachCar(RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_CARS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, handler);
+    }
+}
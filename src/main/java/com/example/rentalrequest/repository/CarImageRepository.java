@@ -1,8 +1,26 @@
 package com.example.rentalrequest.repository;
 
 import com.example.rentalrequest.model.CarImage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface CarImageRepository extends JpaRepository<CarImage, Long> { }
+public interface CarImageRepository extends JpaRepository<CarImage, Long> {
+
+    // URLs only, for expanding a page of car projections in one statement
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select i.car.id as carId, i.imageUrl as imageUrl from CarImage i where i.car.id in :carIds")
+    List<CarImageUrl> findUrlsByCarIdIn(@Param("carIds") Collection<Long> carIds);
+
+    interface CarImageUrl {
+        Long getCarId();
+        String getImageUrl();
+    }
+}
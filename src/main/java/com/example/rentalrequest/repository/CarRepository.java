@@ -1,13 +1,19 @@
 package com.example.rentalrequest.repository;
 
 import com.example.rentalrequest.model.Car;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long> {
+public interface CarRepository extends JpaRepository<Car, Long>, CarAttributeQueries {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Car> findByAvailableTrue();
+
+    List<Car> findByMainLocation(String location);
     List<Car> findByMainLocationContainingIgnoreCase(String location);
     List<Car> findByBrandContainingIgnoreCase(String brand);
     List<Car> findByCarTypeContainingIgnoreCase(String carType);
@@ -0,0 +1,164 @@
+package com.example.rentalrequest.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads and delta upserts on {@code fleet_daily_stats}. Deltas are applied with a single
+ * INSERT ... ON DUPLICATE KEY UPDATE, so concurrent updates to the same day and car never lose counts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FleetStatsRepository {
+
+    private static final String UPSERT = "insert into fleet_daily_stats (stat_date, car_id, location, requests_created,"
+            + " requests_approved, requests_rejected, booked_days, revenue, approval_latency_ms, approval_latency_count)"
+            + " values (:statDate, :carId, :location, :created, :approved, :rejected, :bookedDays, :revenue,"
+            + " :latencyMs, :latencyCount)"
+            + " on duplicate key update location = coalesce(values(location), location),"
+            + " requests_created = requests_created + values(requests_created),"
+            + " requests_approved = requests_approved + values(requests_approved),"
+            + " requests_rejected = requests_rejected + values(requests_rejected),"
+            + " booked_days = booked_days + values(booked_days),"
+            + " revenue = revenue + values(revenue),"
+            + " approval_latency_ms = approval_latency_ms + values(approval_latency_ms),"
+            + " approval_latency_count = approval_latency_count + values(approval_latency_count)";
+
+    private static final String TOTALS = "sum(requests_created) as requests_created, sum(requests_approved) as requests_approved,"
+            + " sum(requests_rejected) as requests_rejected, sum(booked_days) as booked_days, sum(revenue) as revenue,"
+            + " sum(approval_latency_ms) as approval_latency_ms, sum(approval_latency_count) as approval_latency_count";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void applyDeltas(Collection<FleetStatsRow> deltas) {
+        jdbcTemplate.batchUpdate(UPSERT, deltas.stream().map(FleetStatsRepository::parameters).toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * Locks the row of {@code scheduler_lease} named {@code lockName} until the transaction ends. Applying an
+     * event and reconciling both take it first, so they never interleave.
+     */
+    public void lockAggregates(String lockName) {
+        jdbcTemplate.queryForList("select name from scheduler_lease where name = :name for update",
+                new MapSqlParameterSource("name", lockName), String.class);
+    }
+
+    /**
+     * Records an outbox event as applied. Returns false if it already was, in which case nothing must be applied.
+     */
+    public boolean markApplied(long eventId) {
+        return jdbcTemplate.update("insert ignore into fleet_stats_applied_event (event_id, applied_at) values (:eventId, :now)",
+                new MapSqlParameterSource("eventId", eventId).addValue("now", LocalDateTime.now())) > 0;
+    }
+
+    /**
+     * Records that the days in {@code range} already include the given not yet delivered events. An event that has
+     * been applied in the meantime stays fully applied; an event fenced before gets the hull of both ranges, which
+     * is exact for the overlapping nightly windows.
+     */
+    public void fence(Collection<Long> eventIds, ReconciledRange range) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate("insert into fleet_stats_applied_event (event_id, applied_at, fenced_from, fenced_to)"
+                        + " values (:eventId, :now, :from, :to) on duplicate key update"
+                        + " fenced_from = case when fenced_from is null then null else least(fenced_from, values(fenced_from)) end,"
+                        + " fenced_to = case when fenced_to is null then null else greatest(fenced_to, values(fenced_to)) end",
+                eventIds.stream().map(eventId -> new MapSqlParameterSource("eventId", eventId).addValue("now", now)
+                        .addValue("from", range.from()).addValue("to", range.to())).toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * For an event {@link #markApplied} found already recorded: locks its row and, if a reconciliation fenced it,
+     * returns the fenced range and marks the event fully applied. Empty if it was applied before.
+     */
+    public Optional<ReconciledRange> takeFence(long eventId) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("eventId", eventId);
+        List<ReconciledRange> fences = jdbcTemplate.query("select fenced_from, fenced_to from fleet_stats_applied_event"
+                        + " where event_id = :eventId and fenced_from is not null for update",
+                parameters, (rs, rowNum) -> new ReconciledRange(rs.getDate("fenced_from").toLocalDate(),
+                        rs.getDate("fenced_to").toLocalDate()));
+        if (fences.isEmpty()) {
+            return Optional.empty();
+        }
+        jdbcTemplate.update("update fleet_stats_applied_event set fenced_from = null, fenced_to = null, applied_at = :now"
+                + " where event_id = :eventId", parameters.addValue("now", LocalDateTime.now()));
+        return Optional.of(fences.get(0));
+    }
+
+    public int purgeAppliedBefore(LocalDateTime before) {
+        return jdbcTemplate.update("delete from fleet_stats_applied_event where applied_at < :before",
+                new MapSqlParameterSource("before", before));
+    }
+
+    /**
+     * Replaces every row in {@code [from, to]} with {@code rows}.
+     */
+    public void replaceDays(LocalDate from, LocalDate to, Collection<FleetStatsRow> rows) {
+        jdbcTemplate.update("delete from fleet_daily_stats where stat_date between :from and :to",
+                new MapSqlParameterSource("from", from).addValue("to", to));
+        applyDeltas(rows);
+    }
+
+    /**
+     * Totals over {@code [from, to]} grouped by {@code groupColumn} (stat_date, car_id or location).
+     */
+    public List<Map<String, Object>> sumByGroup(String groupColumn, LocalDate from, LocalDate to) {
+        if (!List.of("stat_date", "car_id", "location").contains(groupColumn)) {
+            throw new IllegalArgumentException("Cannot group fleet stats by " + groupColumn);
+        }
+        return jdbcTemplate.queryForList("select " + groupColumn + " as group_key, " + TOTALS
+                        + " from fleet_daily_stats where stat_date between :from and :to"
+                        + " group by " + groupColumn + " order by " + groupColumn,
+                new MapSqlParameterSource("from", from).addValue("to", to));
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private static SqlParameterSource parameters(FleetStatsRow row) {
+        return new MapSqlParameterSource("statDate", row.statDate())
+                .addValue("carId", row.carId())
+                .addValue("location", row.location())
+                .addValue("created", row.requestsCreated())
+                .addValue("approved", row.requestsApproved())
+                .addValue("rejected", row.requestsRejected())
+                .addValue("bookedDays", row.bookedDays())
+                .addValue("revenue", row.revenue())
+                .addValue("latencyMs", row.approvalLatencyMs())
+                .addValue("latencyCount", row.approvalLatencyCount());
+    }
+
+    public record ReconciledRange(LocalDate from, LocalDate to) {
+
+        public boolean contains(LocalDate day) {
+            return !day.isBefore(from) && !day.isAfter(to);
+        }
+    }
+
+    public record FleetStatsRow(LocalDate statDate, long carId, String location, int requestsCreated,
+                                int requestsApproved, int requestsRejected, int bookedDays, BigDecimal revenue,
+                                long approvalLatencyMs, int approvalLatencyCount) {
+
+        public FleetStatsRow plus(FleetStatsRow other) {
+            return new FleetStatsRow(statDate, carId, other.location != null ? other.location : location,
+                    requestsCreated + other.requestsCreated, requestsApproved + other.requestsApproved,
+                    requestsRejected + other.requestsRejected, bookedDays + other.bookedDays,
+                    revenue.add(other.revenue), approvalLatencyMs + other.approvalLatencyMs,
+                    approvalLatencyCount + other.approvalLatencyCount);
+        }
+
+        public FleetStatsRow negate() {
+            return new FleetStatsRow(statDate, carId, null, -requestsCreated, -requestsApproved, -requestsRejected,
+                    -bookedDays, revenue.negate(), -approvalLatencyMs, -approvalLatencyCount);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.rentalrequest.repository;
+
+import com.example.rentalrequest.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey = :key and r.expiresAt <= :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,61 @@
+package com.example.rentalrequest.repository;
+
+import com.example.rentalrequest.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // One handler's due events. Rows locked by another dispatcher node are skipped rather than waited on. An
+    // event with an older pending sibling for the same aggregate (backing off, leased or just claimed elsewhere)
+    // is left alone
+    @Query(value = "select * from outbox_event e where e.handler = :handler and e.status = 'PENDING'"
+            + " and e.available_at <= :now"
+            + " and not exists (select 1 from outbox_event p where p.handler = e.handler"
+            + " and p.aggregate_type = e.aggregate_type and p.aggregate_id = e.aggregate_id"
+            + " and p.status = 'PENDING' and p.id < e.id)"
+            + " order by e.id limit :limit for update skip locked", nativeQuery = true)
+    List<OutboxEvent> lockDue(@Param("handler") String handler, @Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Moves the claimed rows' available_at to the lease end, so they stay invisible to other nodes after the lock is released
+    @Modifying
+    @Query("update OutboxEvent e set e.availableAt = :leaseEnd where e.id in :ids")
+    int extendLease(@Param("ids") Collection<Long> ids, @Param("leaseEnd") LocalDateTime leaseEnd);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = :status, e.deliveredAt = :deliveredAt, e.attempts = e.attempts + 1,"
+            + " e.lastError = null where e.id in :ids")
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("status") OutboxEvent.Status status,
+                      @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = :status, e.attempts = :attempts, e.availableAt = :availableAt,"
+            + " e.lastError = :lastError where e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("status") OutboxEvent.Status status, @Param("attempts") int attempts,
+                   @Param("availableAt") LocalDateTime availableAt, @Param("lastError") String lastError);
+
+    @Query("select count(e) as count, min(e.createdAt) as oldestCreatedAt from OutboxEvent e where e.status = :status")
+    Backlog findBacklog(@Param("status") OutboxEvent.Status status);
+
+    long countByStatus(OutboxEvent.Status status);
+
+    @Query("select e.id from OutboxEvent e where e.handler = :handler and e.status = :status")
+    List<Long> findIdsByHandlerAndStatus(@Param("handler") String handler, @Param("status") OutboxEvent.Status status);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = :status and e.deliveredAt < :before")
+    int deleteDeliveredBefore(@Param("status") OutboxEvent.Status status, @Param("before") LocalDateTime before);
+
+    interface Backlog {
+        long getCount();
+        LocalDateTime getOldestCreatedAt();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.rentalrequest.repository;
+
+import com.example.rentalrequest.model.RentalStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Listing reads for rental requests that bypass the entity mapping, so the personal-data columns come back as
+ * ciphertext and are only decrypted for the fields a caller actually returns.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RentalRequestListingRepository {
+
+    private static final String COLUMNS = "select id, customer_name, phone_number, email, car_model, pickup_date_time,"
+            + " drop_date_time, status_code, rejection_reason, tracking_id from rental_request";
+
+    private static final RowMapper<RentalRequestRow> ROW_MAPPER = (rs, rowNum) -> new RentalRequestRow(
+            rs.getLong("id"),
+            rs.getString("customer_name"),
+            rs.getString("phone_number"),
+            rs.getString("email"),
+            rs.getString("car_model"),
+            rs.getObject("pickup_date_time", LocalDateTime.class),
+            rs.getObject("drop_date_time", LocalDateTime.class),
+            RentalStatus.fromCode(rs.getInt("status_code")),
+            rs.getString("rejection_reason"),
+            rs.getString("tracking_id"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<RentalRequestRow> findAll() {
+        return jdbcTemplate.query(COLUMNS + " order by id", ROW_MAPPER);
+    }
+
+    // Keyset pages over idx_rental_request_status_pickup_id: (pickup, id) strictly after the previous page's last row
+    public List<RentalRequestRow> findFirstPageByStatus(RentalStatus status, int limit) {
+        return jdbcTemplate.query(COLUMNS + " where status_code = :status order by pickup_date_time, id limit :limit",
+                new MapSqlParameterSource("status", status.getCode()).addValue("limit", limit), ROW_MAPPER);
+    }
+
+    public List<RentalRequestRow> findPageByStatusAfter(RentalStatus status, LocalDateTime pickup, long id, int limit) {
+        // Requests without a pickup time sort first, so after one of them come its later-id peers and every dated row
+        String after = pickup == null
+                ? " and ((pickup_date_time is null and id > :id) or pickup_date_time is not null)"
+                : " and (pickup_date_time > :pickup or (pickup_date_time = :pickup and id > :id))";
+        return jdbcTemplate.query(COLUMNS + " where status_code = :status" + after
+                        + " order by pickup_date_time, id limit :limit",
+                new MapSqlParameterSource("status", status.getCode())
+                        .addValue("pickup", pickup)
+                        .addValue("id", id)
+                        .addValue("limit", limit),
+                ROW_MAPPER);
+    }
+
+    /**
+     * Exact match on the stored ciphertext. The encryption is deterministic, so this finds the same rows a
+     * plaintext equality check would, without decrypting the table.
+     */
+    public List<RentalRequestRow> findByEncryptedCustomerName(String encryptedCustomerName) {
+        return jdbcTemplate.query(COLUMNS + " where customer_name = :customerName order by id",
+                new MapSqlParameterSource("customerName", encryptedCustomerName), ROW_MAPPER);
+    }
+
+    public record RentalRequestRow(long id,
+                                   String encryptedCustomerName,
+                                   String encryptedPhoneNumber,
+                                   String encryptedEmail,
+                                   String carModel,
+                                   LocalDateTime pickupDateTime,
+                                   LocalDateTime dropDateTime,
+                                   RentalStatus status,
+                                   String rejectionReason,
+                                   String trackingId) {
+    }
+}
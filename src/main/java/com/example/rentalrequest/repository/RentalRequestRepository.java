@@ -1,15 +1,61 @@
 package com.example.rentalrequest.repository;
 
 import com.example.rentalrequest.model.RentalRequest;
+import com.example.rentalrequest.model.RentalStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RentalRequestRepository extends JpaRepository<RentalRequest, Long> {
-    List<RentalRequest> findByCustomerNameContainingIgnoreCase(String customerName);
-    List<RentalRequest> findByStatus(String status);
+    List<RentalRequest> findByStatus(RentalStatus status);
     List<RentalRequest> findByCarModelContainingIgnoreCase(String carModel);
+    Optional<RentalRequest> findByTrackingId(String trackingId);
+
+    @Query("select r.trackingId from RentalRequest r where r.trackingId in :trackingIds")
+    List<String> findTrackingIdsIn(@Param("trackingIds") Collection<String> trackingIds);
+
+    @Query("select r.status, count(r) from RentalRequest r group by r.status")
+    List<Object[]> countByStatus();
+
+    // Approved rentals whose car is still out of service (idx_rental_request_status_released)
+    @Query("select r.id as id, r.dropDateTime as dropDateTime from RentalRequest r"
+            + " where r.status = :status and r.carReleasedAt is null and r.carId is not null")
+    List<PendingRelease> findPendingReleases(@Param("status") RentalStatus status);
+
+    // Same, limited to recent approvals (idx_rental_request_approved_at), to pick up other nodes' approvals
+    @Query("select r.id as id, r.dropDateTime as dropDateTime from RentalRequest r"
+            + " where r.approvedAt >= :since and r.status = :status and r.carReleasedAt is null and r.carId is not null")
+    List<PendingRelease> findPendingReleasesApprovedSince(@Param("status") RentalStatus status,
+                                                          @Param("since") LocalDateTime since);
+
+    boolean existsByCarIdAndStatusAndCarReleasedAtIsNullAndIdNot(Long carId, RentalStatus status, Long id);
+
+    // Everything created, approved or rejected in [from, to), for reconciling the fleet aggregates
+    @Query("select r.createdAt as createdAt, r.approvedAt as approvedAt, r.rejectedAt as rejectedAt, r.carId as carId,"
+            + " r.pickupDateTime as pickupDateTime, r.dropDateTime as dropDateTime from RentalRequest r"
+            + " where (r.createdAt >= :from and r.createdAt < :to) or (r.approvedAt >= :from and r.approvedAt < :to)"
+            + " or (r.rejectedAt >= :from and r.rejectedAt < :to)")
+    List<StatsSource> findStatsSources(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    interface StatsSource {
+        LocalDateTime getCreatedAt();
+        LocalDateTime getApprovedAt();
+        LocalDateTime getRejectedAt();
+        Long getCarId();
+        LocalDateTime getPickupDateTime();
+        LocalDateTime getDropDateTime();
+    }
+
+    interface PendingRelease {
+        Long getId();
+        LocalDateTime getDropDateTime();
+    }
 }
 
 
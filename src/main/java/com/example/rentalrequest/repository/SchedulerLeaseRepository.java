@@ -0,0 +1,25 @@
+package com.example.rentalrequest.repository;
+
+import com.example.rentalrequest.model.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    // Takes over an expired lease or renews our own; 0 rows updated means another node holds it
+    @Modifying
+    @Query("update SchedulerLease l set l.owner = :owner, l.expiresAt = :expiresAt"
+            + " where l.name = :name and (l.owner = :owner or l.expiresAt < :now)")
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner,
+                   @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("update SchedulerLease l set l.expiresAt = :now where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
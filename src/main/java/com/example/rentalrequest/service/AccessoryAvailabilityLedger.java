@@ -0,0 +1,205 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.AccessoryStock;
+import com.example.rentalrequest.model.CacheInvalidation;
+import com.example.rentalrequest.repository.AccessoryStockDayRepository;
+import com.example.rentalrequest.repository.AccessoryStockDayRepository.StockDay;
+import com.example.rentalrequest.repository.AccessoryStockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory copy of each accessory stock's quantity and per-day reserved counters, so availability can be
+ * answered without a query and an approval that cannot fit is turned away before it takes any row lock.
+ * The database stays the authority: reservations are only ever made by the conditional update in
+ * {@link AccessoryStockDayRepository}. A copy can lag behind a release on another node until its invalidation
+ * comes over the bus, so a shortage it shows is confirmed with {@link #availableNow} before anyone is turned away.
+ * <p>
+ * A stock's copy is dropped when a reservation on this node commits or another node's invalidation arrives,
+ * and reloaded by the next reader. Reloads are serialized per lock stripe, so a burst of checks on a stock that
+ * just changed costs one query, and always read the primary in a transaction of their own, whatever the caller
+ * is in. Every copy carries the ticket drawn before its query; an invalidation draws a newer one, so a reload
+ * that raced with a commit can't overwrite the invalidation with what it read before.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccessoryAvailabilityLedger implements CacheInvalidationListener {
+
+    private static final int STRIPES = 64;
+
+    private final AccessoryStockRepository accessoryStockRepository;
+    private final AccessoryStockDayRepository accessoryStockDayRepository;
+    private final ShardRouter shardRouter;
+
+    private final Map<Long, StockCounters> counters = new ConcurrentHashMap<>();
+    private final Object[] stripes = newStripes();
+    private final AtomicLong tickets = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+
+    /**
+     * Units of the stock free on every day of {@code [first, last]}, or empty if the stock doesn't exist.
+     */
+    public OptionalInt available(long stockId, LocalDate first, LocalDate last) {
+        StockCounters stock = current(stockId);
+        return stock == null ? OptionalInt.empty() : OptionalInt.of(stock.available(first, last));
+    }
+
+    /**
+     * Like {@link #available}, but reads the stock again first, for confirming a shortage the copy shows.
+     */
+    public OptionalInt availableNow(long stockId, LocalDate first, LocalDate last) {
+        StockCounters stock;
+        synchronized (stripe(stockId)) {
+            stock = reload(stockId);
+        }
+        return stock.isMissing() ? OptionalInt.empty() : OptionalInt.of(stock.available(first, last));
+    }
+
+    /**
+     * Drops the copies of {@code stockIds}; the next reader loads them again.
+     */
+    public void invalidate(Collection<Long> stockIds) {
+        for (Long stockId : stockIds) {
+            long ticket = tickets.incrementAndGet();
+            counters.put(stockId, StockCounters.stale(ticket));
+        }
+    }
+
+    @Override
+    public boolean supports(String region) {
+        return CacheInvalidation.ACCESSORY_STOCK.equals(region);
+    }
+
+    @Override
+    public void invalidate(String region, Collection<String> keys) {
+        if (keys == null) {
+            invalidateAll();
+        } else {
+            invalidate(keys.stream().map(Long::valueOf).toList());
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        long ticket = tickets.incrementAndGet();
+        counters.replaceAll((stockId, stock) -> StockCounters.stale(ticket));
+    }
+
+    /**
+     * Drops day counters that have passed, on whichever shard they live; copies only ever hold today onwards.
+     */
+    @Scheduled(cron = "${app.accessories.inventory.purge-cron:0 15 3 * * *}")
+    public void purgePastDays() {
+        LocalDate before = LocalDate.now().minusDays(1);
+        shardRouter.forEachShardInTurn(shard -> {
+            int purged = accessoryStockDayRepository.deleteBefore(before);
+            if (purged > 0) {
+                log.info("Purged {} past accessory stock days on shard {}", purged, shard);
+            }
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("stocks", counters.values().stream().filter(stock -> !stock.isStale()).count());
+        stats.put("stale", counters.values().stream().filter(StockCounters::isStale).count());
+        stats.put("answeredFromMemory", hits.sum());
+        stats.put("reloads", reloads.sum());
+        return stats;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private StockCounters current(long stockId) {
+        StockCounters stock = counters.get(stockId);
+        if (stock != null && !stock.isStale()) {
+            hits.increment();
+            return stock.isMissing() ? null : stock;
+        }
+        synchronized (stripe(stockId)) {
+            // Another reader of this stripe may have reloaded it while this one waited
+            stock = counters.get(stockId);
+            if (stock == null || stock.isStale()) {
+                stock = reload(stockId);
+            }
+        }
+        return stock.isMissing() ? null : stock;
+    }
+
+    private StockCounters reload(long stockId) {
+        reloads.increment();
+        long ticket = tickets.incrementAndGet();
+        LocalDate today = LocalDate.now();
+        StockCounters loaded = shardRouter.readFromPrimary(shardRouter.shardOf(stockId), () ->
+                accessoryStockRepository.findById(stockId)
+                        .map(stock -> StockCounters.of(ticket, stock, accessoryStockDayRepository.findReservedFrom(stockId, today)))
+                        .orElseGet(() -> StockCounters.missing(ticket)));
+        // Keeps a newer invalidation; the caller still gets what it just read
+        counters.merge(stockId, loaded, (existing, fresh) -> existing.ticket() > fresh.ticket() ? existing : fresh);
+        return loaded;
+    }
+
+    private Object stripe(long stockId) {
+        return stripes[Math.floorMod(Long.hashCode(stockId), STRIPES)];
+    }
+
+    private static Object[] newStripes() {
+        Object[] stripes = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        return stripes;
+    }
+
+    /**
+     * A stock as last read: quantity plus reserved units per day. {@code quantity} is -1 for a stock that doesn't
+     * exist and -2 for a copy that has been invalidated.
+     */
+    private record StockCounters(long ticket, int quantity, NavigableMap<LocalDate, Integer> reservedByDay) {
+
+        static StockCounters of(long ticket, AccessoryStock stock, Collection<StockDay> days) {
+            NavigableMap<LocalDate, Integer> reserved = new TreeMap<>();
+            days.forEach(day -> reserved.put(day.day(), day.reserved()));
+            return new StockCounters(ticket, stock.getQuantity(), Collections.unmodifiableNavigableMap(reserved));
+        }
+
+        static StockCounters missing(long ticket) {
+            return new StockCounters(ticket, -1, Collections.emptyNavigableMap());
+        }
+
+        static StockCounters stale(long ticket) {
+            return new StockCounters(ticket, -2, Collections.emptyNavigableMap());
+        }
+
+        boolean isMissing() {
+            return quantity == -1;
+        }
+
+        boolean isStale() {
+            return quantity == -2;
+        }
+
+        int available(LocalDate first, LocalDate last) {
+            int peak = reservedByDay.subMap(first, true, last, true).values().stream()
+                    .mapToInt(Integer::intValue).max().orElse(0);
+            return Math.max(quantity - peak, 0);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.dto.AccessoryStockDTO;
+import com.example.rentalrequest.exception.ResourceNotFoundException;
+import com.example.rentalrequest.model.AccessoryReservation;
+import com.example.rentalrequest.model.AccessoryStock;
+import com.example.rentalrequest.model.CacheInvalidation;
+import com.example.rentalrequest.model.RentalRequest;
+import com.example.rentalrequest.model.RentalStatus;
+import com.example.rentalrequest.repository.AccessoryReservationRepository;
+import com.example.rentalrequest.repository.AccessoryStockDayRepository;
+import com.example.rentalrequest.repository.AccessoryStockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accessory stock per location and the reservations rental requests hold against it. A request asks for units
+ * when it is created; they are reserved for every day from pickup through drop-off when it is approved and given
+ * back when it is rejected, deleted or its car is released.
+ * <p>
+ * Stocks live on the shard of their location, which is also the shard of the rental requests picked up there.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class AccessoryInventoryService {
+
+    private final AccessoryStockRepository accessoryStockRepository;
+    private final AccessoryStockDayRepository accessoryStockDayRepository;
+    private final AccessoryReservationRepository accessoryReservationRepository;
+    private final AccessoryAvailabilityLedger ledger;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ShardRouter shardRouter;
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejectedFromMemory = new LongAdder();
+    private final LongAdder rejectedByDatabase = new LongAdder();
+
+    public AccessoryStock createStock(AccessoryStockDTO dto) {
+        validateStockDTO(dto);
+        if (dto.getLocation() == null || dto.getLocation().isBlank()) {
+            throw new IllegalArgumentException("Location is required");
+        }
+        String location = dto.getLocation().trim();
+        String name = dto.getName().trim();
+
+        AccessoryStock saved = shardRouter.inShard(shardRouter.shardForLocation(location), () -> {
+            if (accessoryStockRepository.findByLocationIgnoreCaseAndNameIgnoreCase(location, name).isPresent()) {
+                throw new IllegalStateException(location + " already stocks " + name);
+            }
+            return accessoryStockRepository.save(new AccessoryStock(null, location, name, dto.getQuantity()));
+        });
+        log.info("Created accessory stock {}: {} x {} at {}", saved.getId(), saved.getQuantity(), name, location);
+        return saved;
+    }
+
+    /**
+     * Renames a stock or changes its quantity, which can't drop below what is already reserved on any day from
+     * today on. A stock that is no longer rented out is set to zero rather than deleted, since past reservations
+     * refer to it.
+     */
+    public AccessoryStock updateStock(Long id, AccessoryStockDTO dto) {
+        validateStockDTO(dto);
+        return shardRouter.inShard(shardRouter.shardOf(id), () -> {
+            // Waits for in-flight reservations of this stock, which hold a shared lock on it until they commit
+            AccessoryStock stock = accessoryStockRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Accessory stock not found with ID: " + id));
+            int reservedPeak = accessoryStockDayRepository.findMaxReservedFrom(id, LocalDate.now());
+            if (dto.getQuantity() < reservedPeak) {
+                throw new IllegalStateException(reservedPeak + " x " + stock.getName() + " are already reserved on some day at "
+                        + stock.getLocation());
+            }
+            String name = dto.getName().trim();
+            if (!name.equalsIgnoreCase(stock.getName())
+                    && accessoryStockRepository.findByLocationIgnoreCaseAndNameIgnoreCase(stock.getLocation(), name).isPresent()) {
+                throw new IllegalStateException(stock.getLocation() + " already stocks " + name);
+            }
+            stock.setName(name);
+            stock.setQuantity(dto.getQuantity());
+            AccessoryStock saved = accessoryStockRepository.save(stock);
+            afterCommitInvalidate(List.of(id));
+            log.info("Accessory stock {} now holds {} x {}", id, saved.getQuantity(), saved.getName());
+            return saved;
+        });
+    }
+
+    /**
+     * Every stock at {@code location} with the units free on all days of {@code [from, to]}, answered from the
+     * in-memory counters.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getStockAt(String location, LocalDate from, LocalDate to) {
+        if (location == null || location.isBlank()) {
+            throw new IllegalArgumentException("Location is required");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("From date cannot be after to date");
+        }
+        LocalDate first = from != null ? from : LocalDate.now();
+        LocalDate last = to != null ? to : first;
+
+        List<AccessoryStock> stocks = shardRouter.inShard(shardRouter.shardForLocation(location),
+                () -> accessoryStockRepository.findByLocationIgnoreCaseOrderByName(location.trim()));
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (AccessoryStock stock : stocks) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", stock.getId());
+            entry.put("location", stock.getLocation());
+            entry.put("name", stock.getName());
+            entry.put("quantity", stock.getQuantity());
+            entry.put("available", ledger.available(stock.getId(), first, last).orElse(0));
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Records the accessories asked for with a newly saved request, by stock name at its location. Must run on
+     * the request's shard.
+     *
+     * @param skipUnknown log and skip names the location doesn't stock, for requests accepted earlier through the
+     *                    intake journal; otherwise they are rejected
+     */
+    public void requestAccessories(RentalRequest request, Map<String, Integer> accessories, boolean skipUnknown) {
+        if (accessories == null || accessories.isEmpty()) {
+            return;
+        }
+        List<AccessoryReservation> reservations = new ArrayList<>();
+        for (Map.Entry<String, Integer> accessory : accessories.entrySet()) {
+            AccessoryStock stock = accessoryStockRepository
+                    .findByLocationIgnoreCaseAndNameIgnoreCase(request.getLocation(), accessory.getKey().trim())
+                    .orElse(null);
+            if (stock == null) {
+                if (!skipUnknown) {
+                    throw new IllegalArgumentException(request.getLocation() + " has no " + accessory.getKey() + " to rent out");
+                }
+                log.warn("Rental request {} asked for {}, which {} no longer stocks", request.getId(), accessory.getKey(),
+                        request.getLocation());
+                continue;
+            }
+            reservations.add(new AccessoryReservation(null, request.getId(), stock.getId(), accessory.getValue(),
+                    firstDay(request), lastDay(request), AccessoryReservation.Status.REQUESTED, LocalDateTime.now()));
+        }
+        accessoryReservationRepository.saveAll(reservations);
+    }
+
+    /**
+     * Brings a request's accessory reservations in line with its status and dates: units are held while it is
+     * approved and its car not yet released, on each day from pickup through drop-off. Must run in the
+     * transaction that changes the request, on its shard; if any accessory is short it throws, and rolling back
+     * undoes every counter already taken.
+     */
+    public void syncWithRequest(RentalRequest request) {
+        List<AccessoryReservation> reservations = accessoryReservationRepository.findByRentalRequestIdOrderByStockId(request.getId());
+        if (reservations.isEmpty()) {
+            return;
+        }
+        boolean hold = request.getStatus() == RentalStatus.APPROVED && request.getCarReleasedAt() == null;
+        LocalDate first = firstDay(request);
+        LocalDate last = lastDay(request);
+        Set<Long> changed = new TreeSet<>();
+
+        // Releases first, so a request moved to overlapping days can reuse its own units
+        for (AccessoryReservation reservation : reservations) {
+            if (reservation.getStatus() != AccessoryReservation.Status.RESERVED) {
+                continue;
+            }
+            boolean sameDays = reservation.getFirstDay().equals(first) && reservation.getLastDay().equals(last);
+            if (hold && sameDays) {
+                continue;
+            }
+            accessoryStockDayRepository.release(reservation.getStockId(), reservation.getFirstDay(), reservation.getLastDay(),
+                    reservation.getQuantity());
+            changed.add(reservation.getStockId());
+            reservation.setStatus(hold || request.getStatus() == RentalStatus.PENDING ? AccessoryReservation.Status.REQUESTED
+                    : request.getStatus() == RentalStatus.APPROVED ? AccessoryReservation.Status.RELEASED
+                    : AccessoryReservation.Status.CANCELLED);
+        }
+
+        List<AccessoryReservation> toReserve = new ArrayList<>();
+        for (AccessoryReservation reservation : reservations) {
+            if (reservation.getStatus() != AccessoryReservation.Status.REQUESTED) {
+                continue;
+            }
+            if (request.getStatus() == RentalStatus.REJECTED || (request.getStatus() == RentalStatus.APPROVED && !hold)) {
+                reservation.setStatus(AccessoryReservation.Status.CANCELLED);
+                continue;
+            }
+            reservation.setFirstDay(first);
+            reservation.setLastDay(last);
+            if (hold) {
+                toReserve.add(reservation);
+            }
+        }
+        reserve(request, toReserve, changed);
+        toReserve.forEach(reservation -> changed.add(reservation.getStockId()));
+
+        accessoryReservationRepository.saveAll(reservations);
+        afterCommitInvalidate(changed);
+    }
+
+    /**
+     * Gives back what a request holds and removes its reservations, ahead of deleting the request.
+     */
+    public void removeForRequest(RentalRequest request) {
+        List<AccessoryReservation> reservations = accessoryReservationRepository.findByRentalRequestIdOrderByStockId(request.getId());
+        Set<Long> changed = new TreeSet<>();
+        for (AccessoryReservation reservation : reservations) {
+            if (reservation.getStatus() == AccessoryReservation.Status.RESERVED) {
+                accessoryStockDayRepository.release(reservation.getStockId(), reservation.getFirstDay(), reservation.getLastDay(),
+                        reservation.getQuantity());
+                changed.add(reservation.getStockId());
+            }
+        }
+        accessoryReservationRepository.deleteAll(reservations);
+        afterCommitInvalidate(changed);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AccessoryReservation> getReservations(Long requestId) {
+        return shardRouter.inShard(shardRouter.shardOf(requestId),
+                () -> accessoryReservationRepository.findByRentalRequestIdOrderByStockId(requestId));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("reserved", reserved.sum());
+        stats.put("rejectedFromMemory", rejectedFromMemory.sum());
+        stats.put("rejectedByDatabase", rejectedByDatabase.sum());
+        stats.put("ledger", ledger.getStats());
+        return stats;
+    }
+
+    public long getReservedCount() {
+        return reserved.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedFromMemory.sum() + rejectedByDatabase.sum();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    /**
+     * @param released stocks this transaction has just given units back to; their counters can't be judged from
+     *                 outside it, so they go straight to the database
+     */
+    private void reserve(RentalRequest request, List<AccessoryReservation> reservations, Set<Long> released) {
+        // Turned away before any row lock is taken, but only on a fresh read: the copy may lag behind a release
+        // on another node. Passing here proves nothing either way
+        for (AccessoryReservation reservation : reservations) {
+            if (released.contains(reservation.getStockId())) {
+                continue;
+            }
+            OptionalInt available = ledger.available(reservation.getStockId(), reservation.getFirstDay(), reservation.getLastDay());
+            if (available.isPresent() && available.getAsInt() < reservation.getQuantity()) {
+                available = ledger.availableNow(reservation.getStockId(), reservation.getFirstDay(), reservation.getLastDay());
+                if (available.isPresent() && available.getAsInt() < reservation.getQuantity()) {
+                    rejectedFromMemory.increment();
+                    throw shortage(request, reservation, available.getAsInt());
+                }
+            }
+        }
+
+        // Stocks in id order and days ascending, so concurrent approvals take row locks in the same order
+        for (AccessoryReservation reservation : reservations) {
+            AccessoryStock stock = accessoryStockRepository.findByIdForReservation(reservation.getStockId())
+                    .orElseThrow(() -> new IllegalStateException("Accessory stock " + reservation.getStockId() + " no longer exists"));
+            if (!accessoryStockDayRepository.reserve(stock.getId(), reservation.getFirstDay(), reservation.getLastDay(),
+                    reservation.getQuantity(), stock.getQuantity())) {
+                rejectedByDatabase.increment();
+                throw shortage(request, reservation, null);
+            }
+            reservation.setStatus(AccessoryReservation.Status.RESERVED);
+        }
+        reserved.add(reservations.size());
+    }
+
+    private IllegalStateException shortage(RentalRequest request, AccessoryReservation reservation, Integer available) {
+        return new IllegalStateException("Not enough accessories of stock " + reservation.getStockId() + " at "
+                + request.getLocation() + " from " + reservation.getFirstDay() + " to " + reservation.getLastDay()
+                + " for rental request " + request.getId() + ": " + reservation.getQuantity() + " requested"
+                + (available != null ? ", " + available + " free" : ""));
+    }
+
+    // Other nodes learn through the bus; this node's copies are dropped as soon as the change is visible
+    private void afterCommitInvalidate(Collection<Long> stockIds) {
+        if (stockIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(stockIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ledger.invalidate(ids);
+                }
+            });
+        } else {
+            ledger.invalidate(ids);
+        }
+        ids.forEach(id -> cacheInvalidationBus.publish(CacheInvalidation.of(CacheInvalidation.ACCESSORY_STOCK, id)));
+    }
+
+    private void validateStockDTO(AccessoryStockDTO dto) {
+        if (dto.getName() == null || dto.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Accessory name cannot be empty");
+        }
+        if (dto.getQuantity() == null || dto.getQuantity() < 0) {
+            throw new IllegalArgumentException("Quantity must be zero or more");
+        }
+    }
+
+    private static LocalDate firstDay(RentalRequest request) {
+        return request.getPickupDateTime().toLocalDate();
+    }
+
+    private static LocalDate lastDay(RentalRequest request) {
+        return request.getDropDateTime().toLocalDate();
+    }
+}
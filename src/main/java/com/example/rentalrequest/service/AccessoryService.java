@@ -2,6 +2,7 @@ package com.example.rentalrequest.service;
 
 import com.example.rentalrequest.dto.AccessoryDTO;
 import com.example.rentalrequest.model.Accessory;
+import com.example.rentalrequest.model.CacheInvalidation;
 import com.example.rentalrequest.model.Car;
 import com.example.rentalrequest.repository.AccessoryRepository;
 import com.example.rentalrequest.repository.CarRepository;
@@ -11,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -22,17 +24,19 @@ public class AccessoryService {
 
     private final AccessoryRepository accessoryRepository;
     private final CarRepository carRepository;
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     @Transactional(readOnly = true)
     public List<Accessory> getAllAccessories() {
         log.info("Fetching all accessories");
-        return accessoryRepository.findAll();
+        return concat(shardRouter.scatterGather(shard -> accessoryRepository.findAll()));
     }
 
     @Transactional(readOnly = true)
     public Accessory getAccessoryById(Long id) {
         log.info("Fetching accessory with ID: {}", id);
-        return accessoryRepository.findById(id)
+        return shardRouter.inShard(shardRouter.shardOf(id), () -> accessoryRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Accessory not found with ID: " + id));
     }
 
@@ -41,13 +45,15 @@ public class AccessoryService {
 
         validateAccessoryDTO(accessoryDTO);
 
-        Car car = carRepository.findById(accessoryDTO.getCarId())
+        // Accessories live on their car's shard
+        Car car = shardRouter.inShard(shardRouter.shardOf(accessoryDTO.getCarId()), () -> carRepository.findById(accessoryDTO.getCarId()))
                 .orElseThrow(() -> new ResourceNotFoundException("Car not found with ID: " + accessoryDTO.getCarId()));
 
         log.info("Found car: {} {}", car.getBrand(), car.getModel());
 
         Accessory accessory = buildAccessoryFromDTO(accessoryDTO, car);
         Accessory savedAccessory = accessoryRepository.save(accessory);
+        publishInvalidation(savedAccessory.getId(), car.getId());
 
         log.info("Accessory created successfully with ID: {}", savedAccessory.getId());
 
@@ -65,11 +71,15 @@ public class AccessoryService {
 
         validateAccessoryDTO(updatedDTO);
 
-        Accessory existingAccessory = accessoryRepository.findById(id)
+        Accessory existingAccessory = shardRouter.inShard(shardRouter.shardOf(id), () -> accessoryRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Accessory not found with ID: " + id));
 
+        Long previousCarId = existingAccessory.getCar().getId();
         updateAccessoryFields(existingAccessory, updatedDTO);
         Accessory savedAccessory = accessoryRepository.save(existingAccessory);
+        // Both cars' cached accessory collections change when it moves
+        publishInvalidation(id, previousCarId);
+        publishInvalidation(id, savedAccessory.getCar().getId());
 
         log.info("Accessory updated successfully with ID: {}", savedAccessory.getId());
 
@@ -84,26 +94,41 @@ public class AccessoryService {
     public void deleteAccessory(Long id) {
         log.info("Deleting accessory ID: {}", id);
 
-        Accessory accessory = accessoryRepository.findById(id)
+        Accessory accessory = shardRouter.inShard(shardRouter.shardOf(id), () -> accessoryRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Accessory not found with ID: " + id));
 
         accessoryRepository.delete(accessory);
+        publishInvalidation(id, accessory.getCar().getId());
         log.info("Accessory deleted successfully with ID: {}", id);
     }
 
     @Transactional(readOnly = true)
     public List<Accessory> getAccessoriesByCarId(Long carId) {
         log.info("Fetching accessories for car ID: {}", carId);
-        return accessoryRepository.findByCarId(carId);
+        return shardRouter.inShard(shardRouter.shardOf(carId), () -> accessoryRepository.findByCarId(carId));
     }
 
     @Transactional(readOnly = true)
     public List<Accessory> getAvailableAccessories() {
         log.info("Fetching available accessories");
-        return accessoryRepository.findByAvailableTrue();
+        return concat(shardRouter.scatterGather(shard -> accessoryRepository.findByAvailableTrue()));
     }
 
     // Private helper methods
+    private static List<Accessory> concat(List<List<Accessory>> perShard) {
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        List<Accessory> accessories = new ArrayList<>();
+        perShard.forEach(accessories::addAll);
+        return accessories;
+    }
+
+    private void publishInvalidation(Long accessoryId, Long carId) {
+        cacheInvalidationBus.publish(CacheInvalidation.of(CacheInvalidation.ACCESSORY, accessoryId));
+        cacheInvalidationBus.publish(CacheInvalidation.of(CacheInvalidation.CAR, carId));
+    }
+
     private void validateAccessoryDTO(AccessoryDTO dto) {
         if (dto.getName() == null || dto.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Accessory name cannot be empty");
@@ -132,6 +157,10 @@ public class AccessoryService {
 
         // Update car relationship if needed
         if (updatedDTO.getCarId() != null && !updatedDTO.getCarId().equals(accessory.getCar().getId())) {
+            if (shardRouter.shardOf(updatedDTO.getCarId()) != shardRouter.shardOf(accessory.getId())) {
+                throw new IllegalStateException("Accessory " + accessory.getId() + " cannot move to car "
+                        + updatedDTO.getCarId() + ", which is stored on another shard");
+            }
             Car newCar = carRepository.findById(updatedDTO.getCarId())
                     .orElseThrow(() -> new ResourceNotFoundException("Car not found with ID: " + updatedDTO.getCarId()));
             accessory.setCar(newCar);
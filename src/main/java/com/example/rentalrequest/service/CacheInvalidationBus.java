@@ -0,0 +1,294 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.CacheInvalidation;
+import com.example.rentalrequest.service.CacheInvalidationTransport.Received;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tells the other nodes which cached cars, accessories and users a commit on this node made stale. Writers
+ * {@link #publish} after their change; the invalidation is queued once the transaction commits, coalesced with
+ * whatever else is queued (repeated keys collapse, a region with too many keys becomes one region-wide entry)
+ * and sent in one batch per flush. Every node polls the transport and hands other nodes' invalidations to the
+ * {@link CacheInvalidationListener} beans. This node's own caches are kept current by the writers themselves.
+ * <p>
+ * While the transport is reachable a remote change is visible here after at most a flush plus a poll interval.
+ * A node that hasn't completed a poll for {@code max-staleness-ms} can no longer tell what went stale, so it drops
+ * all of its caches on every poll until one succeeds again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus {
+
+    private static final int MAX_BATCHES_PER_POLL = 10;
+
+    private final CacheInvalidationTransport transport;
+    private final List<CacheInvalidationListener> listeners;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.invalidation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.cache.invalidation.max-keys-per-region:100}")
+    private int maxKeysPerRegion;
+
+    @Value("${app.cache.invalidation.max-staleness-ms:5000}")
+    private long maxStalenessMs;
+
+    // Region -> stale keys, or null for the whole region; guarded by its own monitor
+    private final Map<String, Set<String>> pending = new LinkedHashMap<>();
+
+    private Timer propagationTimer;
+    private volatile long lastPollMillis = System.currentTimeMillis();
+    private volatile boolean degraded;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder pollFailures = new LongAdder();
+    private final LongAdder fullEvictions = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        propagationTimer = Timer.builder("cache.invalidation.propagation")
+                .description("Time from a cache invalidation being written by one node to its receipt on another")
+                .tag("transport", transport.getName())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues {@code invalidation} for the other nodes, after the current transaction commits if there is one:
+     * sent earlier, another node could reload the entry before the commit and cache the old row again.
+     */
+    public void publish(CacheInvalidation invalidation) {
+        if (!enabled) {
+            return;
+        }
+        published.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(invalidation);
+                }
+            });
+        } else {
+            enqueue(invalidation);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.flush-interval-ms:100}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<CacheInvalidation> batch = drainPending();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transport.send(schedulerLeaseService.getOwner(), batch);
+            sent.add(batch.size());
+        } catch (RuntimeException e) {
+            sendFailures.increment();
+            // Back in the queue, merged with whatever was published meanwhile
+            batch.forEach(this::enqueue);
+            log.warn("Could not send {} cache invalidations, retrying: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-interval-ms:500}")
+    public synchronized void poll() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        String self = schedulerLeaseService.getOwner();
+        Map<String, Set<String>> stale = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < MAX_BATCHES_PER_POLL; i++) {
+                List<Received> batch = transport.receive(batchSize);
+                for (Received invalidation : batch) {
+                    if (self.equals(invalidation.origin())) {
+                        continue;
+                    }
+                    received.increment();
+                    if (invalidation.delay() != null) {
+                        propagationTimer.record(invalidation.delay().isNegative() ? Duration.ZERO : invalidation.delay());
+                    }
+                    merge(stale, invalidation.invalidation());
+                }
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            pollFailures.increment();
+            // Whatever was read before the failure is still applied
+            log.warn("Could not poll cache invalidations: {}", e.getMessage());
+            apply(stale);
+            enforceStalenessBound(now);
+            return;
+        }
+
+        apply(stale);
+        lastPollMillis = now;
+        if (degraded) {
+            degraded = false;
+            log.info("Cache invalidations are arriving again; caching resumes");
+        }
+    }
+
+    public long getQueueDepth() {
+        synchronized (pending) {
+            return pending.values().stream().mapToLong(keys -> keys == null ? 1 : keys.size()).sum();
+        }
+    }
+
+    public long getStalenessMillis() {
+        return Math.max(System.currentTimeMillis() - lastPollMillis, 0);
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getFullEvictionCount() {
+        return fullEvictions.sum();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("transport", transport.getName());
+        stats.put("node", schedulerLeaseService.getOwner());
+        stats.put("queued", getQueueDepth());
+        stats.put("published", published.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("sent", sent.sum());
+        stats.put("sendFailures", sendFailures.sum());
+        stats.put("received", received.sum());
+        stats.put("pollFailures", pollFailures.sum());
+        stats.put("stalenessMillis", getStalenessMillis());
+        stats.put("maxStalenessMillis", maxStalenessMs);
+        stats.put("degraded", degraded);
+        stats.put("fullEvictions", fullEvictions.sum());
+        stats.put("propagationMeanMillis", propagationTimer.mean(TimeUnit.MILLISECONDS));
+        stats.put("propagationMaxMillis", propagationTimer.max(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private void enqueue(CacheInvalidation invalidation) {
+        synchronized (pending) {
+            if (!merge(pending, invalidation)) {
+                coalesced.increment();
+            }
+        }
+    }
+
+    /**
+     * Adds {@code invalidation} to {@code target}, widening a region once it holds too many keys.
+     *
+     * @return false if an entry already covered it
+     */
+    private boolean merge(Map<String, Set<String>> target, CacheInvalidation invalidation) {
+        String region = invalidation.region();
+        if (target.containsKey(region) && target.get(region) == null) {
+            return false;
+        }
+        if (invalidation.isRegionWide()) {
+            target.put(region, null);
+            return true;
+        }
+        Set<String> keys = target.computeIfAbsent(region, r -> new LinkedHashSet<>());
+        if (!keys.add(invalidation.key())) {
+            return false;
+        }
+        if (keys.size() > maxKeysPerRegion) {
+            target.put(region, null);
+        }
+        return true;
+    }
+
+    private List<CacheInvalidation> drainPending() {
+        List<CacheInvalidation> batch = new ArrayList<>();
+        synchronized (pending) {
+            pending.forEach((region, keys) -> {
+                if (keys == null) {
+                    batch.add(CacheInvalidation.region(region));
+                } else {
+                    keys.forEach(key -> batch.add(new CacheInvalidation(region, key)));
+                }
+            });
+            pending.clear();
+        }
+        return batch;
+    }
+
+    private void apply(Map<String, Set<String>> stale) {
+        stale.forEach((region, keys) -> {
+            for (CacheInvalidationListener listener : listeners) {
+                if (!listener.supports(region)) {
+                    continue;
+                }
+                try {
+                    listener.invalidate(region, keys);
+                } catch (RuntimeException e) {
+                    log.error("Could not invalidate cache region {} in {}: {}", region, listener.getClass().getSimpleName(), e.getMessage());
+                    listener.invalidateAll();
+                }
+            }
+        });
+    }
+
+    private void enforceStalenessBound(long now) {
+        if (now - lastPollMillis <= maxStalenessMs) {
+            return;
+        }
+        if (!degraded) {
+            degraded = true;
+            log.error("No cache invalidations received for {} ms; dropping caches on every poll until they arrive again",
+                    now - lastPollMillis);
+        }
+        fullEvictions.increment();
+        listeners.forEach(CacheInvalidationListener::invalidateAll);
+    }
+}
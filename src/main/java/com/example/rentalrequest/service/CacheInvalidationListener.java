@@ -0,0 +1,22 @@
+package com.example.rentalrequest.service;
+
+import java.util.Collection;
+
+/**
+ * An in-process cache that other nodes' writes can make stale. {@link CacheInvalidationBus} calls every bean of
+ * this type with the invalidations it received, already coalesced per region.
+ */
+public interface CacheInvalidationListener {
+
+    boolean supports(String region);
+
+    /**
+     * @param keys the stale keys, or null when the whole region is stale
+     */
+    void invalidate(String region, Collection<String> keys);
+
+    /**
+     * Drops everything; used when invalidations may have been missed.
+     */
+    void invalidateAll();
+}
@@ -0,0 +1,34 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.CacheInvalidation;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Carries cache invalidations between nodes for {@link CacheInvalidationBus}. Exactly one transport bean is
+ * active, chosen by {@code app.cache.invalidation.transport}. Delivery may repeat an invalidation but must not
+ * lose one that {@link #send} accepted; the bus filters out a node's own invalidations.
+ */
+public interface CacheInvalidationTransport {
+
+    String getName();
+
+    /**
+     * Hands a coalesced batch to the other nodes. Throwing keeps the batch queued for the next attempt.
+     */
+    void send(String origin, Collection<CacheInvalidation> batch);
+
+    /**
+     * Returns what arrived since the previous call, oldest first, at most {@code limit} entries. Throwing counts
+     * as a failed poll for the staleness bound.
+     */
+    List<Received> receive(int limit);
+
+    /**
+     * @param delay time from the sender's write to this receipt, or null if the transport can't tell
+     */
+    record Received(CacheInvalidation invalidation, String origin, Duration delay) {
+    }
+}
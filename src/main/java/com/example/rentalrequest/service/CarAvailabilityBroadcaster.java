@@ -0,0 +1,268 @@
+package com.example.rentalrequest.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans committed car changes out to Server-Sent Events subscribers. Each event is serialised once and offered
+ * to every subscriber's bounded buffer; a subscriber whose buffer is full is disconnected rather than allowed
+ * to hold the others back. Idle subscribers own no thread: a short-lived virtual thread drains a buffer only
+ * while it has frames. Recent events are kept in a ring so reconnecting clients resume from Last-Event-ID; a
+ * resuming subscriber's buffer is sized for its replay on top of the live buffer, so any tail still in the ring
+ * can be resumed. The number of open streams is capped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CarAvailabilityBroadcaster {
+
+    public static final String EVENT_NAME = "car";
+    public static final String RESET_EVENT_NAME = "reset";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.cars.stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${app.cars.stream.replay-size:1024}")
+    private int replaySize;
+
+    @Value("${app.cars.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.cars.stream.reconnect-ms:3000}")
+    private long reconnectMs;
+
+    @Value("${app.cars.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    // Event ids are "<epoch>-<sequence>", so an id from before a restart is recognised as unresumable
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Object publishLock = new Object();
+    private final ArrayDeque<StreamEvent> history = new ArrayDeque<>();
+    private long sequence;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    void start() {
+        if (bufferSize < 1 || replaySize < 0 || maxSubscribers < 1) {
+            throw new IllegalStateException("app.cars.stream needs buffer-size >= 1, replay-size >= 0 and max-subscribers >= 1, got "
+                    + bufferSize + ", " + replaySize + " and " + maxSubscribers);
+        }
+        sender = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("car-stream-", 0).factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    /**
+     * Opens a stream. With a {@code lastEventId} still held in the replay ring, every later event is sent
+     * first; an unknown or expired id gets a {@code reset} event telling the client to refetch the listing.
+     * Empty when {@code max-subscribers} streams are already open.
+     */
+    public Optional<SseEmitter> subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+
+        // Replay and registration happen under the publish lock so no event is missed or sent twice
+        synchronized (publishLock) {
+            if (subscribers.size() >= maxSubscribers) {
+                refused.increment();
+                return Optional.empty();
+            }
+
+            List<StreamEvent> missed = lastEventId == null || lastEventId.isBlank() ? List.of() : eventsAfter(lastEventId.trim());
+            int replayed = missed == null ? 1 : missed.size();
+            Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize + replayed), new AtomicBoolean());
+
+            emitter.onCompletion(() -> subscribers.remove(subscriber));
+            emitter.onTimeout(emitter::complete);
+            emitter.onError(e -> subscribers.remove(subscriber));
+
+            offer(subscriber, SseEmitter.event().reconnectTime(reconnectMs).comment("connected").build());
+            if (missed == null) {
+                offer(subscriber, SseEmitter.event().name(RESET_EVENT_NAME).data("{}").build());
+            } else {
+                missed.forEach(event -> offer(subscriber, event.frame()));
+            }
+            subscribers.add(subscriber);
+        }
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent change) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialise car change for car {}: {}", change.carId(), e.getMessage());
+            return;
+        }
+
+        synchronized (publishLock) {
+            String id = epoch + "-" + (++sequence);
+            Set<DataWithMediaType> frame = SseEmitter.event().id(id).name(EVENT_NAME).data(json).build();
+            StreamEvent event = new StreamEvent(sequence, frame);
+
+            history.addLast(event);
+            if (history.size() > replaySize) {
+                history.removeFirst();
+            }
+            subscribers.forEach(subscriber -> offer(subscriber, frame));
+        }
+        published.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cars.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        // Keeps proxies from closing idle streams and surfaces dead connections on the next write
+        Set<DataWithMediaType> frame = SseEmitter.event().comment("heartbeat").build();
+        subscribers.forEach(subscriber -> offer(subscriber, frame));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    public long getRefusedCount() {
+        return refused.sum();
+    }
+
+    public long getReconnectMs() {
+        return reconnectMs;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("published", published.sum());
+        stats.put("evicted", evicted.sum());
+        stats.put("refused", refused.sum());
+        synchronized (publishLock) {
+            stats.put("lastEventId", sequence == 0 ? null : epoch + "-" + sequence);
+            stats.put("replayable", history.size());
+        }
+        return stats;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private void offer(Subscriber subscriber, Set<DataWithMediaType> frame) {
+        if (!subscriber.buffer().offer(frame)) {
+            evict(subscriber);
+            return;
+        }
+        if (subscriber.draining().compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<DataWithMediaType> frame;
+            while ((frame = subscriber.buffer().poll()) != null) {
+                subscriber.emitter().send(frame);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter already completed; the container cleans up the request
+            subscribers.remove(subscriber);
+            subscriber.buffer().clear();
+            return;
+        } finally {
+            subscriber.draining().set(false);
+        }
+
+        // A frame offered between the last poll and releasing the flag would otherwise sit until the next offer
+        if (!subscriber.buffer().isEmpty() && subscriber.draining().compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            evicted.increment();
+            log.debug("Disconnecting slow car stream subscriber after {} buffered events", bufferSize);
+        }
+        subscriber.buffer().clear();
+        subscriber.emitter().complete();
+    }
+
+    /**
+     * Events after {@code lastEventId}, or null when that id is from another process or already left the ring.
+     */
+    private List<StreamEvent> eventsAfter(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (last > sequence) {
+            return null;
+        }
+        long oldest = history.isEmpty() ? sequence + 1 : history.peekFirst().sequence();
+        if (last < oldest - 1) {
+            return null;
+        }
+
+        List<StreamEvent> missed = new ArrayList<>();
+        for (StreamEvent event : history) {
+            if (event.sequence() > last) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    private record StreamEvent(long sequence, Set<DataWithMediaType> frame) {
+    }
+
+    private record Subscriber(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> buffer, AtomicBoolean draining) {
+    }
+}
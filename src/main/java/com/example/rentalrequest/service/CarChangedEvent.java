@@ -0,0 +1,26 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.Car;
+
+import java.math.BigDecimal;
+
+/**
+ * Published inside the transaction that changes a car's availability or prices; subscribers of the car stream
+ * only see it once that transaction has committed.
+ */
+public record CarChangedEvent(Long carId, Change change, Boolean available,
+                              BigDecimal dailyPrice, BigDecimal weeklyPrice, BigDecimal monthlyPrice) {
+
+    public enum Change {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static CarChangedEvent of(Change change, Car car) {
+        return new CarChangedEvent(car.getId(), change, car.isAvailable(),
+                car.getDailyPrice(), car.getWeeklyPrice(), car.getMonthlyPrice());
+    }
+
+    public static CarChangedEvent deleted(Long carId) {
+        return new CarChangedEvent(carId, Change.DELETED, null, null, null, null);
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.RentalStatus;
+import com.example.rentalrequest.repository.RentalRequestRepository;
+import com.example.rentalrequest.repository.RentalRequestRepository.PendingRelease;
+import com.example.rentalrequest.util.HierarchicalTimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Returns cars to availability when their rental ends. Only the node holding the {@code car-release} lease runs
+ * it: on taking the lease it loads every approved, unreleased rental into a hierarchical timing wheel once, then
+ * only picks up new approvals through an index range on approved_at. Each tick advances the wheel and releases
+ * whatever fell due, so there is no periodic scan of the rental table.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CarReleaseScheduler {
+
+    static final String LEASE_NAME = "car-release";
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+    // Approvals are stamped with the approving node's clock; overlap the sync window to absorb skew between nodes
+    private static final Duration CLOCK_SKEW_ALLOWANCE = Duration.ofMinutes(2);
+
+    private final RentalRequestRepository rentalRequestRepository;
+    private final RentalRequestService rentalRequestService;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final ShardRouter shardRouter;
+
+    @Value("${app.rentals.release.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rentals.release.buffer-minutes:60}")
+    private long bufferMinutes;
+
+    @Value("${app.rentals.release.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${app.rentals.release.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${app.rentals.release.sync-interval-ms:5000}")
+    private long syncIntervalMs;
+
+    @Value("${app.rentals.release.retry-delay-ms:60000}")
+    private long retryDelayMs;
+
+    // All state below is only touched under this object's monitor
+    private HierarchicalTimingWheel<Long> wheel;
+    private final Set<Long> scheduled = new HashSet<>();
+    private boolean leader;
+    private long leaseRenewAt;
+    private long leaseValidUntil;
+    private long lastSyncMillis;
+    private LocalDateTime syncedUpTo;
+
+    private final LongAdder released = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @Scheduled(fixedDelayString = "${app.rentals.release.tick-ms:1000}")
+    public synchronized void tick() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!holdsLease(now)) {
+            if (leader) {
+                log.info("Lost the car release lease; another node releases cars now");
+                stepDown();
+            }
+            return;
+        }
+
+        if (!leader) {
+            rebuild(now);
+            leader = true;
+        } else if (now - lastSyncMillis >= syncIntervalMs) {
+            syncRecentApprovals(now);
+        }
+
+        List<Long> due = new ArrayList<>();
+        wheel.advance(now, due::add);
+        due.forEach(this::release);
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        if (leader) {
+            // Let the next node take over immediately instead of waiting for the lease to run out
+            schedulerLeaseService.release(LEASE_NAME);
+            stepDown();
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("leader", leader);
+        stats.put("node", schedulerLeaseService.getOwner());
+        stats.put("scheduled", scheduled.size());
+        stats.put("bufferMinutes", bufferMinutes);
+        stats.put("released", released.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private boolean holdsLease(long now) {
+        if (now >= leaseRenewAt) {
+            leaseRenewAt = now + leaseMs / 3;
+            // Trust the lease locally for two thirds of its length, leaving the rest as a margin for clock skew
+            leaseValidUntil = schedulerLeaseService.tryAcquire(LEASE_NAME, Duration.ofMillis(leaseMs))
+                    ? now + leaseMs * 2 / 3
+                    : 0;
+        }
+        return now < leaseValidUntil;
+    }
+
+    private void rebuild(long now) {
+        wheel = new HierarchicalTimingWheel<>(tickMs, WHEEL_SIZE, WHEEL_LEVELS, now);
+        scheduled.clear();
+        syncedUpTo = LocalDateTime.now();
+        lastSyncMillis = now;
+
+        List<PendingRelease> pending = new ArrayList<>();
+        shardRouter.scatterGather(shard -> rentalRequestRepository.findPendingReleases(RentalStatus.APPROVED))
+                .forEach(pending::addAll);
+        pending.forEach(release -> schedule(release.getId(), release.getDropDateTime()));
+        log.info("Took the car release lease; scheduled {} pending car releases", pending.size());
+    }
+
+    private void syncRecentApprovals(long now) {
+        LocalDateTime since = syncedUpTo.minus(CLOCK_SKEW_ALLOWANCE);
+        syncedUpTo = LocalDateTime.now();
+        lastSyncMillis = now;
+        shardRouter.scatterGather(shard -> rentalRequestRepository.findPendingReleasesApprovedSince(RentalStatus.APPROVED, since))
+                .forEach(releases -> releases.forEach(release -> schedule(release.getId(), release.getDropDateTime())));
+    }
+
+    private void schedule(Long requestId, LocalDateTime dropDateTime) {
+        if (!scheduled.add(requestId)) {
+            return;
+        }
+        long releaseAt = dropDateTime == null
+                ? System.currentTimeMillis()
+                : dropDateTime.plusMinutes(bufferMinutes).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!wheel.add(releaseAt, requestId)) {
+            release(requestId);
+        }
+    }
+
+    private void release(Long requestId) {
+        scheduled.remove(requestId);
+        try {
+            rentalRequestService.releaseCar(requestId, Duration.ofMinutes(bufferMinutes))
+                    .ifPresentOrElse(
+                            // The drop-off moved later since this was scheduled
+                            releaseAt -> schedule(requestId, releaseAt.minusMinutes(bufferMinutes)),
+                            released::increment);
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Could not release the car of rental request {}, retrying in {} ms: {}", requestId, retryDelayMs, e.getMessage());
+            scheduled.add(requestId);
+            wheel.add(System.currentTimeMillis() + retryDelayMs, requestId);
+        }
+    }
+
+    private void stepDown() {
+        leader = false;
+        if (wheel != null) {
+            wheel.clear();
+        }
+        scheduled.clear();
+    }
+}
@@ -1,21 +1,37 @@
 // ==================== UPDATED CAR SERVICE ====================
 package com.example.rentalrequest.service;
 
+import com.example.rentalrequest.config.ApplicationMetrics;
 import com.example.rentalrequest.dto.CarDTO;
+import com.example.rentalrequest.model.CacheInvalidation;
 import com.example.rentalrequest.model.Car;
 import com.example.rentalrequest.model.CarImage;
 import com.example.rentalrequest.model.Accessory;
+import com.example.rentalrequest.repository.AccessoryRepository;
+import com.example.rentalrequest.repository.AccessoryRepository.AccessoryName;
+import com.example.rentalrequest.repository.CarAttributeQueries.CarFilter;
+import com.example.rentalrequest.repository.CarFeedRepository;
 import com.example.rentalrequest.repository.CarRepository;
 import com.example.rentalrequest.repository.CarImageRepository;
+import com.example.rentalrequest.repository.CarImageRepository.CarImageUrl;
 import com.example.rentalrequest.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -25,42 +41,74 @@ import java.util.stream.Collectors;
 @Transactional
 public class CarService {
 
+    public static final List<String> FIELDS = List.of("id", "brand", "model", "fuel", "carType", "plateNumber",
+            "mainLocation", "color", "year", "transmission", "passengers", "noOfAirBags", "description",
+            "dailyPrice", "weeklyPrice", "monthlyPrice", "available");
+    public static final List<String> EXPANSIONS = List.of("accessories", "images");
+
     private final CarRepository carRepository;
+    private final AccessoryRepository accessoryRepository;
     private final CarImageRepository carImageRepository;
+    private final CarFeedRepository carFeedRepository;
     private final S3Service s3Service;
-
+    private final ApplicationMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * Car listings with sparse fieldsets. {@code fields} picks the columns that are selected at all and
+     * {@code expand} the associations that are loaded (one statement each). Without either parameter the full
+     * car with accessories and image URLs is returned; naming {@code fields} alone skips every association.
+     */
     @Transactional(readOnly = true)
-    public List<CarDTO> getAllCarsWithAccessories() {
-        log.info("Fetching all cars with accessories");
-
-        List<Car> cars = carRepository.findAll();
-        log.info("Found {} cars in database", cars.size());
-
-        return cars.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public List<Map<String, Object>> getCars(String fields, String expand) {
+        log.info("Fetching cars (fields {}, expand {})", fields, expand);
+        return findCarsOnAllShards(CarFilter.all(), fields, expand);
     }
 
+    /**
+     * Partner feed: every car as a flat JSON object, written from a forward-only cursor straight into
+     * {@code out}. No entities, maps or lists are built, so memory stays flat however large the fleet is and
+     * the first bytes leave as soon as the response buffer fills.
+     */
     @Transactional(readOnly = true)
-    public List<Map<String, Object>> getAllCarsSimple() {
-        log.info("Fetching all cars - simple format");
-
-        List<Car> cars = carRepository.findAll();
-        log.info("Found {} cars for simple endpoint", cars.size());
+    public void writeAllCarsSimple(OutputStream out) throws IOException {
+        log.info("Streaming all cars - simple format");
+
+        long[] written = {0};
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // The servlet container owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            // One shard after another, so the feed stays in id order
+            shardRouter.forEachShard(shard -> carFeedRepository.forEachCar(row -> {
+                try {
+                    writeSimpleCar(generator, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                written[0]++;
+            }));
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-feed; the response is already committed
+            throw e.getCause();
+        }
 
-        return cars.stream()
-                .map(this::convertToSimpleMap)
-                .collect(Collectors.toList());
+        log.info("Streamed {} cars for simple endpoint", written[0]);
     }
 
     @Transactional(readOnly = true)
     public CarDTO getCarById(Long id) {
         log.info("Fetching car with ID: {}", id);
 
-        Car car = carRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Car not found with id: " + id));
-
-        return convertToDTO(car);
+        return shardRouter.inShard(shardRouter.shardOf(id), () -> {
+            Car car = carRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Car not found with id: " + id));
+            return convertToDTO(car);
+        });
     }
 
     public CarDTO createCar(Car car) {
@@ -73,7 +121,9 @@ public class CarService {
             car.getAccessories().forEach(accessory -> accessory.setCar(car));
         }
 
-        Car savedCar = carRepository.save(car);
+        Car savedCar = shardRouter.inShard(shardRouter.shardForLocation(car.getMainLocation()), () -> carRepository.save(car));
+        eventPublisher.publishEvent(CarChangedEvent.of(CarChangedEvent.Change.CREATED, savedCar));
+        cacheInvalidationBus.publish(CacheInvalidation.of(CacheInvalidation.CAR, savedCar.getId()));
         log.info("Car created successfully with ID: {}", savedCar.getId());
 
         return convertToDTO(savedCar);
@@ -82,13 +132,26 @@ public class CarService {
     public CarDTO updateCar(Long id, Car updatedCarData) {
         log.info("Updating car with ID: {}", id);
 
-        Car existingCar = carRepository.findById(id)
+        int shard = shardRouter.shardOf(id);
+        Car existingCar = shardRouter.inShard(shard, () -> carRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Car not found with id: " + id));
 
         validateCarData(updatedCarData);
+        if (shardRouter.shardForLocation(updatedCarData.getMainLocation()) != shard) {
+            // Its id, accessories, images and rentals all live on the current shard
+            throw new IllegalStateException("Car " + id + " cannot move to " + updatedCarData.getMainLocation()
+                    + ", which is stored on another shard; delete and re-create it instead");
+        }
+        CarChangedEvent before = CarChangedEvent.of(CarChangedEvent.Change.UPDATED, existingCar);
         updateCarFields(existingCar, updatedCarData);
 
         Car savedCar = carRepository.save(existingCar);
+        CarChangedEvent after = CarChangedEvent.of(CarChangedEvent.Change.UPDATED, savedCar);
+        // Only availability and price changes are streamed; compareTo so 100.0 and 100.00 count as equal
+        if (!sameAvailabilityAndPrices(before, after)) {
+            eventPublisher.publishEvent(after);
+        }
+        cacheInvalidationBus.publish(CacheInvalidation.of(CacheInvalidation.CAR, id));
         log.info("Car updated successfully with ID: {}", savedCar.getId());
 
         return convertToDTO(savedCar);
@@ -97,29 +160,39 @@ public class CarService {
     public void deleteCar(Long id) {
         log.info("Deleting car with ID: {}", id);
 
-        if (!carRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Car not found with id: " + id);
-        }
-
-        carRepository.deleteById(id);
+        shardRouter.runInShard(shardRouter.shardOf(id), () -> {
+            if (!carRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Car not found with id: " + id);
+            }
+            carRepository.deleteById(id);
+        });
+        eventPublisher.publishEvent(CarChangedEvent.deleted(id));
+        cacheInvalidationBus.publish(CacheInvalidation.of(CacheInvalidation.CAR, id));
         log.info("Car deleted successfully with ID: {}", id);
     }
 
     @Transactional(readOnly = true)
     public boolean existsById(Long id) {
-        return carRepository.existsById(id);
+        return shardRouter.inShard(shardRouter.shardOf(id), () -> carRepository.existsById(id));
     }
 
     @Transactional(readOnly = true)
-    public List<Car> findAvailableCars() {
-        log.info("Fetching available cars");
-        return carRepository.findByAvailableTrue();
+    public List<Map<String, Object>> findAvailableCars(String fields, String expand) {
+        log.info("Fetching available cars (fields {}, expand {})", fields, expand);
+        return findCarsOnAllShards(CarFilter.availableOnly(), fields, expand);
     }
 
     @Transactional(readOnly = true)
-    public List<Car> findCarsByLocation(String location) {
+    public List<Map<String, Object>> findCarsByLocation(String location, String fields, String expand) {
         log.info("Fetching cars by location: {}", location);
-        return carRepository.findByMainLocationContainingIgnoreCase(location);
+
+        // A prefix still range-scans idx_car_location and finds "Chennai Airport" for "Chennai", but those can live
+        // on any shard. The unindexed substring scan is only the fallback for searches that match no prefix.
+        List<Map<String, Object>> cars = findCarsOnAllShards(CarFilter.locationStartingWith(location.trim()), fields, expand);
+        if (!cars.isEmpty()) {
+            return cars;
+        }
+        return findCarsOnAllShards(CarFilter.locationContaining(location), fields, expand);
     }
 
     // NEW METHOD: Upload multiple images for a car
@@ -127,7 +200,7 @@ public class CarService {
         log.info("Uploading {} images for car ID: {}", files.size(), carId);
 
         // Validate car exists
-        Car car = carRepository.findById(carId)
+        Car car = shardRouter.inShard(shardRouter.shardOf(carId), () -> carRepository.findById(carId))
                 .orElseThrow(() -> new ResourceNotFoundException("Car not found with id: " + carId));
 
         List<String> uploadedUrls = new ArrayList<>();
@@ -140,7 +213,9 @@ public class CarService {
             }
 
             // Upload to S3
+            long uploadStarted = System.nanoTime();
             String imageUrl = s3Service.uploadFile(file);
+            metrics.recordUpload(file.getSize(), System.nanoTime() - uploadStarted);
 
             // Create CarImage entity
             CarImage carImage = new CarImage();
@@ -154,12 +229,13 @@ public class CarService {
             log.info("Image uploaded and saved for car ID: {} - URL: {}", carId, imageUrl);
         }
 
+        cacheInvalidationBus.publish(CacheInvalidation.of(CacheInvalidation.CAR, carId));
         log.info("Successfully uploaded {} images for car ID: {}", uploadedUrls.size(), carId);
         return uploadedUrls;
     }
 
-    // Private helper methods
-    private CarDTO convertToDTO(Car car) {
+    // Helper methods (package-private for the benchmarks module)
+    CarDTO convertToDTO(Car car) {
         try {
             CarDTO dto = new CarDTO();
             BeanUtils.copyProperties(car, dto);
@@ -194,26 +270,121 @@ public class CarService {
         }
     }
 
-    private Map<String, Object> convertToSimpleMap(Car car) {
-        Map<String, Object> carMap = new HashMap<>();
-        carMap.put("id", car.getId());
-        carMap.put("brand", car.getBrand());
-        carMap.put("model", car.getModel());
-        carMap.put("fuel", car.getFuel());
-        carMap.put("carType", car.getCarType());
-        carMap.put("plateNumber", car.getPlateNumber());
-        carMap.put("mainLocation", car.getMainLocation());
-        carMap.put("color", car.getColor());
-        carMap.put("transmission", car.getTransmission());
-        carMap.put("year", car.getYear());
-        carMap.put("passengers", car.getPassengers());
-        carMap.put("noOfAirBags", car.getNoOfAirBags());
-        carMap.put("description", car.getDescription());
-        carMap.put("dailyPrice", car.getDailyPrice());
-        carMap.put("weeklyPrice", car.getWeeklyPrice());
-        carMap.put("monthlyPrice", car.getMonthlyPrice());
-        carMap.put("available", car.isAvailable());
-        return carMap;
+    // Column positions follow CarFeedRepository.SELECT_CARS
+    private static void writeSimpleCar(JsonGenerator generator, ResultSet row) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.getLong(1));
+        generator.writeStringField("brand", row.getString(2));
+        generator.writeStringField("model", row.getString(3));
+        generator.writeStringField("fuel", row.getString(4));
+        generator.writeStringField("carType", row.getString(5));
+        generator.writeStringField("plateNumber", row.getString(6));
+        generator.writeStringField("mainLocation", row.getString(7));
+        generator.writeStringField("color", row.getString(8));
+        generator.writeStringField("transmission", row.getString(9));
+        writeIntegerField(generator, "year", row, 10);
+        writeIntegerField(generator, "passengers", row, 11);
+        writeIntegerField(generator, "noOfAirBags", row, 12);
+        generator.writeStringField("description", row.getString(13));
+        generator.writeNumberField("dailyPrice", row.getBigDecimal(14));
+        generator.writeNumberField("weeklyPrice", row.getBigDecimal(15));
+        generator.writeNumberField("monthlyPrice", row.getBigDecimal(16));
+        generator.writeBooleanField("available", row.getBoolean(17));
+        generator.writeEndObject();
+    }
+
+    private static void writeIntegerField(JsonGenerator generator, String name, ResultSet row, int column)
+            throws SQLException, IOException {
+        int value = row.getInt(column);
+        if (row.wasNull()) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    private List<Map<String, Object>> findCarsOnAllShards(CarFilter filter, String fields, String expand) {
+        List<List<Map<String, Object>>> perShard = shardRouter.scatterGather(shard -> findCars(filter, fields, expand));
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        List<Map<String, Object>> cars = new ArrayList<>();
+        perShard.forEach(cars::addAll);
+        return cars;
+    }
+
+    private List<Map<String, Object>> findCars(CarFilter filter, String fields, String expand) {
+        // "?fields=" is what a client sends for an unset parameter, so it means the same as leaving it out
+        String fieldList = fields == null || fields.isBlank() ? null : fields;
+        Collection<String> selected = parseNames(fieldList, FIELDS, "field", FIELDS);
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one of " + FIELDS);
+        }
+        // Explicit fields without expand means "just these columns"; no parameters at all keeps the full payload.
+        // An empty expand is an explicit "no expansions".
+        Collection<String> expansions = parseNames(expand, EXPANSIONS, "expansion", fieldList == null ? EXPANSIONS : List.of());
+
+        // The id is needed to attach expansions even when the caller didn't ask for it
+        boolean addId = !expansions.isEmpty() && !selected.contains("id");
+        List<String> attributes = new ArrayList<>(selected);
+        if (addId) {
+            attributes.add("id");
+        }
+
+        List<Map<String, Object>> cars = carRepository.findAttributes(attributes, filter);
+        if (cars.isEmpty() || expansions.isEmpty()) {
+            return cars;
+        }
+
+        List<Long> carIds = cars.stream().map(car -> (Long) car.get("id")).toList();
+        if (expansions.contains("accessories")) {
+            Map<Long, Set<String>> names = new HashMap<>();
+            for (AccessoryName accessory : accessoryRepository.findNamesByCarIdIn(carIds)) {
+                names.computeIfAbsent(accessory.getCarId(), id -> new LinkedHashSet<>()).add(accessory.getName());
+            }
+            cars.forEach(car -> car.put("accessories", names.getOrDefault((Long) car.get("id"), Set.of())));
+        }
+        if (expansions.contains("images")) {
+            Map<Long, Set<String>> urls = new HashMap<>();
+            for (CarImageUrl image : carImageRepository.findUrlsByCarIdIn(carIds)) {
+                urls.computeIfAbsent(image.getCarId(), id -> new LinkedHashSet<>()).add(image.getImageUrl());
+            }
+            cars.forEach(car -> car.put("imageUrls", urls.getOrDefault((Long) car.get("id"), Set.of())));
+        }
+
+        if (addId) {
+            cars.forEach(car -> car.remove("id"));
+        }
+        return cars;
+    }
+
+    private static boolean sameAvailabilityAndPrices(CarChangedEvent before, CarChangedEvent after) {
+        return Objects.equals(before.available(), after.available())
+                && samePrice(before.dailyPrice(), after.dailyPrice())
+                && samePrice(before.weeklyPrice(), after.weeklyPrice())
+                && samePrice(before.monthlyPrice(), after.monthlyPrice());
+    }
+
+    private static boolean samePrice(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    private static Collection<String> parseNames(String value, List<String> allowed, String kind, Collection<String> whenAbsent) {
+        if (value == null) {
+            return whenAbsent;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String part : value.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown " + kind + " '" + name + "', expected any of " + allowed);
+            }
+            names.add(name);
+        }
+        return names;
     }
 
     private void validateCarData(Car car) {
@@ -223,7 +394,7 @@ public class CarService {
         if (car.getModel() == null || car.getModel().trim().isEmpty()) {
             throw new IllegalArgumentException("Car model cannot be empty");
         }
-        if (car.getDailyPrice() != null && car.getDailyPrice().compareTo(java.math.BigDecimal.ZERO) < 0) {
+        if (car.getDailyPrice() != null && car.getDailyPrice().compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("Daily price cannot be negative");
         }
     }
@@ -1,25 +1,60 @@
 package com.example.rentalrequest.service;
 
+import com.example.rentalrequest.model.CacheInvalidation;
 import com.example.rentalrequest.model.User;
 import com.example.rentalrequest.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Loads users for login and for every JWT-authenticated request. Found users are cached for
+ * {@code app.security.user-cache-ttl-ms}; changes made on another node arrive through the
+ * {@link CacheInvalidationBus}, and the TTL only matters if one is lost. Past
+ * {@code app.security.user-cache-max-size} single entries are evicted, the least recently and least often used first.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, CacheInvalidationListener {
 
     private final UserRepository userRepository;
 
+    @Value("${app.security.user-cache-ttl-ms:300000}")
+    private long userCacheTtlMs;
+
+    @Value("${app.security.user-cache-max-size:1000}")
+    private int userCacheMaxSize;
+
+    private Cache<String, User> userCache;
+
+    @PostConstruct
+    void start() {
+        userCache = Caffeine.newBuilder()
+                .maximumSize(userCacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(Math.max(userCacheTtlMs, 0)))
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        User cached = userCache.getIfPresent(username);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+
         log.info("Loading user by username: {}", username);
 
         User user = userRepository.findByUsername(username)
@@ -28,9 +63,41 @@ public class CustomUserDetailsService implements UserDetailsService {
                     return new UsernameNotFoundException("User not found: " + username);
                 });
 
+        if (userCacheTtlMs > 0) {
+            userCache.put(username, copyOf(user));
+        }
+
         log.info("User loaded successfully: {} with authorities: {}", username, user.getAuthorities());
         return user;
     }
-}
 
+    public void evict(String username) {
+        userCache.invalidate(username);
+    }
+
+    @Override
+    public boolean supports(String region) {
+        return CacheInvalidation.USER.equals(region);
+    }
+
+    @Override
+    public void invalidate(String region, Collection<String> keys) {
+        if (keys == null) {
+            userCache.invalidateAll();
+        } else {
+            userCache.invalidateAll(keys);
+        }
+    }
 
+    @Override
+    public void invalidateAll() {
+        userCache.invalidateAll();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    // User is a mutable entity; callers get their own copy so nothing they do reaches the cache
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getUsername(), user.getPassword(), user.getRole());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local stand-in for customer e-mail notifications: logs what would be sent. The simulated latency makes it
+ * easy to check that a slow downstream never shows up in rental request latency.
+ */
+@Component
+@Slf4j
+public class CustomerNotificationHandler implements OutboxEventHandler {
+
+    @Value("${app.outbox.notification.simulated-latency-ms:0}")
+    private long simulatedLatencyMs;
+
+    @Override
+    public String getName() {
+        return "customer-notification";
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return eventType.startsWith("rental.");
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws InterruptedException {
+        if (simulatedLatencyMs > 0) {
+            Thread.sleep(simulatedLatencyMs);
+        }
+        log.info("Notify customer of {} for rental request {}: {}", event.getEventType(), event.getAggregateId(), event.getPayload());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.OutboxEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Feeds rental lifecycle events into the fleet aggregates.
+ */
+@Component
+@RequiredArgsConstructor
+public class FleetStatsHandler implements OutboxEventHandler {
+
+    static final String NAME = "fleet-stats";
+
+    private static final Set<String> EVENT_TYPES = Set.of("rental.created", "rental.approved", "rental.rejected", "rental.deleted",
+            "rental.updated");
+
+    private final FleetStatsService fleetStatsService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return EVENT_TYPES.contains(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        JsonNode payload = objectMapper.readTree(event.getPayload());
+        JsonNode stats = payload.get("stats");
+        if (stats == null || stats.isNull()) {
+            return;
+        }
+        JsonNode previous = payload.get("previousStats");
+        fleetStatsService.apply(event.getId(), event.getEventType(), objectMapper.treeToValue(stats, RentalStatsFacts.class),
+                previous == null || previous.isNull() ? null : objectMapper.treeToValue(previous, RentalStatsFacts.class));
+    }
+}
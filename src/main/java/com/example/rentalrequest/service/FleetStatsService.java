@@ -0,0 +1,290 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.OutboxEvent;
+import com.example.rentalrequest.repository.CarAttributeQueries.CarFilter;
+import com.example.rentalrequest.repository.CarRepository;
+import com.example.rentalrequest.repository.FleetStatsRepository;
+import com.example.rentalrequest.repository.FleetStatsRepository.FleetStatsRow;
+import com.example.rentalrequest.repository.FleetStatsRepository.ReconciledRange;
+import com.example.rentalrequest.repository.OutboxEventRepository;
+import com.example.rentalrequest.repository.RentalRequestRepository;
+import com.example.rentalrequest.repository.RentalRequestRepository.StatsSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fleet utilisation and revenue per day and car, kept in {@code fleet_daily_stats}. Lifecycle events add or
+ * subtract their contribution as they are delivered, so dashboards read a few pre-aggregated rows instead of
+ * scanning rental requests; a nightly reconciliation recomputes the closed days from the source tables and
+ * replaces whatever drifted. Creations and rejections count on their own day under car 0, approvals (with their
+ * booked days, revenue and approval latency) on the approval day under the approved car.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FleetStatsService {
+
+    static final String RECONCILE_LEASE = "fleet-stats-reconcile";
+
+    private static final long UNASSIGNED_CAR = 0;
+    private static final long MAX_RANGE_DAYS = 366;
+
+    private final FleetStatsRepository fleetStatsRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final RentalRequestRepository rentalRequestRepository;
+    private final CarRepository carRepository;
+    private final RentalRequestService rentalRequestService;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final PlatformTransactionManager transactionManager;
+    private final ShardRouter shardRouter;
+
+    @Value("${app.analytics.reconcile-days:7}")
+    private int reconcileDays;
+
+    @Value("${app.analytics.applied-event-retention-days:7}")
+    private int appliedEventRetentionDays;
+
+    @Transactional
+    public void apply(long eventId, String eventType, RentalStatsFacts facts) {
+        apply(eventId, eventType, facts, null);
+    }
+
+    /**
+     * Applies the contribution of one delivered lifecycle event; a redelivered event is ignored, and so is its
+     * contribution to days a reconciliation rebuilt while the event was still undelivered. An update swaps
+     * {@code previous}, what the request contributed before, for {@code facts}.
+     */
+    @Transactional
+    public void apply(long eventId, String eventType, RentalStatsFacts facts, RentalStatsFacts previous) {
+        // Waits for a running reconciliation, which may already have counted this event
+        fleetStatsRepository.lockAggregates(RECONCILE_LEASE);
+        Optional<ReconciledRange> fenced = Optional.empty();
+        if (!fleetStatsRepository.markApplied(eventId)) {
+            fenced = fleetStatsRepository.takeFence(eventId);
+            if (fenced.isEmpty()) {
+                log.debug("Fleet stats already include outbox event {}", eventId);
+                return;
+            }
+        }
+
+        List<FleetStatsRow> deltas = new ArrayList<>();
+        switch (eventType) {
+            case "rental.created" -> addCreated(deltas, facts);
+            case "rental.approved" -> addApproved(deltas, facts, locationOf(facts.carId()));
+            case "rental.rejected" -> addRejected(deltas, facts);
+            case "rental.deleted" -> withdraw(deltas, facts);
+            case "rental.updated" -> {
+                if (previous == null) {
+                    return;
+                }
+                withdraw(deltas, previous);
+                addCreated(deltas, facts);
+                addApproved(deltas, facts, locationOf(facts.carId()));
+                addRejected(deltas, facts);
+            }
+            default -> {
+                return;
+            }
+        }
+        fenced.ifPresent(range -> deltas.removeIf(row -> range.contains(row.statDate())));
+        if (!deltas.isEmpty()) {
+            fleetStatsRepository.applyDeltas(deltas);
+        }
+    }
+
+    /**
+     * Totals for {@code [from, to]} grouped by {@code day}, {@code car} or {@code location}. Rows not tied to a
+     * car (creations, rejections) have a null key when grouped by car or location.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getFleetStats(LocalDate from, LocalDate to, String groupBy) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1 || days > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must cover 1 to " + MAX_RANGE_DAYS + " days");
+        }
+        String column = switch (groupBy) {
+            case "day" -> "stat_date";
+            case "car" -> "car_id";
+            case "location" -> "location";
+            default -> throw new IllegalArgumentException("groupBy must be one of day, car, location");
+        };
+
+        List<Map<String, Object>> groups = new ArrayList<>();
+        for (Map<String, Object> row : fleetStatsRepository.sumByGroup(column, from, to)) {
+            Object key = row.get("group_key");
+            if ("car".equals(groupBy) && key instanceof Number carId && carId.longValue() == UNASSIGNED_CAR) {
+                key = null;
+            }
+            long bookedDays = asLong(row.get("booked_days"));
+            long latencyCount = asLong(row.get("approval_latency_count"));
+
+            Map<String, Object> group = new LinkedHashMap<>();
+            group.put(groupBy, key);
+            group.put("requestsCreated", asLong(row.get("requests_created")));
+            group.put("bookings", asLong(row.get("requests_approved")));
+            group.put("rejections", asLong(row.get("requests_rejected")));
+            group.put("bookedDays", bookedDays);
+            group.put("revenue", row.get("revenue") == null ? BigDecimal.ZERO : new BigDecimal(row.get("revenue").toString()));
+            group.put("avgApprovalLatencyMs", latencyCount == 0 ? null : asLong(row.get("approval_latency_ms")) / latencyCount);
+            if ("car".equals(groupBy) && key != null) {
+                group.put("utilization", BigDecimal.valueOf(bookedDays).divide(BigDecimal.valueOf(days), 4, RoundingMode.HALF_UP));
+            }
+            groups.add(group);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("from", from);
+        response.put("to", to);
+        response.put("groupBy", groupBy);
+        response.put("data", groups);
+        return response;
+    }
+
+    @Scheduled(cron = "${app.analytics.reconcile-cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        if (!schedulerLeaseService.tryAcquire(RECONCILE_LEASE, Duration.ofMinutes(30))) {
+            return;
+        }
+        // Closed days only: today's rows keep moving with every delivered event
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        reconcile(yesterday.minusDays(reconcileDays - 1L), yesterday);
+
+        int purged = new TransactionTemplate(transactionManager).execute(status ->
+                fleetStatsRepository.purgeAppliedBefore(LocalDateTime.now().minusDays(appliedEventRetentionDays)));
+        log.debug("Purged {} applied fleet stats event ids", purged);
+    }
+
+    /**
+     * Recomputes {@code [from, to]} from rental_request and car and replaces the stored rows. Everything happens
+     * under the lock {@link #apply} takes, so no event is applied between the read and the replace. Each shard's
+     * rental requests and its undelivered fleet events are read from one snapshot of its primary: those events
+     * are already part of the recomputed days, so they are fenced in the transaction that replaces the rows, and
+     * {@link #apply} later skips their deltas for these days.
+     */
+    public Map<String, Object> reconcile(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must cover 1 to " + MAX_RANGE_DAYS + " days");
+        }
+
+        Map<Long, String> locations = new HashMap<>();
+        List<StatsSource> sources = new ArrayList<>();
+        List<Long> undelivered = new ArrayList<>();
+        Map<String, FleetStatsRow> rows = new HashMap<>();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            fleetStatsRepository.lockAggregates(RECONCILE_LEASE);
+
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                ShardStatsSources read = shardRouter.readFromPrimary(shard, () -> new ShardStatsSources(
+                        outboxEventRepository.findIdsByHandlerAndStatus(FleetStatsHandler.NAME, OutboxEvent.Status.PENDING),
+                        carRepository.findAttributes(List.of("id", "mainLocation"), CarFilter.all()),
+                        rentalRequestRepository.findStatsSources(from.atStartOfDay(), to.plusDays(1).atStartOfDay())));
+                read.cars().forEach(car -> locations.put((Long) car.get("id"), (String) car.get("mainLocation")));
+                sources.addAll(read.sources());
+                undelivered.addAll(read.undelivered());
+            }
+
+            for (StatsSource source : sources) {
+                RentalStatsFacts facts = new RentalStatsFacts(source.getCreatedAt(), source.getApprovedAt(),
+                        source.getRejectedAt(), source.getCarId(),
+                        rentalRequestService.calculateRentalDays(source.getPickupDateTime(), source.getDropDateTime()),
+                        rentalRequestService.calculateTotalAmount(source.getPickupDateTime(), source.getDropDateTime()));
+
+                List<FleetStatsRow> contributed = new ArrayList<>();
+                addCreated(contributed, facts);
+                addApproved(contributed, facts, facts.carId() == null ? null : locations.get(facts.carId()));
+                addRejected(contributed, facts);
+                for (FleetStatsRow row : contributed) {
+                    if (!row.statDate().isBefore(from) && !row.statDate().isAfter(to)) {
+                        rows.merge(row.statDate() + "/" + row.carId(), row, FleetStatsRow::plus);
+                    }
+                }
+            }
+
+            if (!undelivered.isEmpty()) {
+                fleetStatsRepository.fence(undelivered, new ReconciledRange(from, to));
+            }
+            fleetStatsRepository.replaceDays(from, to, rows.values());
+        });
+        log.info("Reconciled fleet stats for {} to {}: {} rows from {} rental requests, {} undelivered events fenced",
+                from, to, rows.size(), sources.size(), undelivered.size());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("from", from);
+        result.put("to", to);
+        result.put("rows", rows.size());
+        result.put("rentalRequests", sources.size());
+        return result;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private static void addCreated(List<FleetStatsRow> rows, RentalStatsFacts facts) {
+        if (facts.createdAt() != null) {
+            rows.add(new FleetStatsRow(facts.createdAt().toLocalDate(), UNASSIGNED_CAR, null,
+                    1, 0, 0, 0, BigDecimal.ZERO, 0, 0));
+        }
+    }
+
+    private static void addApproved(List<FleetStatsRow> rows, RentalStatsFacts facts, String location) {
+        if (facts.approvedAt() == null || facts.carId() == null) {
+            return;
+        }
+        boolean timed = facts.createdAt() != null;
+        long latencyMs = timed ? Math.max(Duration.between(facts.createdAt(), facts.approvedAt()).toMillis(), 0) : 0;
+        rows.add(new FleetStatsRow(facts.approvedAt().toLocalDate(), facts.carId(), location,
+                0, 1, 0, facts.rentalDays(), facts.amount() == null ? BigDecimal.ZERO : facts.amount(),
+                latencyMs, timed ? 1 : 0));
+    }
+
+    // The negated approval rows carry no location: the upsert keeps the one already stored
+    private static void withdraw(List<FleetStatsRow> rows, RentalStatsFacts facts) {
+        List<FleetStatsRow> contributed = new ArrayList<>();
+        addCreated(contributed, facts);
+        addApproved(contributed, facts, null);
+        addRejected(contributed, facts);
+        contributed.forEach(row -> rows.add(row.negate()));
+    }
+
+    private static void addRejected(List<FleetStatsRow> rows, RentalStatsFacts facts) {
+        if (facts.rejectedAt() != null) {
+            rows.add(new FleetStatsRow(facts.rejectedAt().toLocalDate(), UNASSIGNED_CAR, null,
+                    0, 0, 1, 0, BigDecimal.ZERO, 0, 0));
+        }
+    }
+
+    private String locationOf(Long carId) {
+        if (carId == null) {
+            return null;
+        }
+        // The aggregates live on the home shard, the car on its own
+        return shardRouter.readFromShard(shardRouter.shardOf(carId),
+                () -> carRepository.findById(carId).map(car -> car.getMainLocation()).orElse(null));
+    }
+
+    private static long asLong(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    private record ShardStatsSources(List<Long> undelivered, List<Map<String, Object>> cars, List<StatsSource> sources) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.service.IdempotencyStore.StoredResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Executes a request at most once per {@code Idempotency-Key}. Completed responses are replayed from the
+ * {@link IdempotencyStore}; concurrent duplicates on this node wait for the single in-flight execution.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final long REMOTE_POLL_INTERVAL_MS = 100;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${app.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${app.idempotency.claim-lease:2m}")
+    private Duration claimLease;
+
+    @Value("${app.idempotency.in-flight-wait-ms:10000}")
+    private long inFlightWaitMs;
+
+    public ResponseEntity<Map<String, Object>> execute(String key, Object payload,
+                                                       Supplier<ResponseEntity<Map<String, Object>>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String fingerprint = fingerprint(payload);
+
+        Optional<StoredResponse> stored = idempotencyStore.find(key);
+        if (stored.isPresent() && stored.get().isCompleted()) {
+            log.debug("Replaying stored response for Idempotency-Key {}", key);
+            return replay(stored.get(), fingerprint);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            log.debug("Collapsing duplicate in-flight request for Idempotency-Key {}", key);
+            return replay(awaitLocal(running), fingerprint);
+        }
+
+        try {
+            // Another thread may have finished between the lookup above and registering as in flight
+            stored = idempotencyStore.find(key);
+            if (stored.isPresent() && stored.get().isCompleted()) {
+                mine.complete(stored.get());
+                return replay(stored.get(), fingerprint);
+            }
+
+            if (!idempotencyStore.claim(key, fingerprint, claimLease)) {
+                StoredResponse remote = awaitRemote(key);
+                mine.complete(remote);
+                return replay(remote, fingerprint);
+            }
+
+            ResponseEntity<Map<String, Object>> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                idempotencyStore.release(key);
+                throw e;
+            }
+
+            StoredResponse result = new StoredResponse(fingerprint, response.getStatusCode().value(), response.getBody());
+            if (response.getStatusCode().is2xxSuccessful()) {
+                idempotencyStore.complete(key, result, ttl);
+            } else {
+                idempotencyStore.release(key);
+            }
+            mine.complete(result);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private ResponseEntity<Map<String, Object>> replay(StoredResponse stored, String fingerprint) {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+        return ResponseEntity.status(stored.getStatusCode())
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.getBody());
+    }
+
+    private StoredResponse awaitLocal(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(inFlightWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("The original request with this Idempotency-Key failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private StoredResponse awaitRemote(String key) {
+        long deadline = System.currentTimeMillis() + inFlightWaitMs;
+        while (System.currentTimeMillis() < deadline) {
+            Optional<StoredResponse> stored = idempotencyStore.find(key);
+            if (stored.isEmpty()) {
+                throw new IllegalStateException("The original request with this Idempotency-Key did not complete; please retry");
+            }
+            if (stored.get().isCompleted()) {
+                return stored.get();
+            }
+            try {
+                Thread.sleep(REMOTE_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+    }
+
+    private String fingerprint(Object payload) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(payload);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request payload", e);
+        }
+    }
+}
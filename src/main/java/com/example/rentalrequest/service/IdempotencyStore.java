@@ -0,0 +1,43 @@
+package com.example.rentalrequest.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Remembers the response produced for an {@code Idempotency-Key} so retried submissions can be replayed.
+ */
+public interface IdempotencyStore {
+
+    Optional<StoredResponse> find(String key);
+
+    /**
+     * Reserves the key before the request is executed. Returns {@code false} when another request
+     * (possibly on another node) already holds it. The claim lapses after {@code lease}, so a node that dies
+     * mid-request only blocks the key briefly.
+     */
+    boolean claim(String key, String fingerprint, Duration lease);
+
+    /** Stores the response and keeps it for replay for {@code ttl}. */
+    void complete(String key, StoredResponse response, Duration ttl);
+
+    /** Drops a claim whose request failed, so the client can retry with the same key. */
+    void release(String key);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    class StoredResponse {
+        private String fingerprint;
+        private Integer statusCode; // null while the original request is still in flight
+        private Map<String, Object> body;
+
+        public boolean isCompleted() {
+            return statusCode != null;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.rentalrequest.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Bounded, TTL-evicting idempotency store for single-node deployments. Every entry shares the same TTL,
+ * so insertion order is also expiry order and eviction only ever looks at the head of the queue.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    @Value("${app.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.isExpired(System.currentTimeMillis())) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.response);
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint, Duration lease) {
+        // Concurrent duplicates on this node are already collapsed by IdempotencyService
+        return true;
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response, Duration ttl) {
+        Entry entry = new Entry(key, response, System.currentTimeMillis() + ttl.toMillis());
+        entries.put(key, entry);
+        insertionOrder.add(entry);
+
+        while (entries.size() > maxEntries) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            entries.remove(oldest.key, oldest);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        // Nothing is stored until a request completes successfully
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        Entry head;
+        while ((head = insertionOrder.peek()) != null && head.isExpired(now)) {
+            if (insertionOrder.remove(head)) {
+                entries.remove(head.key, head);
+                purged++;
+            }
+        }
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private record Entry(String key, StoredResponse response, long expiresAtMillis) {
+        boolean isExpired(long now) {
+            return expiresAtMillis <= now;
+        }
+    }
+}
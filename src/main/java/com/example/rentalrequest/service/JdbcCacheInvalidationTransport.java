@@ -0,0 +1,91 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.CacheInvalidation;
+import com.example.rentalrequest.repository.CacheInvalidationRepository;
+import com.example.rentalrequest.repository.CacheInvalidationRepository.ChangeLogRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Default transport: the {@code cache_invalidation} table, appended to by senders and polled by every node
+ * with an id cursor, so no broker is needed. Auto-increment ids are assigned at insert but become visible at
+ * commit, so a lower id can show up after a higher one was read. The cursor therefore only moves past rows
+ * older than {@code settle-ms}; newer rows are read again on the next poll and skipped if already returned.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "jdbc", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Value("${app.cache.invalidation.jdbc.settle-ms:5000}")
+    private long settleMs;
+
+    @Value("${app.cache.invalidation.jdbc.retention-minutes:60}")
+    private long retentionMinutes;
+
+    // Only touched under this object's monitor
+    private long cursor = -1;
+    private final Set<Long> returnedAboveCursor = new HashSet<>();
+
+    @Override
+    public String getName() {
+        return "jdbc";
+    }
+
+    @Override
+    public void send(String origin, Collection<CacheInvalidation> batch) {
+        cacheInvalidationRepository.append(origin, batch);
+    }
+
+    @Override
+    public synchronized List<Received> receive(int limit) {
+        if (cursor < 0) {
+            // Caches start empty, so nothing written before this node came up can be stale here
+            cursor = cacheInvalidationRepository.findMaxId();
+        }
+
+        List<Received> received = new ArrayList<>();
+        boolean settled = true;
+        for (ChangeLogRow row : cacheInvalidationRepository.findAfter(cursor, limit + returnedAboveCursor.size())) {
+            if (!returnedAboveCursor.contains(row.id())) {
+                if (received.size() == limit) {
+                    break;
+                }
+                received.add(new Received(new CacheInvalidation(row.region(), row.key()), row.origin(),
+                        Duration.between(row.createdAt(), row.dbNow())));
+            }
+
+            settled = settled && row.createdAt().isBefore(row.dbNow().minus(Duration.ofMillis(settleMs)));
+            if (settled) {
+                cursor = row.id();
+                returnedAboveCursor.remove(row.id());
+            } else {
+                returnedAboveCursor.add(row.id());
+            }
+        }
+        return received;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.jdbc.purge-interval-ms:600000}")
+    public void purge() {
+        int purged = cacheInvalidationRepository.deleteCreatedBefore(LocalDateTime.now().minusMinutes(retentionMinutes));
+        if (purged > 0) {
+            log.debug("Purged {} cache invalidation rows", purged);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.IdempotencyRecord;
+import com.example.rentalrequest.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Database-backed idempotency store for multi-node deployments. The primary key on the idempotency key
+ * makes {@link #claim} the cross-node lock: only one node can insert the in-flight row. The in-flight row
+ * only lives for the claim lease; {@link #complete} extends it to the replay TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "database")
+@RequiredArgsConstructor
+@Slf4j
+public class JpaIdempotencyStore implements IdempotencyStore {
+
+    private static final TypeReference<Map<String, Object>> BODY_TYPE = new TypeReference<>() { };
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        return idempotencyRecordRepository.findById(key)
+                .filter(record -> record.getExpiresAt().isAfter(LocalDateTime.now()))
+                .map(this::toStoredResponse);
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint, Duration lease) {
+        if (insert(key, fingerprint, lease)) {
+            return true;
+        }
+        // Held by a claim whose node went away, or by a response past its TTL: take it over. The delete only
+        // matches an expired row, so a live claim another node just made is left alone.
+        Integer cleared = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteIfExpired(key, LocalDateTime.now()));
+        return cleared != null && cleared > 0 && insert(key, fingerprint, lease);
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response, Duration ttl) {
+        transactionTemplate.executeWithoutResult(status -> {
+            IdempotencyRecord record = idempotencyRecordRepository.findById(key)
+                    .orElseGet(() -> new IdempotencyRecord(key, response.getFingerprint(), null, null, null));
+            record.setStatusCode(response.getStatusCode());
+            record.setResponseBody(writeBody(response.getBody()));
+            record.setExpiresAt(LocalDateTime.now().plus(ttl));
+            idempotencyRecordRepository.save(record);
+        });
+    }
+
+    @Override
+    public void release(String key) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.deleteById(key));
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        Integer purged = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            log.debug("Purged {} expired idempotency records", purged);
+        }
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private boolean insert(String key, String fingerprint, Duration lease) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(new IdempotencyRecord(key, fingerprint, null, null, LocalDateTime.now().plus(lease)));
+                entityManager.flush();
+            });
+            return true;
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            return false;
+        }
+    }
+
+    private StoredResponse toStoredResponse(IdempotencyRecord record) {
+        return new StoredResponse(record.getFingerprint(), record.getStatusCode(), readBody(record.getResponseBody()));
+    }
+
+    private String writeBody(Map<String, Object> body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent response", e);
+        }
+    }
+
+    private Map<String, Object> readBody(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, BODY_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored idempotent response", e);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.OutboxEvent;
+import com.example.rentalrequest.repository.OutboxEventRepository;
+import com.example.rentalrequest.repository.OutboxEventRepository.Backlog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers outbox events outside any request. Every handler drains its own events in its own loop on a virtual
+ * thread, so a slow downstream only delays itself: each round claims a batch of that handler's due events (row
+ * locks with SKIP LOCKED, then a lease via available_at so several nodes can run this safely), delivers them,
+ * and records the outcomes in one short transaction. The lease is renewed while a batch is still being worked
+ * through, so a slow handler does not see its events claimed again by another node. Failures back off
+ * exponentially with jitter and are dead-lettered after max attempts.
+ * <p>
+ * A handler sees the events of one aggregate in id order: only the oldest pending event of each (handler,
+ * aggregate) is claimable, so an event that fails keeps the later events of its rental waiting until it is
+ * delivered or dead-lettered, while other rentals carry on.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final int MAX_BATCHES_PER_RUN = 20;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ShardRouter shardRouter;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${app.outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Value("${app.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    private Map<String, OutboxEventHandler> handlersByName;
+    private ExecutorService deliveryExecutor;
+    private final Map<String, CompletableFuture<Void>> drains = new ConcurrentHashMap<>();
+    private final Map<String, Timer> lagTimers = new ConcurrentHashMap<>();
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private volatile long pendingCount;
+    private volatile long oldestPendingAgeMillis;
+
+    @PostConstruct
+    void start() {
+        handlersByName = handlers.stream().collect(Collectors.toMap(OutboxEventHandler::getName, Function.identity()));
+        deliveryExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("outbox-", 0).factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        deliveryExecutor.shutdown();
+    }
+
+    // Returns straight away; a handler still draining from an earlier poll is left to carry on
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        dispatchAll();
+    }
+
+    /**
+     * Starts a drain for every handler that is not already draining; completes once all of them have finished.
+     */
+    CompletableFuture<Void> dispatchAll() {
+        return CompletableFuture.allOf(handlersByName.keySet().stream()
+                .map(this::drain)
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Starts draining one handler's events on every shard unless it is still draining from before, in which
+     * case the running drain is returned.
+     */
+    CompletableFuture<Void> drain(String handlerName) {
+        return drains.compute(handlerName, (name, running) -> running != null && !running.isDone() ? running
+                // Events are written next to the rental they describe, so every shard has its own outbox
+                : CompletableFuture.runAsync(() -> shardRouter.forEachShardInTurn(shard -> drainShard(name)), deliveryExecutor)
+                        .exceptionally(e -> {
+                            log.warn("Outbox drain for {} failed, retrying on the next poll: {}", name, e.getMessage());
+                            return null;
+                        }));
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.backlog-refresh-ms:10000}")
+    public void refreshBacklog() {
+        long pending = 0;
+        LocalDateTime oldest = null;
+        for (Backlog backlog : shardRouter.scatterGather(shard -> outboxEventRepository.findBacklog(OutboxEvent.Status.PENDING))) {
+            pending += backlog.getCount();
+            LocalDateTime shardOldest = backlog.getOldestCreatedAt();
+            if (shardOldest != null && (oldest == null || shardOldest.isBefore(oldest))) {
+                oldest = shardOldest;
+            }
+        }
+        pendingCount = pending;
+        oldestPendingAgeMillis = oldest == null ? 0 : Math.max(Duration.between(oldest, LocalDateTime.now()).toMillis(), 0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval-ms:3600000}")
+    public void purgeDelivered() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        shardRouter.forEachShardInTurn(shard -> {
+            Integer purged = transactionTemplate.execute(status ->
+                    outboxEventRepository.deleteDeliveredBefore(OutboxEvent.Status.DELIVERED, before));
+            if (purged != null && purged > 0) {
+                log.debug("Purged {} delivered outbox events on shard {}", purged, shard);
+            }
+        });
+    }
+
+    public long getPendingCount() {
+        return pendingCount;
+    }
+
+    public long getOldestPendingAgeMillis() {
+        return oldestPendingAgeMillis;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("handlers", handlersByName.keySet());
+        stats.put("pending", pendingCount);
+        stats.put("oldestPendingAgeMillis", oldestPendingAgeMillis);
+        stats.put("delivered", delivered.sum());
+        stats.put("failedAttempts", failed.sum());
+        stats.put("deadLettered", deadLettered.sum());
+        return stats;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private void drainShard(String handlerName) {
+        for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+            List<OutboxEvent> batch = claim(handlerName);
+            if (batch.isEmpty()) {
+                return;
+            }
+            deliver(handlerName, batch);
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private List<OutboxEvent> claim(String handlerName) {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxEventRepository.lockDue(handlerName, now, batchSize);
+            if (!due.isEmpty()) {
+                outboxEventRepository.extendLease(due.stream().map(OutboxEvent::getId).toList(), now.plus(Duration.ofMillis(leaseMs)));
+            }
+            return due;
+        });
+        return batch == null ? List.of() : batch;
+    }
+
+    // A batch holds at most one event per aggregate, so a failure here never lets a later event of the same
+    // rental through ahead of it
+    private void deliver(String handlerName, List<OutboxEvent> batch) {
+        OutboxEventHandler handler = handlersByName.get(handlerName);
+        List<Long> deliveredIds = new ArrayList<>();
+        List<Failure> failures = new ArrayList<>();
+        long leaseRenewAt = System.currentTimeMillis() + leaseMs / 2;
+
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            if (System.currentTimeMillis() >= leaseRenewAt) {
+                // Settle what is done so far, then keep the rest of the batch hidden from other nodes
+                recordOutcomes(deliveredIds, failures);
+                renewLease(batch.subList(i, batch.size()));
+                leaseRenewAt = System.currentTimeMillis() + leaseMs / 2;
+            }
+            try {
+                handler.handle(event);
+                deliveredIds.add(event.getId());
+                delivered.increment();
+                lagTimer(handlerName).record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.add(new Failure(event, "Interrupted"));
+                break;
+            } catch (Exception e) {
+                failures.add(new Failure(event, e.getClass().getSimpleName() + ": " + e.getMessage()));
+            }
+        }
+        recordOutcomes(deliveredIds, failures);
+    }
+
+    private void recordOutcomes(List<Long> deliveredIds, List<Failure> failures) {
+        if (deliveredIds.isEmpty() && failures.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!deliveredIds.isEmpty()) {
+                outboxEventRepository.markDelivered(deliveredIds, OutboxEvent.Status.DELIVERED, now);
+            }
+            failures.forEach(failure -> recordFailure(failure.event(), failure.error(), now));
+        });
+        deliveredIds.clear();
+        failures.clear();
+    }
+
+    private void renewLease(List<OutboxEvent> remaining) {
+        LocalDateTime leaseEnd = LocalDateTime.now().plus(Duration.ofMillis(leaseMs));
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.extendLease(remaining.stream().map(OutboxEvent::getId).toList(), leaseEnd));
+    }
+
+    private void recordFailure(OutboxEvent event, String error, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        failed.increment();
+        String lastError = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+
+        if (attempts >= maxAttempts) {
+            deadLettered.increment();
+            log.error("Outbox event {} ({} for {}) dead-lettered after {} attempts: {}",
+                    event.getId(), event.getEventType(), event.getHandler(), attempts, lastError);
+            outboxEventRepository.markFailed(event.getId(), OutboxEvent.Status.DEAD, attempts, now, lastError);
+            return;
+        }
+
+        // Exponential backoff with +/-20% jitter so a recovering downstream isn't hit by every retry at once
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 30));
+        backoff = (long) (backoff * (0.8 + 0.4 * ThreadLocalRandom.current().nextDouble()));
+        log.warn("Outbox event {} ({} for {}) failed, attempt {} of {}, retrying in {} ms: {}",
+                event.getId(), event.getEventType(), event.getHandler(), attempts, maxAttempts, backoff, lastError);
+        outboxEventRepository.markFailed(event.getId(), OutboxEvent.Status.PENDING, attempts,
+                now.plus(Duration.ofMillis(backoff)), lastError);
+    }
+
+    private Timer lagTimer(String handlerName) {
+        return lagTimers.computeIfAbsent(handlerName, name -> Timer.builder("outbox.delivery.lag")
+                .description("Time from an outbox event being written to its successful delivery")
+                .tag("handler", name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofMinutes(30))
+                .register(meterRegistry));
+    }
+
+    private record Failure(OutboxEvent event, String error) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.OutboxEvent;
+
+/**
+ * A downstream consumer of outbox events (notifications, partner sync, ...). Every bean of this type gets its
+ * own copy of each event it {@link #supports supports}, so handlers are retried and dead-lettered independently.
+ * Delivery is at-least-once: {@link #handle} must tolerate seeing the same event id twice.
+ */
+public interface OutboxEventHandler {
+
+    /**
+     * Stable name stored with each event row; renaming a handler orphans its undelivered events.
+     */
+    String getName();
+
+    boolean supports(String eventType);
+
+    /**
+     * @throws Exception to have the event retried with backoff
+     */
+    void handle(OutboxEvent event) throws Exception;
+}
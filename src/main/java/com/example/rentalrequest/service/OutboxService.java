@@ -0,0 +1,50 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.OutboxEvent;
+import com.example.rentalrequest.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes outbox events as part of the caller's transaction, so an event exists exactly when the change it
+ * describes committed. Nothing is delivered here; see {@link OutboxDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    public static final String RENTAL_REQUEST = "rental_request";
+
+    private final OutboxEventRepository outboxEventRepository;
+    // Looked up per call: handlers may themselves depend on services that write outbox events
+    private final ObjectProvider<OutboxEventHandler> handlers;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise " + eventType + " event", e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>();
+        handlers.orderedStream()
+                .filter(handler -> handler.supports(eventType))
+                .forEach(handler -> events.add(new OutboxEvent(null, aggregateType, aggregateId, eventType,
+                        handler.getName(), json, OutboxEvent.Status.PENDING, 0, now, now, null, null)));
+        outboxEventRepository.saveAll(events);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Local stand-in for pushing confirmed bookings to a partner system: logs what would be sent. Off unless
+ * {@code app.outbox.partner-sync.enabled=true}; with a simulated latency it shows that a slow partner only
+ * holds back its own events, never the customer notifications.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.partner-sync.enabled", havingValue = "true")
+@Slf4j
+public class PartnerSyncHandler implements OutboxEventHandler {
+
+    static final String NAME = "partner-sync";
+
+    private static final Set<String> EVENT_TYPES = Set.of("rental.approved", "rental.completed", "rental.deleted");
+
+    @Value("${app.outbox.partner-sync.simulated-latency-ms:0}")
+    private long simulatedLatencyMs;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return EVENT_TYPES.contains(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws InterruptedException {
+        if (simulatedLatencyMs > 0) {
+            Thread.sleep(simulatedLatencyMs);
+        }
+        log.info("Sync {} for rental request {} to partner: {}", event.getEventType(), event.getAggregateId(), event.getPayload());
+    }
+}
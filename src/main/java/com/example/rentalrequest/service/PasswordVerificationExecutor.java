@@ -0,0 +1,124 @@
+package com.example.rentalrequest.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password verification (BCrypt) on a small dedicated pool with a bounded queue, so login bursts
+ * can never occupy the Tomcat threads that serve the catalog. When the queue is full the submission is
+ * rejected immediately instead of piling up. Queue wait and verification time are recorded as timers and
+ * rejections as a counter, so they show up on {@code /actuator/prometheus} next to the pool's own meters.
+ */
+@Component
+@Slf4j
+public class PasswordVerificationExecutor {
+
+    @Value("${app.auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${app.auth.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    private final Timer queueWait;
+    private final Timer verification;
+    private final Counter rejected;
+
+    public PasswordVerificationExecutor(MeterRegistry registry) {
+        queueWait = Timer.builder("auth.password.queue.wait")
+                .description("Time a login waited for a password verification thread")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+        verification = Timer.builder("auth.password.verification")
+                .description("Time to look up the user and check the password hash")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(registry);
+        rejected = Counter.builder("auth.password.rejected")
+                .description("Logins turned away with 503 because the verification queue was full")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        int poolSize = threads > 0 ? threads : Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        log.info("Password verification executor started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * @throws RejectedExecutionException when the verification queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    verification.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    // Read back from the timers; the maxima are Micrometer's, over its recent rolling window
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("completed", verification.count());
+        stats.put("rejected", (long) rejected.count());
+        stats.put("avgQueueWaitMillis", (long) queueWait.mean(TimeUnit.MILLISECONDS));
+        stats.put("maxQueueWaitMillis", (long) queueWait.max(TimeUnit.MILLISECONDS));
+        stats.put("avgVerificationMillis", (long) verification.mean(TimeUnit.MILLISECONDS));
+        stats.put("maxVerificationMillis", (long) verification.max(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+}
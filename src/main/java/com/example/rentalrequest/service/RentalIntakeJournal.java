@@ -0,0 +1,356 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.dto.RentalRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only, newline-delimited JSON journal of accepted rental requests.
+ * A checkpoint file records the byte offset up to which records are known to be in the database,
+ * so anything after it is replayed on the next start. The tracking ids of records not yet committed are kept
+ * in memory so a status lookup can tell a queued request from an unknown one. Records the database keeps
+ * refusing are copied to a dead-letter file before they are committed past, so they can be inspected and
+ * re-submitted by hand.
+ */
+@Slf4j
+public class RentalIntakeJournal implements AutoCloseable {
+
+    private static final String JOURNAL_FILE = "rental-intake.journal";
+    private static final String CHECKPOINT_FILE = "rental-intake.checkpoint";
+    private static final String DEAD_LETTER_FILE = "rental-intake.deadletter";
+
+    private final ObjectMapper objectMapper;
+    private final Path journalFile;
+    private final Path checkpointFile;
+    private final Path deadLetterFile;
+    private final boolean fsync;
+    private final long compactThresholdBytes;
+
+    private final FileChannel channel;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Object forceMonitor = new Object();
+
+    private volatile long writePosition;
+    private volatile long forcedPosition;
+    private volatile long committedOffset;
+
+    private final AtomicLong pendingCount = new AtomicLong();
+    private volatile LocalDateTime oldestPendingAcceptedAt;
+    private final Set<String> pendingTrackingIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> quarantinedTrackingIds = ConcurrentHashMap.newKeySet();
+
+    public RentalIntakeJournal(ObjectMapper objectMapper, Path directory, boolean fsync, long compactThresholdBytes) throws IOException {
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        this.compactThresholdBytes = compactThresholdBytes;
+
+        Files.createDirectories(directory);
+        this.journalFile = directory.resolve(JOURNAL_FILE);
+        this.checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        this.deadLetterFile = directory.resolve(DEAD_LETTER_FILE);
+        this.channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        recover();
+        loadDeadLetters();
+    }
+
+    public void append(IntakeRecord record) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(record);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put((byte) '\n').flip();
+
+        long end;
+        appendLock.lock();
+        try {
+            long position = writePosition;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            writePosition = position;
+            end = position;
+            pendingTrackingIds.add(record.getTrackingId());
+
+            if (pendingCount.getAndIncrement() == 0) {
+                oldestPendingAcceptedAt = record.getAcceptedAt();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+
+        if (fsync) {
+            // Group commit: one force covers every append written before it started
+            synchronized (forceMonitor) {
+                if (forcedPosition < end) {
+                    long target = writePosition;
+                    channel.force(false);
+                    forcedPosition = target;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads up to {@code maxEntries} records after the last checkpoint. Records that cannot be
+     * parsed are logged and skipped so a single corrupt line never blocks the drain.
+     */
+    public List<JournalEntry> readBatch(int maxEntries) throws IOException {
+        List<JournalEntry> batch = new ArrayList<>();
+        long position = committedOffset;
+        long end = writePosition;
+        if (position >= end) {
+            return batch;
+        }
+
+        FileChannel reader = FileChannel.open(journalFile, StandardOpenOption.READ).position(position);
+        try (InputStream in = new BufferedInputStream(Channels.newInputStream(reader), 64 * 1024)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+            int b;
+            while (batch.size() < maxEntries && position < end && (b = in.read()) != -1) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                IntakeRecord record = parse(line.toByteArray(), position);
+                batch.add(new JournalEntry(record, position));
+                line.reset();
+            }
+        }
+
+        if (!batch.isEmpty() && batch.get(0).getRecord() != null) {
+            oldestPendingAcceptedAt = batch.get(0).getRecord().getAcceptedAt();
+        }
+        return batch;
+    }
+
+    /**
+     * Marks every record up to the end of {@code batch} as persisted and compacts the journal once it is fully drained.
+     */
+    public void commit(List<JournalEntry> batch) throws IOException {
+        long offset = batch.get(batch.size() - 1).getEndOffset();
+        writeCheckpoint(offset);
+        committedOffset = offset;
+        for (JournalEntry entry : batch) {
+            if (entry.getRecord() != null) {
+                pendingTrackingIds.remove(entry.getRecord().getTrackingId());
+            }
+        }
+        if (pendingCount.addAndGet(-batch.size()) <= 0) {
+            oldestPendingAcceptedAt = null;
+        }
+
+        if (offset >= compactThresholdBytes && offset == writePosition) {
+            appendLock.lock();
+            try {
+                synchronized (forceMonitor) {
+                    if (committedOffset == writePosition) {
+                        channel.truncate(0);
+                        channel.force(true);
+                        writePosition = 0;
+                        forcedPosition = 0;
+                        committedOffset = 0;
+                        writeCheckpoint(0);
+                        log.debug("Compacted rental intake journal after draining {} bytes", offset);
+                    }
+                }
+            } finally {
+                appendLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Appends {@code record} to the dead-letter file. It stays pending until the batch holding it is committed.
+     */
+    public void quarantine(IntakeRecord record, String error) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(new DeadLetter(record, error, LocalDateTime.now()));
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put((byte) '\n').flip();
+
+        try (FileChannel out = FileChannel.open(deadLetterFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            if (fsync) {
+                out.force(false);
+            }
+        }
+        quarantinedTrackingIds.add(record.getTrackingId());
+    }
+
+    public boolean isQuarantined(String trackingId) {
+        return quarantinedTrackingIds.contains(trackingId);
+    }
+
+    public long getQuarantinedCount() {
+        return quarantinedTrackingIds.size();
+    }
+
+    public boolean isPending(String trackingId) {
+        return pendingTrackingIds.contains(trackingId);
+    }
+
+    public long getPendingCount() {
+        return Math.max(pendingCount.get(), 0);
+    }
+
+    public LocalDateTime getOldestPendingAcceptedAt() {
+        return oldestPendingAcceptedAt;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private void recover() throws IOException {
+        long size = channel.size();
+        long checkpoint = readCheckpoint();
+        if (checkpoint > size) {
+            // The journal was truncated after a full drain but the checkpoint was not rewritten yet
+            checkpoint = 0;
+        }
+
+        long position = checkpoint;
+        long lastCompleteLine = checkpoint;
+        long pending = 0;
+        LocalDateTime oldest = null;
+
+        FileChannel reader = FileChannel.open(journalFile, StandardOpenOption.READ).position(checkpoint);
+        try (InputStream in = new BufferedInputStream(Channels.newInputStream(reader), 64 * 1024)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                lastCompleteLine = position;
+                pending++;
+                IntakeRecord record = parse(line.toByteArray(), position);
+                if (record != null) {
+                    pendingTrackingIds.add(record.getTrackingId());
+                    if (oldest == null) {
+                        oldest = record.getAcceptedAt();
+                    }
+                }
+                line.reset();
+            }
+        }
+
+        if (lastCompleteLine < size) {
+            log.warn("Discarding {} bytes of a partially written rental intake record", size - lastCompleteLine);
+            channel.truncate(lastCompleteLine);
+        }
+
+        writePosition = lastCompleteLine;
+        forcedPosition = lastCompleteLine;
+        committedOffset = checkpoint;
+        pendingCount.set(pending);
+        oldestPendingAcceptedAt = oldest;
+
+        if (pending > 0) {
+            log.info("Rental intake journal has {} undrained requests to replay", pending);
+        }
+    }
+
+    private void loadDeadLetters() throws IOException {
+        if (!Files.exists(deadLetterFile)) {
+            return;
+        }
+        for (String line : Files.readAllLines(deadLetterFile, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                quarantinedTrackingIds.add(objectMapper.readValue(line, DeadLetter.class).getRecord().getTrackingId());
+            } catch (IOException e) {
+                log.warn("Skipping unreadable rental intake dead letter: {}", e.getMessage());
+            }
+        }
+        if (!quarantinedTrackingIds.isEmpty()) {
+            log.warn("Rental intake has {} quarantined requests in {}", quarantinedTrackingIds.size(), deadLetterFile);
+        }
+    }
+
+    private IntakeRecord parse(byte[] line, long endOffset) {
+        try {
+            return objectMapper.readValue(line, IntakeRecord.class);
+        } catch (IOException e) {
+            log.error("Skipping unreadable rental intake record ending at offset {}: {}", endOffset, e.getMessage());
+            return null;
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        String value = Files.readString(checkpointFile, StandardCharsets.UTF_8).trim();
+        return value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    private void writeCheckpoint(long offset) throws IOException {
+        Path temp = checkpointFile.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.wrap(Long.toString(offset).getBytes(StandardCharsets.UTF_8)));
+            if (fsync) {
+                out.force(true);
+            }
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IntakeRecord {
+        private String trackingId;
+        private LocalDateTime acceptedAt;
+        private RentalRequestDTO request;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeadLetter {
+        private IntakeRecord record;
+        private String error;
+        private LocalDateTime quarantinedAt;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class JournalEntry {
+        private IntakeRecord record; // null when the line could not be parsed
+        private long endOffset;
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.dto.RentalRequestDTO;
+import com.example.rentalrequest.exception.ResourceNotFoundException;
+import com.example.rentalrequest.model.RentalRequest;
+import com.example.rentalrequest.repository.RentalRequestRepository;
+import com.example.rentalrequest.service.RentalIntakeJournal.IntakeRecord;
+import com.example.rentalrequest.service.RentalIntakeJournal.JournalEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind intake for public rental submissions. In {@code journal} mode requests are validated,
+ * appended to a local journal and acknowledged immediately; a background drain moves them into the
+ * database in batched transactions and replays whatever was left over after a crash or DB outage.
+ * A batch the database refuses for any reason other than being unreachable is retried one record at a time;
+ * a record that still fails after {@code max-attempts} drains is moved to the journal's dead-letter file so
+ * the records behind it keep draining.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RentalIntakeService {
+
+    private static final int MAX_BATCHES_PER_DRAIN = 50;
+
+    private final RentalRequestService rentalRequestService;
+    private final RentalRequestRepository rentalRequestRepository;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+
+    @Value("${app.rentals.intake.mode:direct}")
+    private String mode;
+
+    @Value("${app.rentals.intake.journal-dir:data/intake}")
+    private String journalDir;
+
+    @Value("${app.rentals.intake.fsync:true}")
+    private boolean fsync;
+
+    @Value("${app.rentals.intake.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.rentals.intake.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    @Value("${app.rentals.intake.compact-threshold-bytes:67108864}")
+    private long compactThresholdBytes;
+
+    @Value("${app.rentals.intake.max-attempts:5}")
+    private int maxAttempts;
+
+    private RentalIntakeJournal journal;
+
+    private final LongAdder acceptedTotal = new LongAdder();
+    private final LongAdder drainedTotal = new LongAdder();
+    private final AtomicLong failedDrains = new AtomicLong();
+    private final Map<String, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private volatile double drainRatePerSecond;
+    private volatile long lastRateSampleNanos = System.nanoTime();
+    private volatile long nextAttemptAtMillis;
+    private volatile String lastError;
+
+    @PostConstruct
+    void openJournal() throws IOException {
+        if (!isJournalMode()) {
+            return;
+        }
+        journal = new RentalIntakeJournal(objectMapper, Path.of(journalDir), fsync, compactThresholdBytes);
+        log.info("Rental intake running in journal mode at {}", Path.of(journalDir).toAbsolutePath());
+    }
+
+    @PreDestroy
+    void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public boolean isJournalMode() {
+        return "journal".equalsIgnoreCase(mode);
+    }
+
+    public Map<String, Object> submit(RentalRequestDTO dto) {
+        log.info("Journaling rental request for customer: {}", dto.getCustomerName());
+
+        rentalRequestService.validateRentalRequestDTO(dto);
+
+        IntakeRecord record = new IntakeRecord(UUID.randomUUID().toString(), LocalDateTime.now(), dto);
+        try {
+            journal.append(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal rental request", e);
+        }
+        acceptedTotal.increment();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("trackingId", record.getTrackingId());
+        response.put("customerName", dto.getCustomerName());
+        response.put("status", "QUEUED");
+        response.put("rentalDays", rentalRequestService.calculateRentalDays(dto.getPickupDateTime(), dto.getDropDateTime()));
+        return response;
+    }
+
+    public Map<String, Object> getTrackingStatus(String trackingId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("trackingId", trackingId);
+
+        if (journal != null && journal.isQuarantined(trackingId)) {
+            response.put("status", "QUARANTINED");
+            response.put("requestId", null);
+            return response;
+        }
+
+        // The journal is asked first: a record only leaves it once its insert has committed, so an id missing
+        // from both was never accepted here
+        if (journal != null && journal.isPending(trackingId)) {
+            response.put("status", "QUEUED");
+            response.put("requestId", null);
+            return response;
+        }
+
+        // The tracking id doesn't say which location the request was for
+        RentalRequest persisted = shardRouter.scatterGather(shard -> rentalRequestRepository.findByTrackingId(trackingId))
+                .stream()
+                .flatMap(Optional::stream)
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("No rental request with tracking id: " + trackingId));
+        response.put("status", "PERSISTED");
+        response.put("requestId", persisted.getId());
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rentals.intake.drain-interval-ms:200}")
+    public void drain() {
+        if (journal == null || System.currentTimeMillis() < nextAttemptAtMillis) {
+            return;
+        }
+
+        int drained = 0;
+        try {
+            for (int i = 0; i < MAX_BATCHES_PER_DRAIN; i++) {
+                List<JournalEntry> batch = journal.readBatch(batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                try {
+                    persist(batch.stream()
+                            .map(JournalEntry::getRecord)
+                            .filter(Objects::nonNull)
+                            .filter(record -> !journal.isQuarantined(record.getTrackingId()))
+                            .toList());
+                } catch (RuntimeException e) {
+                    if (isTransient(e)) {
+                        throw e;
+                    }
+                    persistOneByOne(batch);
+                }
+
+                journal.commit(batch);
+                drained += batch.size();
+            }
+            lastError = null;
+        } catch (Exception e) {
+            failedDrains.incrementAndGet();
+            lastError = e.getMessage();
+            nextAttemptAtMillis = System.currentTimeMillis() + retryBackoffMs;
+            log.warn("Rental intake drain failed, retrying in {} ms: {}", retryBackoffMs, e.getMessage());
+        } finally {
+            drainedTotal.add(drained);
+            sampleDrainRate(drained);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", isJournalMode() ? "journal" : "direct");
+        stats.put("queueDepth", getQueueDepth());
+        stats.put("lagMillis", getLagMillis());
+        stats.put("acceptedTotal", acceptedTotal.sum());
+        stats.put("drainedTotal", drainedTotal.sum());
+        stats.put("drainRatePerSecond", Math.round(drainRatePerSecond * 100) / 100.0);
+        stats.put("failedDrains", failedDrains.get());
+        stats.put("quarantined", getQuarantinedCount());
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    public long getQueueDepth() {
+        return journal != null ? journal.getPendingCount() : 0;
+    }
+
+    public long getLagMillis() {
+        LocalDateTime oldest = journal != null ? journal.getOldestPendingAcceptedAt() : null;
+        return oldest == null ? 0 : Math.max(Duration.between(oldest, LocalDateTime.now()).toMillis(), 0);
+    }
+
+    public double getDrainRatePerSecond() {
+        return drainRatePerSecond;
+    }
+
+    public long getQuarantinedCount() {
+        return journal != null ? journal.getQuarantinedCount() : 0;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    // One transaction per shard; a replay after a partial failure skips what already committed
+    private void persist(List<IntakeRecord> records) {
+        Map<Integer, List<IntakeRecord>> recordsByShard = records.stream()
+                .collect(Collectors.groupingBy(record -> shardRouter.shardForRental(
+                        record.getRequest().getLocation(), record.getRequest().getCarId()),
+                        TreeMap::new, Collectors.toList()));
+        recordsByShard.forEach((shard, shardRecords) ->
+                shardRouter.runInShard(shard, () -> rentalRequestService.persistJournaledRequests(shardRecords)));
+    }
+
+    /**
+     * Finds the record that failed the batch. Everything ahead of it is committed; the record itself is
+     * quarantined once it has failed {@code maxAttempts} drains, otherwise the drain backs off and retries it.
+     */
+    private void persistOneByOne(List<JournalEntry> batch) throws IOException {
+        for (int i = 0; i < batch.size(); i++) {
+            IntakeRecord record = batch.get(i).getRecord();
+            if (record == null || journal.isQuarantined(record.getTrackingId())) {
+                continue;
+            }
+            try {
+                persist(List.of(record));
+                failedAttempts.remove(record.getTrackingId());
+            } catch (RuntimeException e) {
+                int attempts = isTransient(e) ? 0 : failedAttempts.merge(record.getTrackingId(), 1, Integer::sum);
+                if (attempts < maxAttempts) {
+                    if (i > 0) {
+                        journal.commit(batch.subList(0, i));
+                        drainedTotal.add(i);
+                    }
+                    throw e;
+                }
+                journal.quarantine(record, e.toString());
+                failedAttempts.remove(record.getTrackingId());
+                log.error("Quarantined rental intake record {} after {} failed attempts: {}",
+                        record.getTrackingId(), attempts, e.toString());
+            }
+        }
+    }
+
+    // The database being unreachable says nothing about the records, so it never counts towards quarantine
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void sampleDrainRate(int drained) {
+        long now = System.nanoTime();
+        double seconds = (now - lastRateSampleNanos) / 1_000_000_000.0;
+        lastRateSampleNanos = now;
+        if (seconds > 0) {
+            // Exponentially weighted so a single idle tick doesn't zero the reported rate
+            drainRatePerSecond = 0.8 * drainRatePerSecond + 0.2 * (drained / seconds);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.RentalStatus;
+import com.example.rentalrequest.repository.RentalRequestListingRepository;
+import com.example.rentalrequest.repository.RentalRequestListingRepository.RentalRequestRow;
+import com.example.rentalrequest.util.EncryptionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Admin listings of rental requests. Rows are read with the personal-data columns still encrypted and each
+ * one is decrypted only if the caller asked for it via {@code fields}; large pages decrypt in parallel.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class RentalListingService {
+
+    public static final List<String> FIELDS = List.of("id", "customerName", "phoneNumber", "email", "carModel",
+            "pickupDateTime", "dropDateTime", "status", "rejectionReason", "trackingId");
+
+    // The pending queue's index order: pickup_date_time, id
+    private static final Comparator<RentalRequestRow> PENDING_ORDER = Comparator
+            .comparing(RentalRequestRow::pickupDateTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(RentalRequestRow::id);
+
+    private final RentalRequestListingRepository listingRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final ShardRouter shardRouter;
+
+    @Value("${app.rentals.pending.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.rentals.pending.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${app.rentals.listing.parallel-decrypt-threshold:256}")
+    private int parallelDecryptThreshold;
+
+    public List<Map<String, Object>> getAllRequests(String fields) {
+        log.debug("Listing all rental requests (fields {})", fields);
+        return render(concat(shardRouter.scatterGather(shard -> listingRepository.findAll())), parseFields(fields));
+    }
+
+    /**
+     * One page of the pending queue, oldest pickup first. {@code cursor} is the {@code nextCursor} of the
+     * previous page (null for the first), so each page is an index range scan no matter how deep it is.
+     */
+    public Map<String, Object> getPendingRequests(String cursor, Integer size, String fields) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        log.debug("Fetching pending rental requests page (size {}, cursor {})", pageSize, cursor);
+
+        // One extra row tells us whether another page exists without a count query. Each shard returns its own
+        // next page after the cursor; the first pageSize + 1 of their merge are the global next page.
+        PendingCursor after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+        List<RentalRequestRow> rows = concat(shardRouter.scatterGather(shard -> after == null
+                ? listingRepository.findFirstPageByStatus(RentalStatus.PENDING, pageSize + 1)
+                : listingRepository.findPageByStatusAfter(RentalStatus.PENDING, after.pickup(), after.id(), pageSize + 1)));
+        if (shardRouter.getShardCount() > 1) {
+            rows = rows.stream().sorted(PENDING_ORDER).limit(pageSize + 1L).toList();
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<RentalRequestRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("data", render(page, parseFields(fields)));
+        response.put("size", page.size());
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", hasMore ? encodeCursor(page.get(page.size() - 1)) : null);
+        return response;
+    }
+
+    /**
+     * Requests whose customer name equals {@code customerName} (surrounding whitespace ignored, as on submit).
+     */
+    public List<Map<String, Object>> getRequestsByCustomerName(String customerName, String fields) {
+        log.debug("Fetching rental requests for customer: {}", customerName);
+        String encrypted = encryptionUtil.encrypt(customerName.trim());
+        return render(concat(shardRouter.scatterGather(shard -> listingRepository.findByEncryptedCustomerName(encrypted))),
+                parseFields(fields));
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    // Shards return their rows in id order and ids ascend from shard to shard, so concatenation keeps id order
+    private static List<RentalRequestRow> concat(List<List<RentalRequestRow>> perShard) {
+        if (perShard.size() == 1) {
+            return perShard.get(0);
+        }
+        List<RentalRequestRow> rows = new ArrayList<>();
+        perShard.forEach(rows::addAll);
+        return rows;
+    }
+
+    private Collection<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return FIELDS;
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected any of " + FIELDS);
+            }
+            requested.add(name);
+        }
+        return requested;
+    }
+
+    private List<Map<String, Object>> render(List<RentalRequestRow> rows, Collection<String> fields) {
+        boolean decrypts = fields.contains("customerName") || fields.contains("phoneNumber") || fields.contains("email");
+
+        // AES work is CPU bound; only large pages are worth the fork/join overhead
+        if (decrypts && rows.size() >= parallelDecryptThreshold) {
+            return rows.parallelStream().map(row -> render(row, fields)).toList();
+        }
+        return rows.stream().map(row -> render(row, fields)).toList();
+    }
+
+    private Map<String, Object> render(RentalRequestRow row, Collection<String> fields) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String field : fields) {
+            switch (field) {
+                case "id" -> map.put("id", row.id());
+                case "customerName" -> map.put("customerName", encryptionUtil.decrypt(row.encryptedCustomerName()));
+                case "phoneNumber" -> map.put("phoneNumber", encryptionUtil.decrypt(row.encryptedPhoneNumber()));
+                case "email" -> map.put("email", encryptionUtil.decrypt(row.encryptedEmail()));
+                case "carModel" -> map.put("carModel", row.carModel());
+                case "pickupDateTime" -> map.put("pickupDateTime", row.pickupDateTime());
+                case "dropDateTime" -> map.put("dropDateTime", row.dropDateTime());
+                case "status" -> map.put("status", row.status());
+                case "rejectionReason" -> map.put("rejectionReason", row.rejectionReason());
+                case "trackingId" -> map.put("trackingId", row.trackingId());
+                default -> throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        return map;
+    }
+
+    // "<pickup>|<id>", with an empty pickup for requests that have none
+    private static String encodeCursor(RentalRequestRow last) {
+        String raw = (last.pickupDateTime() == null ? "" : last.pickupDateTime().toString()) + "|" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PendingCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String pickup = raw.substring(0, separator);
+            return new PendingCursor(pickup.isEmpty() ? null : LocalDateTime.parse(pickup), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            // Whatever is wrong with it, a cursor is client input
+            throw new IllegalArgumentException("Invalid pending queue cursor");
+        }
+    }
+
+    // pickup is null when the last row of the previous page had no pickup time
+    private record PendingCursor(LocalDateTime pickup, long id) {
+    }
+}
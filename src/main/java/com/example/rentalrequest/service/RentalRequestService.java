@@ -1,21 +1,33 @@
 package com.example.rentalrequest.service;
 
+import com.example.rentalrequest.config.ApplicationMetrics;
 import com.example.rentalrequest.dto.RentalRequestDTO;
+import com.example.rentalrequest.model.CacheInvalidation;
 import com.example.rentalrequest.model.RentalRequest;
 import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.model.RentalStatus;
 import com.example.rentalrequest.repository.RentalRequestRepository;
 import com.example.rentalrequest.repository.CarRepository;
 import com.example.rentalrequest.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.math.BigDecimal;
 
 @Service
@@ -26,17 +38,23 @@ public class RentalRequestService {
 
     private final RentalRequestRepository rentalRequestRepository;
     private final CarRepository carRepository;
+    private final ApplicationMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final AccessoryInventoryService accessoryInventoryService;
 
-    @Transactional(readOnly = true)
-    public List<RentalRequest> getAllRequests() {
-        log.debug("Fetching all rental requests");
-        return rentalRequestRepository.findAll();
-    }
+    @Value("${app.rentals.status-counts.ttl-ms:2000}")
+    private long statusCountsTtlMs;
+
+    private volatile Map<RentalStatus, Long> statusCounts;
+    private volatile long statusCountsExpireAt;
 
     @Transactional(readOnly = true)
     public RentalRequest getRequestById(Long id) {
         log.debug("Fetching rental request with ID: {}", id);
-        return rentalRequestRepository.findById(id)
+        return shardRouter.inShard(shardRouter.shardOf(id), () -> rentalRequestRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Rental request not found with id: " + id));
     }
 
@@ -46,7 +64,11 @@ public class RentalRequestService {
         validateRentalRequestDTO(dto);
 
         RentalRequest rental = buildRentalRequestFromDTO(dto);
-        RentalRequest savedRequest = rentalRequestRepository.save(rental);
+        RentalRequest savedRequest = shardRouter.inShard(shardRouter.shardForRental(dto.getLocation(), dto.getCarId()),
+                () -> rentalRequestRepository.save(rental));
+        accessoryInventoryService.requestAccessories(savedRequest, dto.getAccessories(), false);
+        recordLifecycleEvent(savedRequest, "rental.created", null);
+        metrics.rentalsCreated(false, 1);
 
         log.info("Rental request created successfully with ID: {}", savedRequest.getId());
 
@@ -56,20 +78,92 @@ public class RentalRequestService {
         Map<String, Object> response = new HashMap<>();
         response.put("id", savedRequest.getId());
         response.put("customerName", savedRequest.getCustomerName());
-        response.put("status", "Pending Admin Approval");
+        response.put("status", savedRequest.getStatus());
         response.put("rentalDays", rentalDays);
         response.put("totalAmount", calculateTotalAmount(savedRequest));
 
         return response;
     }
 
+    /**
+     * Inserts a batch of journaled requests. All of them must belong to the shard the caller selected.
+     */
+    public int persistJournaledRequests(List<RentalIntakeJournal.IntakeRecord> records) {
+        Set<String> trackingIds = records.stream()
+                .map(RentalIntakeJournal.IntakeRecord::getTrackingId)
+                .collect(Collectors.toSet());
+
+        // Records replayed after a crash between the insert and the journal checkpoint are already here
+        Set<String> alreadyPersisted = new HashSet<>(rentalRequestRepository.findTrackingIdsIn(trackingIds));
+
+        List<RentalRequest> batch = new ArrayList<>();
+        List<RentalRequestDTO> requested = new ArrayList<>();
+        for (RentalIntakeJournal.IntakeRecord record : records) {
+            if (alreadyPersisted.contains(record.getTrackingId())) {
+                continue;
+            }
+            RentalRequest rental = buildRentalRequestFromDTO(record.getRequest());
+            rental.setTrackingId(record.getTrackingId());
+            rental.setCreatedAt(record.getAcceptedAt());
+            batch.add(rental);
+            requested.add(record.getRequest());
+        }
+
+        rentalRequestRepository.saveAll(batch);
+        // Accepted with a 202 already, so a stock removed since then only costs the accessory, not the request
+        for (int i = 0; i < batch.size(); i++) {
+            accessoryInventoryService.requestAccessories(batch.get(i), requested.get(i).getAccessories(), true);
+        }
+        batch.forEach(rental -> recordLifecycleEvent(rental, "rental.created", null));
+        metrics.rentalsCreated(true, batch.size());
+        log.info("Persisted {} journaled rental requests ({} already present)", batch.size(), alreadyPersisted.size());
+
+        return batch.size();
+    }
+
     public RentalRequest updateRentalRequest(Long id, RentalRequest updatedRequest) {
         log.info("Updating rental request with ID: {}", id);
 
         RentalRequest existingRequest = getRequestById(id);
+        RentalStatus oldStatus = existingRequest.getStatus();
+        RentalStatsFacts statsBefore = statsFacts(existingRequest);
         updateRentalRequestFields(existingRequest, updatedRequest);
 
+        // Approvals and rejections of a pending request take the same path as their endpoints
+        RentalStatus newStatus = updatedRequest.getStatus();
+        if (newStatus == RentalStatus.APPROVED && oldStatus != RentalStatus.APPROVED) {
+            // The car is taken and its release scheduled from approvedAt
+            if (updatedRequest.getCarId() == null) {
+                throw new IllegalArgumentException("A carId is required to approve rental request " + id);
+            }
+            return approveRequest(id, updatedRequest.getCarId());
+        }
+        if (newStatus == RentalStatus.REJECTED && oldStatus == RentalStatus.PENDING) {
+            return rejectRequest(id, existingRequest.getRejectionReason());
+        }
+        if (newStatus != null && newStatus != oldStatus) {
+            if (holdsCar(existingRequest)) {
+                returnCarToService(existingRequest);
+                existingRequest.setCarReleasedAt(LocalDateTime.now());
+            }
+            // Only the current status counts towards the fleet aggregates
+            if (oldStatus == RentalStatus.APPROVED) {
+                existingRequest.setApprovedAt(null);
+            } else if (oldStatus == RentalStatus.REJECTED) {
+                existingRequest.setRejectedAt(null);
+            }
+            if (newStatus == RentalStatus.REJECTED) {
+                existingRequest.setRejectedAt(LocalDateTime.now());
+            }
+            existingRequest.setStatus(newStatus);
+        }
+        accessoryInventoryService.syncWithRequest(existingRequest);
+
         RentalRequest savedRequest = rentalRequestRepository.save(existingRequest);
+        if (!statsFacts(savedRequest).equals(statsBefore)) {
+            // Carries what the request contributed before, so the aggregates can swap it for the new facts
+            recordLifecycleEvent(savedRequest, "rental.updated", Map.of("previousStats", statsBefore));
+        }
         log.info("Rental request updated successfully with ID: {}", savedRequest.getId());
 
         return savedRequest;
@@ -78,30 +172,53 @@ public class RentalRequestService {
     public void deleteRentalRequest(Long id) {
         log.info("Deleting rental request with ID: {}", id);
 
-        if (!rentalRequestRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Rental request not found with id: " + id);
+        RentalRequest request = getRequestById(id);
+        if (holdsCar(request)) {
+            // Nothing is left for the release timer to find, so the car goes back now
+            returnCarToService(request);
         }
 
-        rentalRequestRepository.deleteById(id);
+        accessoryInventoryService.removeForRequest(request);
+        rentalRequestRepository.delete(request);
+        // Carries the request's last state so downstream aggregates can subtract what it contributed
+        recordLifecycleEvent(request, "rental.deleted", null);
         log.info("Rental request deleted successfully with ID: {}", id);
     }
 
+    /**
+     * Request counts per status for dashboard badges, recomputed at most once per
+     * {@code app.rentals.status-counts.ttl-ms} however often it is polled.
+     */
     @Transactional(readOnly = true)
-    public List<RentalRequest> getRequestsByCustomerName(String customerName) {
-        log.debug("Fetching rental requests for customer: {}", customerName);
-        return rentalRequestRepository.findByCustomerNameContainingIgnoreCase(customerName);
-    }
+    public Map<RentalStatus, Long> getStatusCounts() {
+        Map<RentalStatus, Long> counts = statusCounts;
+        if (counts != null && System.currentTimeMillis() < statusCountsExpireAt) {
+            return counts;
+        }
 
-    @Transactional(readOnly = true)
-    public List<RentalRequest> getPendingRequests() {
-        log.debug("Fetching pending rental requests");
-        return rentalRequestRepository.findByStatus("PENDING");
+        counts = new EnumMap<>(RentalStatus.class);
+        for (RentalStatus status : RentalStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (List<Object[]> rows : shardRouter.scatterGather(shard -> rentalRequestRepository.countByStatus())) {
+            for (Object[] row : rows) {
+                counts.merge((RentalStatus) row[0], (Long) row[1], Long::sum);
+            }
+        }
+
+        statusCounts = counts;
+        statusCountsExpireAt = System.currentTimeMillis() + statusCountsTtlMs;
+        return counts;
     }
 
     public RentalRequest approveRequest(Long id, Long carId) {
         log.info("Approving rental request ID: {} with car ID: {}", id, carId);
 
         RentalRequest request = getRequestById(id);
+        requirePending(request);
+        if (shardRouter.shardOf(carId) != shardRouter.shardOf(id)) {
+            throw new IllegalStateException("Car " + carId + " is stored with another location's fleet than rental request " + id);
+        }
         Car car = validateAndGetAvailableCar(carId);
 
         // Preserve all original customer data - only update status and car assignment
@@ -117,29 +234,70 @@ public class RentalRequestService {
         }
 
         // Update status
-        request.setStatus("APPROVED");
+        request.setStatus(RentalStatus.APPROVED);
+        request.setCarId(car.getId());
+        request.setApprovedAt(LocalDateTime.now());
+        request.setCarReleasedAt(null);
+        // Reserves the requested accessories; if any is short the whole approval rolls back
+        accessoryInventoryService.syncWithRequest(request);
 
         // Mark car as unavailable
         car.setAvailable(false);
         carRepository.save(car);
+        eventPublisher.publishEvent(CarChangedEvent.of(CarChangedEvent.Change.UPDATED, car));
+        cacheInvalidationBus.publish(CacheInvalidation.of(CacheInvalidation.CAR, carId));
 
         RentalRequest savedRequest = rentalRequestRepository.save(request);
+        recordLifecycleEvent(savedRequest, "rental.approved", Map.of("carId", carId));
+        metrics.rentalApproved();
         log.info("Rental request {} approved successfully for customer: {}",
                 id, savedRequest.getCustomerName());
 
         return savedRequest;
     }
 
+    /**
+     * Puts the car of an approved rental back into service once its drop-off time plus {@code buffer} has passed.
+     *
+     * @return the new release time if the drop-off was moved later since the release was scheduled
+     */
+    public Optional<LocalDateTime> releaseCar(Long requestId, Duration buffer) {
+        RentalRequest request = shardRouter.inShard(shardRouter.shardOf(requestId),
+                () -> rentalRequestRepository.findById(requestId)).orElse(null);
+        if (request == null || request.getStatus() != RentalStatus.APPROVED
+                || request.getCarId() == null || request.getCarReleasedAt() != null) {
+            return Optional.empty();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (request.getDropDateTime() != null && request.getDropDateTime().plus(buffer).isAfter(now)) {
+            return Optional.of(request.getDropDateTime().plus(buffer));
+        }
+
+        returnCarToService(request);
+        request.setCarReleasedAt(now);
+        accessoryInventoryService.syncWithRequest(request);
+        rentalRequestRepository.save(request);
+        recordLifecycleEvent(request, "rental.completed", Map.of("carId", request.getCarId()));
+        log.info("Released car {} after rental request {} ended", request.getCarId(), requestId);
+        return Optional.empty();
+    }
+
     public RentalRequest rejectRequest(Long id, String reason) {
         log.info("Rejecting rental request ID: {} with reason: {}", id, reason);
 
         RentalRequest request = getRequestById(id);
+        requirePending(request);
 
         // Preserve all original data - only update status and rejection details
-        request.setStatus("REJECTED");
+        request.setStatus(RentalStatus.REJECTED);
         request.setRejectionReason(reason);
+        request.setRejectedAt(LocalDateTime.now());
+        accessoryInventoryService.syncWithRequest(request);
 
         RentalRequest savedRequest = rentalRequestRepository.save(request);
+        recordLifecycleEvent(savedRequest, "rental.rejected", reason == null ? null : Map.of("reason", reason));
+        metrics.rentalRejected();
         log.info("Rental request {} rejected for customer: {}", id, savedRequest.getCustomerName());
 
         return savedRequest;
@@ -147,7 +305,7 @@ public class RentalRequestService {
 
     // --------------------- Private helpers ---------------------
 
-    private void validateRentalRequestDTO(RentalRequestDTO dto) {
+    void validateRentalRequestDTO(RentalRequestDTO dto) {
         if (dto.getCustomerName() == null || dto.getCustomerName().trim().isEmpty()) {
             throw new IllegalArgumentException("Customer name cannot be empty");
         }
@@ -179,6 +337,68 @@ public class RentalRequestService {
         if (dto.getPickupDateTime().isBefore(LocalDateTime.now())) {
             throw new IllegalArgumentException("Pickup date cannot be in the past");
         }
+
+        // Rejects requests that could not be placed next to their car, before anything is journaled
+        shardRouter.shardForRental(dto.getLocation(), dto.getCarId());
+
+        if (dto.getAccessories() != null && !dto.getAccessories().isEmpty()) {
+            if (dto.getLocation() == null || dto.getLocation().isBlank()) {
+                throw new IllegalArgumentException("Location is required to rent accessories");
+            }
+            dto.getAccessories().forEach((name, units) -> {
+                if (name == null || name.isBlank()) {
+                    throw new IllegalArgumentException("Accessory name cannot be empty");
+                }
+                if (units == null || units < 1) {
+                    throw new IllegalArgumentException("At least one " + name + " must be requested");
+                }
+            });
+        }
+    }
+
+    private static boolean holdsCar(RentalRequest request) {
+        return request.getStatus() == RentalStatus.APPROVED && request.getCarId() != null && request.getCarReleasedAt() == null;
+    }
+
+    private void returnCarToService(RentalRequest request) {
+        // If the car was freed by hand and already approved for someone else, it stays out of service
+        boolean reassigned = rentalRequestRepository.existsByCarIdAndStatusAndCarReleasedAtIsNullAndIdNot(
+                request.getCarId(), RentalStatus.APPROVED, request.getId());
+        if (reassigned) {
+            return;
+        }
+        carRepository.findById(request.getCarId())
+                .filter(car -> !car.isAvailable())
+                .ifPresent(car -> {
+                    car.setAvailable(true);
+                    carRepository.save(car);
+                    eventPublisher.publishEvent(CarChangedEvent.of(CarChangedEvent.Change.UPDATED, car));
+                    cacheInvalidationBus.publish(CacheInvalidation.of(CacheInvalidation.CAR, car.getId()));
+                });
+    }
+
+    private void requirePending(RentalRequest request) {
+        if (request.getStatus() != RentalStatus.PENDING) {
+            throw new IllegalStateException("Rental request " + request.getId() + " is already " + request.getStatus());
+        }
+    }
+
+    // Payloads carry ids only; handlers that need personal data load and decrypt it themselves
+    private void recordLifecycleEvent(RentalRequest request, String eventType, Map<String, Object> details) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("requestId", request.getId());
+        payload.put("status", request.getStatus());
+        payload.put("trackingId", request.getTrackingId());
+        payload.put("stats", statsFacts(request));
+        if (details != null) {
+            payload.putAll(details);
+        }
+        outboxService.record(OutboxService.RENTAL_REQUEST, request.getId(), eventType, payload);
+    }
+
+    private RentalStatsFacts statsFacts(RentalRequest request) {
+        return RentalStatsFacts.of(request,
+                calculateRentalDays(request.getPickupDateTime(), request.getDropDateTime()), calculateTotalAmount(request));
     }
 
     private Car validateAndGetAvailableCar(Long carId) {
@@ -198,9 +418,11 @@ public class RentalRequestService {
         rental.setPhoneNumber(dto.getPhoneNumber().trim());
         rental.setEmail(dto.getEmail().trim().toLowerCase()); // Normalize email
         rental.setCarModel(dto.getCarModel() != null ? dto.getCarModel().trim() : null);
+        rental.setLocation(dto.getLocation() != null && !dto.getLocation().isBlank() ? dto.getLocation().trim() : null);
         rental.setPickupDateTime(dto.getPickupDateTime());
         rental.setDropDateTime(dto.getDropDateTime());
-        rental.setStatus("PENDING");
+        rental.setStatus(RentalStatus.PENDING);
+        rental.setCreatedAt(LocalDateTime.now());
         return rental;
     }
 
@@ -223,26 +445,27 @@ public class RentalRequestService {
         if (updated.getDropDateTime() != null) {
             existing.setDropDateTime(updated.getDropDateTime());
         }
-        if (updated.getStatus() != null) {
-            existing.setStatus(updated.getStatus());
-        }
         if (updated.getRejectionReason() != null) {
             existing.setRejectionReason(updated.getRejectionReason());
         }
     }
 
-    private int calculateRentalDays(LocalDateTime pickup, LocalDateTime drop) {
+    int calculateRentalDays(LocalDateTime pickup, LocalDateTime drop) {
         if (pickup == null || drop == null) return 0;
         int days = (int) ChronoUnit.DAYS.between(pickup, drop);
         return Math.max(days, 1); // Minimum 1 day
     }
 
-    private BigDecimal calculateTotalAmount(RentalRequest request) {
-        if (request.getPickupDateTime() == null || request.getDropDateTime() == null) {
+    BigDecimal calculateTotalAmount(RentalRequest request) {
+        return calculateTotalAmount(request.getPickupDateTime(), request.getDropDateTime());
+    }
+
+    BigDecimal calculateTotalAmount(LocalDateTime pickup, LocalDateTime drop) {
+        if (pickup == null || drop == null) {
             return BigDecimal.ZERO;
         }
 
-        int days = calculateRentalDays(request.getPickupDateTime(), request.getDropDateTime());
+        int days = calculateRentalDays(pickup, drop);
 
         // TODO: Implement dynamic pricing based on car type/model
         BigDecimal dailyRate = BigDecimal.valueOf(100);
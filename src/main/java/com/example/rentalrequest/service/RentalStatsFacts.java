@@ -0,0 +1,19 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.RentalRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The non-personal facts about a rental that the fleet aggregates are built from. Carried in every lifecycle
+ * outbox event so the aggregates can be updated (or, for a delete, reverted) without reading the request again.
+ */
+public record RentalStatsFacts(LocalDateTime createdAt, LocalDateTime approvedAt, LocalDateTime rejectedAt,
+                               Long carId, int rentalDays, BigDecimal amount) {
+
+    static RentalStatsFacts of(RentalRequest request, int rentalDays, BigDecimal amount) {
+        return new RentalStatsFacts(request.getCreatedAt(), request.getApprovedAt(), request.getRejectedAt(),
+                request.getCarId(), rentalDays, amount);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.repository.SchedulerLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Database leases for jobs that must run on one node at a time. A lease is a row in {@code scheduler_lease};
+ * holding it means having renewed it before {@code expires_at}, so a node that dies or stalls loses it
+ * without any cleanup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerLeaseService {
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String owner = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    /**
+     * Acquires or renews {@code name} for {@code length}. Returns false while another node holds it.
+     */
+    public boolean tryAcquire(String name, Duration length) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(status ->
+                schedulerLeaseRepository.tryAcquire(name, owner, now, now.plus(length)));
+        return updated != null && updated > 0;
+    }
+
+    public void release(String name) {
+        transactionTemplate.executeWithoutResult(status ->
+                schedulerLeaseRepository.release(name, owner, LocalDateTime.now()));
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
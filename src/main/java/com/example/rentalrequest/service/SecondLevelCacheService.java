@@ -0,0 +1,166 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.exception.ResourceNotFoundException;
+import com.example.rentalrequest.model.Accessory;
+import com.example.rentalrequest.model.CacheInvalidation;
+import com.example.rentalrequest.model.Car;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.ResourcePool;
+import org.ehcache.config.ResourceType;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reports hit/miss statistics and the configured eviction policy of every Hibernate second-level cache region,
+ * and lets an admin evict regions after editing catalog rows outside the application. Cars and accessories changed
+ * on other nodes are evicted here as their invalidations arrive.
+ */
+@Service
+@Slf4j
+public class SecondLevelCacheService implements CacheInvalidationListener {
+
+    private static final String CAR_ACCESSORIES = Car.class.getName() + ".accessories";
+    private static final String CAR_IMAGES = Car.class.getName() + ".images";
+
+    private final SessionFactory sessionFactory;
+    private final Map<String, Map<String, Object>> regionPolicies;
+
+    public SecondLevelCacheService(EntityManagerFactory entityManagerFactory, ResourceLoader resourceLoader,
+                                   @Value("${spring.jpa.properties.hibernate.javax.cache.uri:classpath:ehcache.xml}") String configLocation) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.regionPolicies = loadRegionPolicies(resourceLoader.getResource(configLocation));
+    }
+
+    public Map<String, Object> getReport() {
+        Statistics statistics = sessionFactory.getStatistics();
+
+        Map<String, Object> regions = new TreeMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            if (regionStatistics != null) {
+                entry.put("hits", regionStatistics.getHitCount());
+                entry.put("misses", regionStatistics.getMissCount());
+                entry.put("puts", regionStatistics.getPutCount());
+                entry.put("hitRatio", ratio(regionStatistics.getHitCount(), regionStatistics.getMissCount()));
+                long inMemory = regionStatistics.getElementCountInMemory();
+                entry.put("elementsInMemory", inMemory == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? null : inMemory);
+            }
+            entry.put("policy", regionPolicies.get(region));
+            regions.put(region, entry);
+        }
+
+        Map<String, Object> queryCache = new LinkedHashMap<>();
+        queryCache.put("hits", statistics.getQueryCacheHitCount());
+        queryCache.put("misses", statistics.getQueryCacheMissCount());
+        queryCache.put("puts", statistics.getQueryCachePutCount());
+        queryCache.put("hitRatio", ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        report.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        report.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        report.put("hitRatio", ratio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+        report.put("queryCache", queryCache);
+        report.put("regions", regions);
+        return report;
+    }
+
+    public void evictRegion(String region) {
+        if (!Arrays.asList(sessionFactory.getStatistics().getSecondLevelCacheRegionNames()).contains(region)) {
+            throw new ResourceNotFoundException("Cache region not found: " + region);
+        }
+        sessionFactory.getCache().evictRegion(region);
+        log.info("Evicted second-level cache region {}", region);
+    }
+
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+        log.info("Evicted all second-level cache regions");
+    }
+
+    @Override
+    public boolean supports(String region) {
+        return CacheInvalidation.CAR.equals(region) || CacheInvalidation.ACCESSORY.equals(region);
+    }
+
+    @Override
+    public void invalidate(String region, Collection<String> keys) {
+        Cache cache = sessionFactory.getCache();
+        if (CacheInvalidation.CAR.equals(region)) {
+            if (keys == null) {
+                cache.evictEntityData(Car.class);
+                cache.evictCollectionData(CAR_ACCESSORIES);
+                cache.evictCollectionData(CAR_IMAGES);
+            } else {
+                for (String key : keys) {
+                    Long id = Long.valueOf(key);
+                    cache.evictEntityData(Car.class, id);
+                    cache.evictCollectionData(CAR_ACCESSORIES, id);
+                    cache.evictCollectionData(CAR_IMAGES, id);
+                }
+            }
+        } else if (keys == null) {
+            cache.evictEntityData(Accessory.class);
+        } else {
+            keys.forEach(key -> cache.evictEntityData(Accessory.class, Long.valueOf(key)));
+        }
+        // Cached query results can't be matched to ids, so any catalog change drops them all
+        cache.evictQueryRegions();
+    }
+
+    @Override
+    public void invalidateAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private static Double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? null : Math.round(hits * 1000.0 / total) / 1000.0;
+    }
+
+    private static Map<String, Map<String, Object>> loadRegionPolicies(Resource config) {
+        Map<String, Map<String, Object>> policies = new LinkedHashMap<>();
+        try {
+            XmlConfiguration xml = new XmlConfiguration(config.getURL());
+            for (Map.Entry<String, CacheConfiguration<?, ?>> cache : xml.getCacheConfigurations().entrySet()) {
+                Map<String, Object> policy = new LinkedHashMap<>();
+                ResourcePool heap = cache.getValue().getResourcePools().getPoolForResource(ResourceType.Core.HEAP);
+                policy.put("eviction", "least-recently-used on heap");
+                policy.put("heap", heap != null ? heap.toString() : null);
+                policy.put("timeToLive", describeExpiry(cache.getValue().getExpiryPolicy()));
+                policies.put(cache.getKey(), policy);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read cache region policies from {}: {}", config, e.getMessage());
+        }
+        return policies;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static String describeExpiry(ExpiryPolicy expiry) {
+        // Time-to-live policies ignore the key and value, so probing with nulls is safe
+        Duration ttl = expiry.getExpiryForCreation(null, null);
+        return ttl == null || ttl.equals(ExpiryPolicy.INFINITE) ? "none" : ttl.toString();
+    }
+}
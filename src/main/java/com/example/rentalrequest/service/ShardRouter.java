@@ -0,0 +1,274 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.config.ShardContext;
+import com.example.rentalrequest.config.ShardRoutingDataSource;
+import com.example.rentalrequest.util.ShardIds;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard a car or rental request lives on and runs work there. Cars go to the shard their
+ * location is mapped to in {@code app.sharding.locations}; a location that is not listed is rejected rather
+ * than hashed, so rows never move when shards are added. A rental request follows the car the customer picked,
+ * or its pickup location when no car is named, which keeps it next to the car it will be approved with.
+ * Existing rows are found from their id.
+ * <p>
+ * A transaction stays on one shard. Reads that span shards go through {@link #scatterGather}, which runs one
+ * read-only transaction per shard in parallel. With sharding disabled there is one shard and every method
+ * simply runs the work on the calling thread, inside whatever transaction is already open.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRouter {
+
+    private final ObjectProvider<ShardRoutingDataSource> shardRouting;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.sharding.locations:}")
+    private List<String> locationMappings;
+
+    private ShardRoutingDataSource routing;
+    private int shardCount = 1;
+    private final Map<String, Integer> shardsByLocation = new HashMap<>();
+    private TransactionTemplate shardReadTransaction;
+    private TransactionTemplate primaryReadTransaction;
+    private ExecutorService scatterExecutor;
+    private final LongAdder scatterGathers = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        // Not read-only, so neither the replica routing nor the caller's older snapshot gets in the way; every
+        // query of one read sees the same snapshot (MySQL's default; H2 defaults to read committed)
+        primaryReadTransaction = new TransactionTemplate(transactionManager);
+        primaryReadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        primaryReadTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        routing = shardRouting.getIfAvailable();
+        if (routing == null) {
+            return;
+        }
+        shardCount = routing.getShardCount();
+
+        for (String mapping : locationMappings) {
+            if (mapping.isBlank()) {
+                continue;
+            }
+            int separator = mapping.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalStateException("app.sharding.locations entries look like Chennai:0, got " + mapping);
+            }
+            int shard = Integer.parseInt(mapping.substring(separator + 1).trim());
+            checkShard(shard);
+            shardsByLocation.put(normalize(mapping.substring(0, separator)), shard);
+        }
+
+        // A new transaction even when called inside one: each shard needs its own connection
+        shardReadTransaction = new TransactionTemplate(transactionManager);
+        shardReadTransaction.setReadOnly(true);
+        shardReadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        scatterExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-read-", 0).factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdown();
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardForLocation(String location) {
+        if (shardCount == 1) {
+            return ShardContext.HOME_SHARD;
+        }
+        if (location == null || location.isBlank()) {
+            throw new IllegalArgumentException("Location is required");
+        }
+        Integer mapped = shardsByLocation.get(normalize(location));
+        if (mapped == null) {
+            throw new IllegalArgumentException("Location " + location.trim() + " is not served by any shard");
+        }
+        return mapped;
+    }
+
+    public int shardForRental(String location, Long carId) {
+        if (carId != null) {
+            return shardOf(carId);
+        }
+        if (shardCount > 1 && (location == null || location.isBlank())) {
+            throw new IllegalArgumentException("Choose a car or a pickup location");
+        }
+        return shardForLocation(location);
+    }
+
+    public int shardOf(Long id) {
+        if (shardCount == 1) {
+            return ShardContext.HOME_SHARD;
+        }
+        int shard = ShardIds.shardOf(id);
+        if (shard >= shardCount) {
+            throw new IllegalArgumentException("Id " + id + " does not belong to any configured shard");
+        }
+        return shard;
+    }
+
+    /**
+     * Runs {@code work} against {@code shard}. Inside a transaction this pins the whole transaction to the shard,
+     * so its flush at commit lands there too; a transaction already on another shard cannot switch.
+     */
+    public <T> T inShard(int shard, Supplier<T> work) {
+        if (shardCount == 1) {
+            return work.get();
+        }
+        checkShard(shard);
+        routing.pinTransaction(shard);
+        return ShardContext.callInShard(shard, work);
+    }
+
+    public void runInShard(int shard, Runnable work) {
+        inShard(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code query} on every shard in parallel, each in its own read-only transaction, and returns the
+     * results in shard order. Because shards hand out ids from ascending ranges, concatenating id-ordered
+     * results keeps them in id order.
+     */
+    public <T> List<T> scatterGather(Function<Integer, T> query) {
+        if (shardCount == 1) {
+            return Collections.singletonList(query.apply(ShardContext.HOME_SHARD));
+        }
+        scatterGathers.increment();
+        List<CompletableFuture<T>> results = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            results.add(CompletableFuture.supplyAsync(() -> readInShard(target, query), scatterExecutor));
+        }
+        try {
+            return results.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Reads from one shard in its own read-only transaction, whatever transaction the caller is in.
+     */
+    public <T> T readFromShard(int shard, Supplier<T> query) {
+        if (shardCount == 1) {
+            return query.get();
+        }
+        checkShard(shard);
+        try {
+            return CompletableFuture.supplyAsync(() -> readInShard(shard, ignored -> query.get()), scatterExecutor).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Reads from one shard's primary in a new repeatable-read transaction of its own, whatever transaction the
+     * caller is in, for reads that must see every commit so far: never a lagging replica, never the caller's
+     * snapshot.
+     */
+    public <T> T readFromPrimary(int shard, Supplier<T> query) {
+        if (shardCount == 1) {
+            return primaryReadTransaction.execute(status -> query.get());
+        }
+        checkShard(shard);
+        try {
+            return CompletableFuture.supplyAsync(() -> ShardContext.callInShard(shard,
+                    () -> primaryReadTransaction.execute(status -> query.get())), scatterExecutor).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Visits the shards one after another on the calling thread, each in its own read-only transaction, for
+     * results that are streamed rather than collected.
+     */
+    public void forEachShard(IntConsumer work) {
+        if (shardCount == 1) {
+            work.accept(ShardContext.HOME_SHARD);
+            return;
+        }
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            readInShard(target, ignored -> {
+                work.accept(target);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Runs {@code work} once per shard on the calling thread with that shard selected, for scheduled jobs that
+     * manage their own transactions.
+     */
+    public void forEachShardInTurn(IntConsumer work) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            runInShard(target, () -> work.accept(target));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", routing != null);
+        stats.put("shards", shardCount);
+        stats.put("mappedLocations", shardsByLocation);
+        stats.put("scatterGathers", scatterGathers.sum());
+        if (routing != null) {
+            stats.put("routing", routing.getStatus());
+        }
+        return stats;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private <T> T readInShard(int shard, Function<Integer, T> query) {
+        return ShardContext.callInShard(shard, () -> shardReadTransaction.execute(status -> query.apply(shard)));
+    }
+
+    private void checkShard(int shard) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("No shard " + shard + "; " + shardCount + " are configured");
+        }
+    }
+
+    private static String normalize(String location) {
+        return location.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.exception.ResourceNotFoundException;
+import com.example.rentalrequest.model.CacheInvalidation;
+import com.example.rentalrequest.model.User;
+import com.example.rentalrequest.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Admin changes to user accounts. Every change drops the user from the cache in
+ * {@link CustomUserDetailsService} here and, through the {@link CacheInvalidationBus}, on the other nodes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserAccountService {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Transactional
+    public void changePassword(String username, String newPassword) {
+        if (newPassword == null || newPassword.isBlank()) {
+            throw new IllegalArgumentException("Password must not be blank");
+        }
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+        user.setPassword(passwordEncoder.encode(newPassword));
+        userRepository.save(user);
+
+        // Evicted again after commit: a login racing this transaction could have cached the old password
+        userDetailsService.evict(username);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userDetailsService.evict(username);
+            }
+        });
+        cacheInvalidationBus.publish(CacheInvalidation.of(CacheInvalidation.USER, username));
+        log.info("Changed password for user {}", username);
+    }
+}
@@ -7,6 +7,8 @@ import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 @Component
 public class EncryptionUtil {
@@ -16,41 +18,57 @@ public class EncryptionUtil {
     @Value("${app.encryption.key:CarRental2025SecretKey1234567890}")
     private String encryptionKey;
 
+    // Cipher lookup and key setup cost more than encrypting a short field, so initialised ciphers are pooled.
+    // A shared pool rather than a ThreadLocal: request threads are virtual and short-lived, so a per-thread
+    // cipher would be built again on nearly every call. The pools only grow to the peak number of concurrent calls.
+    private final Queue<Cipher> encryptCiphers = new ConcurrentLinkedQueue<>();
+    private final Queue<Cipher> decryptCiphers = new ConcurrentLinkedQueue<>();
+
     public String encrypt(String data) {
+        if (data == null || data.trim().isEmpty()) {
+            return data;
+        }
         try {
-            if (data == null || data.trim().isEmpty()) {
-                return data;
-            }
-
-            SecretKeySpec secretKey = new SecretKeySpec(
-                    encryptionKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-
+            Cipher cipher = borrow(encryptCiphers, Cipher.ENCRYPT_MODE);
             byte[] encryptedData = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
+            encryptCiphers.offer(cipher);
             return Base64.getEncoder().encodeToString(encryptedData);
         } catch (Exception e) {
+            // A cipher that failed mid-operation may need re-initialising, so it is not returned to the pool
             throw new RuntimeException("Error encrypting data: " + e.getMessage(), e);
         }
     }
 
     public String decrypt(String encryptedData) {
+        if (encryptedData == null || encryptedData.trim().isEmpty()) {
+            return encryptedData;
+        }
         try {
-            if (encryptedData == null || encryptedData.trim().isEmpty()) {
-                return encryptedData;
-            }
-
-            SecretKeySpec secretKey = new SecretKeySpec(
-                    encryptionKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, secretKey);
-
             byte[] decodedData = Base64.getDecoder().decode(encryptedData);
+            Cipher cipher = borrow(decryptCiphers, Cipher.DECRYPT_MODE);
             byte[] decryptedData = cipher.doFinal(decodedData);
+            decryptCiphers.offer(cipher);
             return new String(decryptedData, StandardCharsets.UTF_8);
         } catch (Exception e) {
             // If decryption fails, return original data (for backward compatibility)
             return encryptedData;
         }
     }
-}
\ No newline at end of file
+
+    private Cipher borrow(Queue<Cipher> pool, int mode) {
+        Cipher cipher = pool.poll();
+        return cipher != null ? cipher : newCipher(mode);
+    }
+
+    private Cipher newCipher(int mode) {
+        try {
+            SecretKeySpec secretKey = new SecretKeySpec(
+                    encryptionKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            cipher.init(mode, secretKey);
+            return cipher;
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM + " cipher: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.rentalrequest.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@code levels} wheels of {@code wheelSize} slots, where a slot on level {@code i}
+ * spans {@code wheelSize^i} ticks. A timer sits on the highest level whose digit differs from the current tick
+ * and cascades one level down each time that slot comes round, so adding is O(1) and advancing touches only
+ * the slots that are due. Deadlines beyond the top wheel wait in an overflow list until it turns over.
+ * <p>
+ * Not thread-safe; callers synchronise.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final int levels;
+    private final long[] ticksPerSlot;
+    private final List<ArrayDeque<Timer<T>>[]> wheels = new ArrayList<>();
+    private final List<Timer<T>> overflow = new ArrayList<>();
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levels, long startMillis) {
+        if (tickMs <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Timing wheel needs a positive tick, at least 2 slots and 1 level");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levels = levels;
+        this.ticksPerSlot = new long[levels + 1];
+        ticksPerSlot[0] = 1;
+        for (int i = 1; i <= levels; i++) {
+            ticksPerSlot[i] = Math.multiplyExact(ticksPerSlot[i - 1], wheelSize);
+        }
+        for (int i = 0; i < levels; i++) {
+            ArrayDeque<Timer<T>>[] slots = new ArrayDeque[wheelSize];
+            for (int j = 0; j < wheelSize; j++) {
+                slots[j] = new ArrayDeque<>();
+            }
+            wheels.add(slots);
+        }
+        this.currentTick = startMillis / tickMs;
+    }
+
+    /**
+     * Schedules {@code item} to expire at {@code deadlineMillis}.
+     *
+     * @return false if the deadline is already due; the item is not added and the caller should handle it now
+     */
+    public boolean add(long deadlineMillis, T item) {
+        // Round up so an item never fires before its deadline
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMs - 1, tickMs);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        place(new Timer<>(deadlineTick, item));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves time forward to {@code nowMillis}, handing every item whose deadline has passed to {@code expired}.
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = nowMillis / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            if (currentTick % ticksPerSlot[levels] == 0 && !overflow.isEmpty()) {
+                List<Timer<T>> waiting = new ArrayList<>(overflow);
+                overflow.clear();
+                waiting.forEach(timer -> reinsert(timer, expired));
+            }
+            // Cascade from the top so a timer can drop several levels in the same tick
+            for (int level = levels - 1; level >= 1; level--) {
+                if (currentTick % ticksPerSlot[level] == 0) {
+                    drain(level, slotIndex(currentTick, level), expired);
+                }
+            }
+            drain(0, slotIndex(currentTick, 0), expired);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (ArrayDeque<Timer<T>>[] slots : wheels) {
+            for (ArrayDeque<Timer<T>> slot : slots) {
+                slot.clear();
+            }
+        }
+        overflow.clear();
+        size = 0;
+    }
+
+    /**
+     * Longest delay that fits in the wheels without going through the overflow list.
+     */
+    public long getSpanMillis() {
+        return ticksPerSlot[levels] * tickMs;
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private void place(Timer<T> timer) {
+        // The highest level on which the deadline and the current tick fall in different slots
+        for (int level = levels - 1; level >= 0; level--) {
+            if (timer.deadlineTick() / ticksPerSlot[level + 1] != currentTick / ticksPerSlot[level + 1]) {
+                if (level == levels - 1) {
+                    overflow.add(timer);
+                    return;
+                }
+                continue;
+            }
+            if (timer.deadlineTick() / ticksPerSlot[level] != currentTick / ticksPerSlot[level]) {
+                wheels.get(level)[slotIndex(timer.deadlineTick(), level)].add(timer);
+                return;
+            }
+        }
+        // Same slot as the current tick on every level is only possible for a due timer, which add() rejects
+        throw new IllegalStateException("Timer " + timer.deadlineTick() + " is not in the future of tick " + currentTick);
+    }
+
+    private void drain(int level, int index, Consumer<T> expired) {
+        ArrayDeque<Timer<T>> slot = wheels.get(level)[index];
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Timer<T>> timers = new ArrayList<>(slot);
+        slot.clear();
+        timers.forEach(timer -> reinsert(timer, expired));
+    }
+
+    private void reinsert(Timer<T> timer, Consumer<T> expired) {
+        if (timer.deadlineTick() <= currentTick) {
+            size--;
+            expired.accept(timer.item());
+        } else {
+            place(timer);
+        }
+    }
+
+    private int slotIndex(long tick, int level) {
+        return (int) ((tick / ticksPerSlot[level]) % wheelSize);
+    }
+
+    private record Timer<T>(long deadlineTick, T item) {
+    }
+}
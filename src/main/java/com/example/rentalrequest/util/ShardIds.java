@@ -0,0 +1,33 @@
+package com.example.rentalrequest.util;
+
+/**
+ * Shard-aware id layout. Every shard hands out auto-increment ids from its own range, {@code [shard << 40,
+ * (shard + 1) << 40)}, so ids stay unique across shards and the shard that owns a row can be read off its id
+ * without a lookup. Shard 0 starts at 1, which keeps the ids of a database that predates sharding valid.
+ * With at most {@value #MAX_SHARDS} shards every id stays below 2^53 and survives a JavaScript client.
+ */
+public final class ShardIds {
+
+    public static final int SHARD_BITS = 40;
+    public static final int MAX_SHARDS = 1 << 12;
+
+    private ShardIds() {
+    }
+
+    /**
+     * First id of the shard's range.
+     */
+    public static long base(int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (MAX_SHARDS - 1) + ": " + shard);
+        }
+        return (long) shard << SHARD_BITS;
+    }
+
+    public static int shardOf(long id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Not a generated id: " + id);
+        }
+        return (int) (id >>> SHARD_BITS);
+    }
+}
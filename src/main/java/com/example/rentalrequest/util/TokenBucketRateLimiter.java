@@ -0,0 +1,115 @@
+package com.example.rentalrequest.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket keyed by client. Each bucket is a single {@link AtomicLong} holding the
+ * "theoretical arrival time" of the next request (GCRA), so a check is one CAS with no allocation
+ * once the bucket exists. Buckets that have fully refilled carry no state and are evicted by {@link #evictIdle()},
+ * which runs on a schedule and never on the request path. Once {@code maxBuckets} clients are tracked, new
+ * clients share a single overflow bucket until eviction makes room, so a flood of distinct keys can neither grow
+ * the map without bound nor get past the limit.
+ */
+public class TokenBucketRateLimiter {
+
+    private final String name;
+    private final int capacity;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxBuckets;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow;
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+
+    public TokenBucketRateLimiter(String name, int capacity, int refillPerMinute, int maxBuckets) {
+        this(name, capacity, refillPerMinute, maxBuckets, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(String name, int capacity, int refillPerMinute, int maxBuckets, LongSupplier nanoClock) {
+        if (capacity < 1 || refillPerMinute < 1) {
+            throw new IllegalArgumentException("Rate limit '" + name + "' needs a positive capacity and refill rate");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.emissionIntervalNanos = 60_000_000_000L / refillPerMinute;
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.maxBuckets = maxBuckets;
+        this.nanoClock = nanoClock;
+        this.overflow = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return 0 when the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            // The size check races with other new keys, so the map may overshoot the cap by a few entries
+            if (buckets.size() >= maxBuckets) {
+                overflowed.increment();
+                bucket = overflow;
+            } else {
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            }
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + emissionIntervalNanos;
+            long debt = newTat - now;
+            if (debt > burstToleranceNanos) {
+                rejected.increment();
+                return debt - burstToleranceNanos;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Removes buckets that have refilled completely. A racing request may briefly recreate a fresh bucket,
+     * which at worst grants that client one extra full burst.
+     */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getOverflowCount() {
+        return overflowed.sum();
+    }
+}
@@ -0,0 +1,5 @@
+-- The dispatcher only claims the oldest pending event of each (handler, aggregate), so a failed event holds back
+-- the later events of its rental instead of being overtaken by them. The claim checks for an older pending
+-- sibling through this index.
+
+CREATE INDEX idx_outbox_event_handler_aggregate ON outbox_event (handler, aggregate_type, aggregate_id, status, id);
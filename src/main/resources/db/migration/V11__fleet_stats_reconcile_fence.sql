@@ -0,0 +1,6 @@
+-- A reconciliation rebuilds days from rental_request, which already reflects every lifecycle event committed
+-- before it read. Events still undelivered at that point are recorded here with the reconciled range, so when
+-- they arrive only their contribution to other days is applied. A null range means fully applied.
+
+ALTER TABLE fleet_stats_applied_event ADD COLUMN fenced_from DATE;
+ALTER TABLE fleet_stats_applied_event ADD COLUMN fenced_to DATE;
@@ -0,0 +1,73 @@
+-- Baseline: the schema as Hibernate's ddl-auto=update left it. Existing databases are baselined at this
+-- version (spring.flyway.baseline-on-migrate) and only run the migrations after it.
+
+CREATE TABLE car (
+    id              BIGINT         NOT NULL AUTO_INCREMENT,
+    brand           VARCHAR(255),
+    model           VARCHAR(255),
+    fuel            VARCHAR(255),
+    car_type        VARCHAR(255),
+    plate_number    VARCHAR(255),
+    main_location   VARCHAR(255),
+    color           VARCHAR(255),
+    transmission    VARCHAR(255),
+    year            INT,
+    passengers      INT,
+    no_of_air_bags  INT,
+    description     VARCHAR(255),
+    daily_price     DECIMAL(38, 2),
+    weekly_price    DECIMAL(38, 2),
+    monthly_price   DECIMAL(38, 2),
+    available       BOOLEAN        NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE accessory (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    available   BOOLEAN      NOT NULL,
+    name        VARCHAR(255),
+    description VARCHAR(255),
+    car_id      BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_accessory_car FOREIGN KEY (car_id) REFERENCES car (id)
+);
+
+CREATE TABLE car_image (
+    id        BIGINT       NOT NULL AUTO_INCREMENT,
+    image_url VARCHAR(255),
+    car_id    BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_car_image_car FOREIGN KEY (car_id) REFERENCES car (id)
+);
+
+CREATE TABLE rental_request (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    customer_name    TEXT,
+    phone_number     TEXT,
+    email            TEXT,
+    car_model        VARCHAR(255),
+    pickup_date_time DATETIME(6),
+    drop_date_time   DATETIME(6),
+    status           VARCHAR(255),
+    rejection_reason VARCHAR(255),
+    tracking_id      VARCHAR(36),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_rental_request_tracking_id UNIQUE (tracking_id)
+);
+
+CREATE TABLE user (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255),
+    password VARCHAR(255),
+    role     VARCHAR(20),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE idempotency_record (
+    idempotency_key VARCHAR(128) NOT NULL,
+    fingerprint     VARCHAR(64)  NOT NULL,
+    status_code     INT,
+    response_body   TEXT,
+    expires_at      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (idempotency_key)
+);
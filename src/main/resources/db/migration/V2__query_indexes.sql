@@ -0,0 +1,24 @@
+-- Secondary indexes for the repository queries on the hot paths. Names are referenced by the query plan test.
+
+-- RentalRequestRepository.findByStatus (admin pending list), ordered by pickup
+UPDATE rental_request SET status = 'PENDING' WHERE status IS NULL;
+ALTER TABLE rental_request MODIFY COLUMN status VARCHAR(16) NOT NULL;
+CREATE INDEX idx_rental_request_status_pickup ON rental_request (status, pickup_date_time);
+
+-- CarRepository.findByAvailableTrue and the location lookup
+CREATE INDEX idx_car_available_location ON car (available, main_location);
+CREATE INDEX idx_car_location ON car (main_location);
+CREATE INDEX idx_car_brand ON car (brand);
+
+-- AccessoryRepository.findByCarId / findByAvailableTrue
+CREATE INDEX idx_accessory_car_available ON accessory (car_id, available);
+CREATE INDEX idx_accessory_available ON accessory (available);
+
+-- CarImage loads per car (Car.images)
+CREATE INDEX idx_car_image_car ON car_image (car_id);
+
+-- UserRepository.findByUsername runs on every authenticated request
+CREATE UNIQUE INDEX uk_user_username ON user (username);
+
+-- IdempotencyRecordRepository.deleteExpired
+CREATE INDEX idx_idempotency_record_expires ON idempotency_record (expires_at);
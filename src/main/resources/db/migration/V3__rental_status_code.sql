@@ -0,0 +1,24 @@
+-- Replace the free-form status string with a one-byte code (see RentalStatus) and index it with the
+-- pickup time and id, the exact keyset the admin pending queue pages through.
+
+-- Refuses to start, before anything is changed, while a row has a status without a code (NULL included).
+-- MySQL can't roll DDL back, so this has to come first for the migration to be re-runnable once those rows
+-- are fixed.
+ALTER TABLE rental_request ADD CONSTRAINT ck_rental_request_status_known
+    CHECK (status IS NOT NULL AND UPPER(TRIM(status)) IN ('PENDING', 'APPROVED', 'REJECTED'));
+
+ALTER TABLE rental_request ADD COLUMN status_code TINYINT;
+
+UPDATE rental_request SET status_code = CASE UPPER(TRIM(status))
+    WHEN 'PENDING' THEN 0
+    WHEN 'APPROVED' THEN 1
+    WHEN 'REJECTED' THEN 2
+END;
+
+ALTER TABLE rental_request MODIFY COLUMN status_code TINYINT NOT NULL;
+
+ALTER TABLE rental_request DROP CONSTRAINT ck_rental_request_status_known;
+DROP INDEX idx_rental_request_status_pickup ON rental_request;
+ALTER TABLE rental_request DROP COLUMN status;
+
+CREATE INDEX idx_rental_request_status_pickup_id ON rental_request (status_code, pickup_date_time, id);
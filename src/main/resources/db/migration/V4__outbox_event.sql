@@ -0,0 +1,21 @@
+-- Transactional outbox: one row per (lifecycle event, handler), written in the same transaction as the
+-- rental change and delivered afterwards by OutboxDispatcher. available_at doubles as the claim lease and
+-- the retry backoff, so the dispatcher's claim is a single range scan on the index below.
+
+CREATE TABLE outbox_event (
+    id             BIGINT        NOT NULL AUTO_INCREMENT,
+    aggregate_type VARCHAR(32)   NOT NULL,
+    aggregate_id   BIGINT        NOT NULL,
+    event_type     VARCHAR(64)   NOT NULL,
+    handler        VARCHAR(64)   NOT NULL,
+    payload        TEXT          NOT NULL,
+    status         VARCHAR(16)   NOT NULL,
+    attempts       INT           NOT NULL,
+    created_at     DATETIME(6)   NOT NULL,
+    available_at   DATETIME(6)   NOT NULL,
+    delivered_at   DATETIME(6),
+    last_error     VARCHAR(1000),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_outbox_event_status_available_id ON outbox_event (status, available_at, id);
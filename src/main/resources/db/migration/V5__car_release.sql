@@ -0,0 +1,21 @@
+-- Approved rentals remember the car they took out of service so CarReleaseScheduler can return it at drop-off.
+-- Rentals approved before this migration have no car_id and are never released automatically.
+
+ALTER TABLE rental_request ADD COLUMN car_id BIGINT;
+ALTER TABLE rental_request ADD COLUMN approved_at DATETIME(6);
+ALTER TABLE rental_request ADD COLUMN car_released_at DATETIME(6);
+
+-- Startup rebuild: approved rentals whose car is still out
+CREATE INDEX idx_rental_request_status_released ON rental_request (status_code, car_released_at);
+-- Incremental pick-up of approvals made on other nodes
+CREATE INDEX idx_rental_request_approved_at ON rental_request (approved_at);
+
+-- One row per cluster-wide singleton job; the holder renews expires_at while it runs the job
+CREATE TABLE scheduler_lease (
+    name       VARCHAR(64)  NOT NULL,
+    owner      VARCHAR(128),
+    expires_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (name)
+);
+
+INSERT INTO scheduler_lease (name, owner, expires_at) VALUES ('car-release', NULL, '1970-01-01 00:00:00');
@@ -0,0 +1,33 @@
+-- Pre-aggregated fleet counters per day and car, maintained from rental lifecycle outbox events and
+-- periodically reconciled against rental_request. car_id 0 holds the counts of requests not tied to a car
+-- (created, rejected).
+
+ALTER TABLE rental_request ADD COLUMN created_at DATETIME(6);
+ALTER TABLE rental_request ADD COLUMN rejected_at DATETIME(6);
+
+-- Reconciliation reads each day's created / approved / rejected requests by range (approved_at is indexed in V5)
+CREATE INDEX idx_rental_request_created_at ON rental_request (created_at);
+CREATE INDEX idx_rental_request_rejected_at ON rental_request (rejected_at);
+
+CREATE TABLE fleet_daily_stats (
+    stat_date              DATE           NOT NULL,
+    car_id                 BIGINT         NOT NULL,
+    location               VARCHAR(255),
+    requests_created       INT            NOT NULL,
+    requests_approved      INT            NOT NULL,
+    requests_rejected      INT            NOT NULL,
+    booked_days            INT            NOT NULL,
+    revenue                DECIMAL(19, 2) NOT NULL,
+    approval_latency_ms    BIGINT         NOT NULL,
+    approval_latency_count INT            NOT NULL,
+    PRIMARY KEY (stat_date, car_id)
+);
+
+-- Outbox delivery is at-least-once; an event id is recorded here in the same transaction that applies it
+CREATE TABLE fleet_stats_applied_event (
+    event_id   BIGINT      NOT NULL,
+    applied_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (event_id)
+);
+
+INSERT INTO scheduler_lease (name, owner, expires_at) VALUES ('fleet-stats-reconcile', NULL, '1970-01-01 00:00:00');
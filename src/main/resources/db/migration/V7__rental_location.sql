@@ -0,0 +1,4 @@
+-- The branch a rental request is picked up from. With sharding enabled it decides the shard the request is
+-- stored on, and only cars of the same shard can be approved for it.
+
+ALTER TABLE rental_request ADD COLUMN location VARCHAR(255);
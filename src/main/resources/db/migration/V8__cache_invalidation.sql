@@ -0,0 +1,14 @@
+-- Change log for cross-node cache invalidation. Each node appends the cache keys its commits made stale and
+-- polls the rows other nodes appended after its cursor. Rows are only kept long enough for every node to read
+-- them; a region-wide invalidation has a null entity_key.
+
+CREATE TABLE cache_invalidation (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    region     VARCHAR(64)  NOT NULL,
+    entity_key VARCHAR(255),
+    origin     VARCHAR(100) NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_cache_invalidation_created_at ON cache_invalidation (created_at);
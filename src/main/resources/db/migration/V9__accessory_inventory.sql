@@ -0,0 +1,40 @@
+-- Pooled accessory inventory. A location holds a quantity of each kind of accessory (child seats, GPS units)
+-- shared by every rental picked up there, instead of one accessory row bolted to one car.
+
+CREATE TABLE accessory_stock (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    location VARCHAR(255) NOT NULL,
+    name     VARCHAR(255) NOT NULL,
+    quantity INT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_accessory_stock_location_name UNIQUE (location, name)
+);
+
+-- Units of a stock reserved on each calendar day. Approving a rental adds to the rows of its days with one
+-- conditional UPDATE per stock, so two approvals only wait for each other where their days overlap.
+CREATE TABLE accessory_stock_day (
+    stock_id   BIGINT NOT NULL,
+    stock_date DATE   NOT NULL,
+    reserved   INT    NOT NULL,
+    PRIMARY KEY (stock_id, stock_date),
+    CONSTRAINT fk_accessory_stock_day_stock FOREIGN KEY (stock_id) REFERENCES accessory_stock (id)
+);
+
+-- Accessories asked for with a rental request: REQUESTED until the request is approved, RESERVED while the
+-- units are counted in accessory_stock_day, then RELEASED after drop-off or CANCELLED.
+CREATE TABLE accessory_reservation (
+    id                BIGINT      NOT NULL AUTO_INCREMENT,
+    rental_request_id BIGINT      NOT NULL,
+    stock_id          BIGINT      NOT NULL,
+    quantity          INT         NOT NULL,
+    first_day         DATE        NOT NULL,
+    last_day          DATE        NOT NULL,
+    status            VARCHAR(16) NOT NULL,
+    created_at        DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_accessory_reservation_request FOREIGN KEY (rental_request_id) REFERENCES rental_request (id),
+    CONSTRAINT fk_accessory_reservation_stock FOREIGN KEY (stock_id) REFERENCES accessory_stock (id)
+);
+
+CREATE INDEX idx_accessory_reservation_request ON accessory_reservation (rental_request_id);
+CREATE INDEX idx_accessory_reservation_stock_status ON accessory_reservation (stock_id, status);
@@ -0,0 +1,220 @@
+package com.example.rentalrequest.config;
+
+import com.example.rentalrequest.dto.RentalRequestDTO;
+import com.example.rentalrequest.model.Accessory;
+import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.model.RentalStatus;
+import com.example.rentalrequest.service.CarService;
+import com.example.rentalrequest.service.RentalListingService;
+import com.example.rentalrequest.service.RentalRequestService;
+import com.example.rentalrequest.util.ShardIds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the application against two embedded H2 shards, Chennai on the first and Bangalore on the second, and
+ * checks where rows land by reading each shard directly.
+ */
+@SpringBootTest(properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.urls[0]=jdbc:h2:mem:shard-0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER,YEAR",
+        "app.sharding.urls[1]=jdbc:h2:mem:shard-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER,YEAR",
+        "app.sharding.locations=Chennai:0,Bangalore:1",
+        "app.rentals.status-counts.ttl-ms=0"
+})
+@ActiveProfiles("test")
+class LocationShardingTest {
+
+    @Autowired
+    private ShardRoutingDataSource shardRouting;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private RentalRequestService rentalRequestService;
+
+    @Autowired
+    private RentalListingService rentalListingService;
+
+    @AfterEach
+    void cleanUp() {
+        for (int shard = 0; shard < shardRouting.getShardCount(); shard++) {
+            JdbcTemplate jdbc = shardJdbc(shard);
+            List.of("outbox_event", "rental_request", "car_image", "accessory", "car")
+                    .forEach(table -> jdbc.update("DELETE FROM " + table));
+        }
+    }
+
+    @Test
+    void carsAreStoredOnTheirLocationsShard() {
+        Long chennai = createCar("Chennai");
+        Long bangalore = createCar("Bangalore");
+
+        assertThat(ShardIds.shardOf(chennai)).isZero();
+        assertThat(ShardIds.shardOf(bangalore)).isEqualTo(1);
+        assertThat(carIds(0)).containsExactly(chennai);
+        assertThat(carIds(1)).containsExactly(bangalore);
+        assertThat(shardJdbc(1).queryForObject("SELECT COUNT(*) FROM accessory WHERE car_id = ?", Long.class, bangalore))
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void readsByIdGoToTheOwningShard() {
+        Long bangalore = createCar("Bangalore");
+
+        assertThat(carService.getCarById(bangalore).getMainLocation()).isEqualTo("Bangalore");
+        assertThat(carService.getCarById(bangalore).getAccessories()).containsExactly("Child seat");
+        assertThat(carService.existsById(bangalore)).isTrue();
+    }
+
+    @Test
+    void listingsGatherEveryShardInIdOrder() {
+        Long bangalore = createCar("Bangalore");
+        Long chennai = createCar("Chennai");
+
+        assertThat(carService.getCars("id", null)).extracting(car -> car.get("id")).containsExactly(chennai, bangalore);
+        assertThat(carService.findCarsByLocation("Bangalore", "id", null)).extracting(car -> car.get("id"))
+                .containsExactly(bangalore);
+        // The substring fallback has to ask every shard
+        assertThat(carService.findCarsByLocation("galore", "id", null)).extracting(car -> car.get("id"))
+                .containsExactly(bangalore);
+    }
+
+    @Test
+    void rentalRequestsFollowTheirLocation() {
+        Long car = createCar("Bangalore");
+        Long request = (Long) rentalRequestService.createRentalRequest(rental("Bangalore", 2)).get("id");
+
+        assertThat(ShardIds.shardOf(request)).isEqualTo(1);
+        assertThat(rentalRequestService.approveRequest(request, car).getStatus()).isEqualTo(RentalStatus.APPROVED);
+        assertThat(shardJdbc(1).queryForObject("SELECT available FROM car WHERE id = ?", Boolean.class, car)).isFalse();
+    }
+
+    @Test
+    void approvingWithAnotherShardsCarIsRejected() {
+        Long chennaiCar = createCar("Chennai");
+        Long request = (Long) rentalRequestService.createRentalRequest(rental("Bangalore", 2)).get("id");
+
+        assertThatThrownBy(() -> rentalRequestService.approveRequest(request, chennaiCar))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(rentalRequestService.getRequestById(request).getStatus()).isEqualTo(RentalStatus.PENDING);
+    }
+
+    @Test
+    void requestsNamingACarCanBeApprovedWithoutALocation() {
+        Long car = createCar("Bangalore");
+        RentalRequestDTO dto = rental(null, 2);
+        dto.setCarId(car);
+        Long request = (Long) rentalRequestService.createRentalRequest(dto).get("id");
+
+        assertThat(ShardIds.shardOf(request)).isEqualTo(1);
+        assertThat(rentalRequestService.approveRequest(request, car).getStatus()).isEqualTo(RentalStatus.APPROVED);
+    }
+
+    @Test
+    void requestsNamingACarIgnoreHowTheLocationIsSpelled() {
+        Long car = createCar("Bangalore");
+        RentalRequestDTO dto = rental("Bangalore Airport", 2);
+        dto.setCarId(car);
+        Long request = (Long) rentalRequestService.createRentalRequest(dto).get("id");
+
+        assertThat(ShardIds.shardOf(request)).isEqualTo(1);
+        assertThat(rentalRequestService.approveRequest(request, car).getStatus()).isEqualTo(RentalStatus.APPROVED);
+    }
+
+    @Test
+    void unmappedLocationsAreRejectedInsteadOfHashed() {
+        assertThatThrownBy(() -> rentalRequestService.createRentalRequest(rental("Bangalore Airport", 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> rentalRequestService.createRentalRequest(rental(null, 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> createCar("Mysore")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(carIds(0)).isEmpty();
+        assertThat(carIds(1)).isEmpty();
+    }
+
+    @Test
+    void pendingPagesMergeShardsByPickup() {
+        Long first = (Long) rentalRequestService.createRentalRequest(rental("Bangalore", 1)).get("id");
+        Long second = (Long) rentalRequestService.createRentalRequest(rental("Chennai", 2)).get("id");
+        Long third = (Long) rentalRequestService.createRentalRequest(rental("Bangalore", 3)).get("id");
+
+        Map<String, Object> page = rentalListingService.getPendingRequests(null, 2, "id");
+        assertThat(ids(page)).containsExactly(first, second);
+        assertThat(page.get("hasMore")).isEqualTo(true);
+
+        Map<String, Object> next = rentalListingService.getPendingRequests((String) page.get("nextCursor"), 2, "id");
+        assertThat(ids(next)).containsExactly(third);
+        assertThat(next.get("hasMore")).isEqualTo(false);
+
+        assertThat(rentalRequestService.getStatusCounts()).containsEntry(RentalStatus.PENDING, 3L);
+    }
+
+    @Test
+    void shardingRefusesToStartWithReadReplicas() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(ShardingConfig.class, ReadReplicaConfig.class)
+                .withBean(DataSourceProperties.class)
+                .withPropertyValues("app.sharding.enabled=true",
+                        "app.sharding.urls[0]=jdbc:h2:mem:clash-0",
+                        "app.datasource.replica.enabled=true",
+                        "app.datasource.replica.urls=jdbc:h2:mem:clash-replica")
+                .run(context -> assertThat(context).getFailure()
+                        .rootCause().hasMessageContaining("cannot both be true"));
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private Long createCar(String location) {
+        Car car = new Car();
+        car.setBrand("Toyota");
+        car.setModel("Innova");
+        car.setMainLocation(location);
+        car.setDailyPrice(BigDecimal.valueOf(2500));
+        car.setAvailable(true);
+        Accessory accessory = new Accessory();
+        accessory.setName("Child seat");
+        accessory.setAvailable(true);
+        car.getAccessories().add(accessory);
+        return carService.createCar(car).getId();
+    }
+
+    private static RentalRequestDTO rental(String location, int pickupInDays) {
+        RentalRequestDTO dto = new RentalRequestDTO();
+        dto.setCustomerName("Customer " + pickupInDays);
+        dto.setPhoneNumber("+91 9000000000");
+        dto.setEmail("customer@example.com");
+        dto.setLocation(location);
+        dto.setPickupDateTime(LocalDateTime.now().plusDays(pickupInDays));
+        dto.setDropDateTime(LocalDateTime.now().plusDays(pickupInDays + 2L));
+        return dto;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> ids(Map<String, Object> page) {
+        return ((List<Map<String, Object>>) page.get("data")).stream().map(row -> row.get("id")).toList();
+    }
+
+    private List<Long> carIds(int shard) {
+        return shardJdbc(shard).queryForList("SELECT id FROM car ORDER BY id", Long.class);
+    }
+
+    private JdbcTemplate shardJdbc(int shard) {
+        return new JdbcTemplate(shardRouting.getShards().get(shard));
+    }
+}
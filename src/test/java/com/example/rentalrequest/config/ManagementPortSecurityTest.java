@@ -0,0 +1,62 @@
+package com.example.rentalrequest.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Real servers on two random ports, so requests arrive the way they do behind the proxy: the application port is
+ * public, the management port is only reachable by the scraper. Metrics export is switched back on, as Spring Boot
+ * tests turn it off by default.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class ManagementPortSecurityTest {
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void prometheusIsRefusedOnTheApplicationPort() {
+        ResponseEntity<String> response = get(port, "/actuator/prometheus");
+
+        assertThat(response.getStatusCode().is4xxClientError()).as("status %s", response.getStatusCode()).isTrue();
+        assertThat(response.getBody()).doesNotContain("# TYPE");
+    }
+
+    @Test
+    void prometheusIsServedWithoutATokenOnTheManagementPort() {
+        ResponseEntity<String> response = get(managementPort, "/actuator/prometheus");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("# TYPE", "rentals_requests_total");
+    }
+
+    @Test
+    void theRestOfTheActuatorStillNeedsAnAdminOnTheManagementPort() {
+        assertThat(get(managementPort, "/actuator/metrics").getStatusCode()).isIn(HttpStatus.UNAUTHORIZED, HttpStatus.FORBIDDEN);
+        assertThat(get(managementPort, "/actuator/health").getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private ResponseEntity<String> get(int port, String path) {
+        return restTemplate.getForEntity("http://localhost:" + port + path, String.class);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.rentalrequest.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes against two embedded H2 databases that identify themselves through a {@code node} table.
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReadReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("routing-primary", "primary");
+        replica = database("routing-replica", "replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_lag (seconds BIGINT)");
+        setReplicaLag(0L);
+
+        routing = new ReadReplicaRoutingDataSource(primary, Map.of("replica-0", replica), Duration.ofSeconds(5),
+                "SELECT seconds FROM replica_lag");
+        routing.refreshReplicaHealth();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(readOnly.execute(status -> currentNode())).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() {
+        assertThat(readWrite.execute(status -> currentNode())).isEqualTo("primary");
+    }
+
+    @Test
+    void workOutsideTransactionsUsesThePrimary() {
+        assertThat(currentNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimaryUntilItCatchesUp() {
+        setReplicaLag(30L);
+        routing.refreshReplicaHealth();
+        assertThat(readOnly.execute(status -> currentNode())).isEqualTo("primary");
+
+        setReplicaLag(1L);
+        routing.refreshReplicaHealth();
+        assertThat(readOnly.execute(status -> currentNode())).isEqualTo("replica");
+    }
+
+    @Test
+    void stoppedReplicationTakesReplicaOutOfRotation() {
+        setReplicaLag(null);
+        routing.refreshReplicaHealth();
+
+        assertThat(readOnly.execute(status -> currentNode())).isEqualTo("primary");
+        assertThat(routing.getStatus()).containsEntry("fallbackReads", 1L);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private void setReplicaLag(Long seconds) {
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.update("DELETE FROM replica_lag");
+        replicaJdbc.update("INSERT INTO replica_lag (seconds) VALUES (?)", seconds);
+    }
+
+    private static DataSource database(String name, String node) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", node);
+        return dataSource;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.rentalrequest.controller;
+
+import com.example.rentalrequest.config.ShardRoutingDataSource;
+import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.repository.CarRepository;
+import com.example.rentalrequest.service.CarService;
+import com.example.rentalrequest.service.ShardRouter;
+import com.example.rentalrequest.util.ShardIds;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The streamed partner feed against two embedded shards, byte for byte against the map each car used to be
+ * converted to before the feed was streamed.
+ */
+@SpringBootTest(properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.urls[0]=jdbc:h2:mem:feed-shard-0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER,YEAR",
+        "app.sharding.urls[1]=jdbc:h2:mem:feed-shard-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER,YEAR",
+        "app.sharding.locations=Chennai:0,Bangalore:1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CarFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRoutingDataSource shardRouting;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void cleanUp() {
+        for (DataSource shard : shardRouting.getShards()) {
+            JdbcTemplate jdbc = new JdbcTemplate(shard);
+            List.of("accessory", "car_image", "car").forEach(table -> jdbc.update("DELETE FROM " + table));
+        }
+    }
+
+    @Test
+    void streamedFeedMatchesTheSimpleMapOfEveryCar() throws Exception {
+        Long bangalore = createCar("Bangalore", true);
+        Long chennai = createCar("Chennai", true);
+        Long sparse = createCar("Chennai", false);
+        assertThat(List.of(ShardIds.shardOf(chennai), ShardIds.shardOf(bangalore))).containsExactly(0, 1);
+
+        String feed = mockMvc.perform(get("/api/cars/simple"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        // Shard after shard, which is id order; same keys, values and key order as the old map
+        List<Map<String, Object>> expected = List.of(simpleMap(chennai), simpleMap(sparse), simpleMap(bangalore));
+        assertThat(feed).isEqualTo(objectMapper.writeValueAsString(expected));
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private Long createCar(String location, boolean complete) {
+        Car car = new Car();
+        car.setBrand("Toyota");
+        car.setModel("Innova \"Crysta\"");
+        car.setMainLocation(location);
+        car.setDailyPrice(new BigDecimal("2500.00"));
+        car.setAvailable(complete);
+        if (complete) {
+            car.setFuel("Diesel");
+            car.setCarType("SUV");
+            car.setPlateNumber("TN-01-AB-1234");
+            car.setColor("White");
+            car.setTransmission("Automatic");
+            car.setYear(2022);
+            car.setPassengers(7);
+            car.setNoOfAirBags(6);
+            car.setDescription("Seven seater for " + location);
+            car.setWeeklyPrice(new BigDecimal("15000.00"));
+            car.setMonthlyPrice(new BigDecimal("55000.50"));
+        }
+        return carService.createCar(car).getId();
+    }
+
+    // The fields and order of the map CarService.convertToSimpleMap used to build from the entity
+    private Map<String, Object> simpleMap(Long id) {
+        Car car = shardRouter.readFromShard(shardRouter.shardOf(id), () -> carRepository.findById(id).orElseThrow());
+        Map<String, Object> carMap = new LinkedHashMap<>();
+        carMap.put("id", car.getId());
+        carMap.put("brand", car.getBrand());
+        carMap.put("model", car.getModel());
+        carMap.put("fuel", car.getFuel());
+        carMap.put("carType", car.getCarType());
+        carMap.put("plateNumber", car.getPlateNumber());
+        carMap.put("mainLocation", car.getMainLocation());
+        carMap.put("color", car.getColor());
+        carMap.put("transmission", car.getTransmission());
+        carMap.put("year", car.getYear());
+        carMap.put("passengers", car.getPassengers());
+        carMap.put("noOfAirBags", car.getNoOfAirBags());
+        carMap.put("description", car.getDescription());
+        carMap.put("dailyPrice", car.getDailyPrice());
+        carMap.put("weeklyPrice", car.getWeeklyPrice());
+        carMap.put("monthlyPrice", car.getMonthlyPrice());
+        carMap.put("available", car.isAvailable());
+        return carMap;
+    }
+}
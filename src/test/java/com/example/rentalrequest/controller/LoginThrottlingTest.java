@@ -0,0 +1,101 @@
+package com.example.rentalrequest.controller;
+
+import com.example.rentalrequest.service.PasswordVerificationExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Login through the password verification pool, shrunk to one thread and a one-slot queue so it can be
+ * saturated by parking two tasks on a latch.
+ */
+@SpringBootTest(properties = {
+        "app.auth.hashing.threads=1",
+        "app.auth.hashing.queue-capacity=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginThrottlingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordVerificationExecutor passwordVerificationExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void cleanUp() {
+        release.countDown();
+    }
+
+    @Test
+    void aFullVerificationQueueTurnsLoginsAwayWithRetryAfter() throws Exception {
+        double rejectedBefore = meterRegistry.get("auth.password.rejected").counter().count();
+        CompletableFuture<Boolean> running = passwordVerificationExecutor.submit(this::awaitRelease);
+        CompletableFuture<Boolean> queued = passwordVerificationExecutor.submit(this::awaitRelease);
+
+        mockMvc.perform(asyncDispatch(login("admin", "secret")))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").exists());
+        assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(rejectedBefore + 1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void badCredentialsAreAPlainBadRequestOnTheAsyncPath() throws Exception {
+        long verifiedBefore = meterRegistry.get("auth.password.verification").timer().count();
+        long waitedBefore = meterRegistry.get("auth.password.queue.wait").timer().count();
+
+        mockMvc.perform(asyncDispatch(login("nobody", "wrong-password")))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist("Retry-After"))
+                .andExpect(jsonPath("$.error").value("Invalid username or password"));
+
+        assertThat(meterRegistry.get("auth.password.verification").timer().count()).isEqualTo(verifiedBefore + 1);
+        assertThat(meterRegistry.get("auth.password.queue.wait").timer().count()).isEqualTo(waitedBefore + 1);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private MvcResult login(String username, String password) throws Exception {
+        return mockMvc.perform(post("/api/auth/login").param("username", username).param("password", password))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private boolean awaitRelease() {
+        try {
+            return release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.rentalrequest.controller;
+
+import com.example.rentalrequest.model.Accessory;
+import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.model.CarImage;
+import com.example.rentalrequest.model.RentalRequest;
+import com.example.rentalrequest.model.RentalStatus;
+import com.example.rentalrequest.repository.CarRepository;
+import com.example.rentalrequest.repository.RentalRequestRepository;
+import com.example.rentalrequest.support.SqlStatementCounter;
+import com.example.rentalrequest.support.SqlStatementCounterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statement budgets for the repository-heavy endpoints. The fixture has several cars, each with several
+ * accessories and images, so an N+1 on any association shows up as a budget overrun rather than
+ * staying constant. Raise a budget only when the extra statements are intended.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(SqlStatementCounterConfig.class)
+@WithMockUser(roles = "ADMIN")
+class QueryBudgetTest {
+
+    private static final int CARS = 5;
+    private static final int CHILDREN_PER_CAR = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private RentalRequestRepository rentalRequestRepository;
+
+    private Long carId;
+    private Long accessoryId;
+    private Long requestId;
+
+    static Stream<Arguments> budgets() {
+        return Stream.of(
+                // CarController: one query for the selected columns, one per expanded association
+                budget("GET", "/api/cars", 3),
+                budget("GET", "/api/cars/simple", 1),
+                budget("GET", "/api/cars/{carId}", 3),
+                budget("GET", "/api/cars/available", 3),
+                budget("GET", "/api/cars/location/Chennai", 3),
+                budget("GET", "/api/cars?fields=id,brand,model,dailyPrice", 1),
+                budget("GET", "/api/cars/available?fields=model&expand=accessories", 2),
+                budget("GET", "/api/cars/location/Chennai?expand=", 1),
+
+                // AccessoryController: the owning car is never loaded
+                budget("GET", "/api/accessories", 1),
+                budget("GET", "/api/accessories/{accessoryId}", 1),
+                budget("GET", "/api/accessories/car/{carId}", 1),
+                budget("GET", "/api/accessories/available", 1),
+
+                // RentalRequestController
+                budget("GET", "/api/rentals", 1),
+                budget("GET", "/api/rentals/{requestId}", 1),
+                budget("GET", "/api/rentals/pending", 1),
+                budget("GET", "/api/rentals/pending?size=2", 1),
+                budget("GET", "/api/rentals/pending?fields=id,status", 1),
+                budget("GET", "/api/rentals/counts", 1),
+                // Writes include one outbox_event insert per handler (notification and fleet stats)
+                budget("POST", "/api/rentals", 3),
+                budget("POST", "/api/rentals/{requestId}/approve?carId={carId}", 6),
+                budget("POST", "/api/rentals/{requestId}/reject?reason=Unavailable", 4),
+
+                // AdminAnalyticsController: aggregates only, never the rental table
+                budget("GET", "/api/admin/analytics/fleet?groupBy=car", 1)
+        );
+    }
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < CARS; i++) {
+            Car car = new Car();
+            car.setBrand("Brand " + i);
+            car.setModel("Model " + i);
+            car.setMainLocation(i % 2 == 0 ? "Chennai" : "Bangalore");
+            car.setDailyPrice(BigDecimal.valueOf(2000 + i * 100L));
+            car.setAvailable(true);
+            for (int j = 0; j < CHILDREN_PER_CAR; j++) {
+                Accessory accessory = new Accessory();
+                accessory.setName("Accessory " + i + "-" + j);
+                accessory.setAvailable(true);
+                accessory.setCar(car);
+                car.getAccessories().add(accessory);
+
+                CarImage image = new CarImage();
+                image.setImageUrl("http://localhost/images/" + i + "-" + j + ".jpg");
+                image.setCar(car);
+                car.getImages().add(image);
+            }
+            Car saved = carRepository.save(car);
+            if (carId == null) {
+                carId = saved.getId();
+                accessoryId = saved.getAccessories().iterator().next().getId();
+            }
+        }
+
+        for (int i = 0; i < CARS; i++) {
+            RentalRequest rental = new RentalRequest();
+            rental.setCustomerName("Customer " + i);
+            rental.setPhoneNumber("+91 90000000" + i);
+            rental.setEmail("customer" + i + "@example.com");
+            rental.setCarModel("Brand " + i + " Model " + i);
+            rental.setPickupDateTime(LocalDateTime.now().plusDays(1 + i));
+            rental.setDropDateTime(LocalDateTime.now().plusDays(3 + i));
+            rental.setStatus(RentalStatus.PENDING);
+            RentalRequest saved = rentalRequestRepository.save(rental);
+            if (requestId == null) {
+                requestId = saved.getId();
+            }
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        rentalRequestRepository.deleteAll();
+        carRepository.deleteAll();
+    }
+
+    @ParameterizedTest(name = "{0} {1} <= {2} statements")
+    @MethodSource("budgets")
+    void staysWithinStatementBudget(String method, String path, int budget) throws Exception {
+        String uri = path.replace("{carId}", carId.toString())
+                .replace("{accessoryId}", accessoryId.toString())
+                .replace("{requestId}", requestId.toString());
+
+        MockHttpServletRequestBuilder request = request(HttpMethod.valueOf(method), uri);
+        if (uri.equals("/api/rentals")) {
+            request.contentType(MediaType.APPLICATION_JSON).content(rentalRequestJson());
+        }
+
+        SqlStatementCounter.record(() -> mockMvc.perform(request).andExpect(status().is2xxSuccessful()))
+                .assertWithinBudget(method + " " + path, budget);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private static Arguments budget(String method, String path, int statements) {
+        return Arguments.of(method, path, statements);
+    }
+
+    private static String rentalRequestJson() {
+        LocalDateTime pickup = LocalDateTime.now().plusDays(2).withNano(0);
+        return """
+                {"customerName": "Budget Customer", "phoneNumber": "+91 9876543210", "email": "budget@example.com",
+                 "carModel": "Brand 0 Model 0", "pickupDateTime": "%s", "dropDateTime": "%s"}
+                """.formatted(pickup, pickup.plusDays(3));
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.rentalrequest.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a realistic traffic mix against a fully booted application and records per-endpoint throughput
+ * and latency percentiles. Tuned with -Dloadtest.durationSeconds, -Dloadtest.warmupSeconds,
+ * -Dloadtest.concurrency and -Dloadtest.cars; run with {@code ./mvnw test -Pload-test}.
+ */
+@Tag("load")
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(LocalObjectStoreConfig.class)
+@Slf4j
+class LoadTestHarness {
+
+    private static final Path REPORT_DIR = Path.of("target", "load-test");
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private enum Operation {
+        BROWSE_CATALOG("GET /api/cars", 30),
+        AVAILABLE_CARS("GET /api/cars/available", 10),
+        CAR_DETAIL("GET /api/cars/{id}", 25),
+        SUBMIT_RENTAL("POST /api/rentals", 18),
+        ADMIN_PENDING("GET /api/rentals/pending", 7),
+        ADMIN_DECISION("POST /api/rentals/{id}/approve|reject", 7),
+        UPLOAD_IMAGE("POST /api/cars/{id}/upload-images", 3);
+
+        final String label;
+        final int weight;
+
+        Operation(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    private static final class OperationStats {
+        final Histogram latencyMicros = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        final LongAdder success = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 30);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 5);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+    private final int carCount = Integer.getInteger("loadtest.cars", 50);
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Queue<Long> pendingRequestIds = new ConcurrentLinkedQueue<>();
+    private final List<Long> carIds = new ArrayList<>();
+    private String adminToken;
+
+    @Test
+    void runMixedWorkload() throws Exception {
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+
+        adminToken = login("sri", "ram123");
+        seedCars();
+
+        long warmupEnds = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long deadline = warmupEnds + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    Operation operation = pickOperation();
+                    long started = System.nanoTime();
+                    int status = execute(operation);
+                    if (started >= warmupEnds) {
+                        record(operation, status, System.nanoTime() - started);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        assertThat(workers.awaitTermination(durationSeconds + warmupSeconds + 60L, TimeUnit.SECONDS)).isTrue();
+
+        long total = writeReport();
+        assertThat(total).isPositive();
+    }
+
+    // --------------------- Workload ---------------------
+
+    private Operation pickOperation() {
+        int totalWeight = 0;
+        for (Operation operation : Operation.values()) {
+            totalWeight += operation.weight;
+        }
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : Operation.values()) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return Operation.BROWSE_CATALOG;
+    }
+
+    private int execute(Operation operation) {
+        try {
+            return switch (operation) {
+                case BROWSE_CATALOG -> send(get("/api/cars")).statusCode();
+                case AVAILABLE_CARS -> send(get("/api/cars/available")).statusCode();
+                case CAR_DETAIL -> send(get("/api/cars/" + randomCarId())).statusCode();
+                case SUBMIT_RENTAL -> submitRental();
+                case ADMIN_PENDING -> send(admin(get("/api/rentals/pending"))).statusCode();
+                case ADMIN_DECISION -> decideRental();
+                case UPLOAD_IMAGE -> uploadImage();
+            };
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private int submitRental() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime pickup = LocalDateTime.now().plusDays(random.nextInt(1, 30)).withNano(0);
+        Map<String, Object> body = Map.of(
+                "customerName", "Load Customer " + random.nextInt(100_000),
+                "phoneNumber", "+91 9" + random.nextInt(100_000_000, 999_999_999),
+                "email", "customer" + random.nextInt(100_000) + "@example.com",
+                "carModel", "Model " + random.nextInt(carCount),
+                "pickupDateTime", pickup.toString(),
+                "dropDateTime", pickup.plusDays(random.nextInt(1, 10)).toString()
+        );
+
+        HttpResponse<String> response = send(json(post("/api/rentals"), body));
+        if (response.statusCode() == 201) {
+            Map<String, Object> created = readMap(response.body());
+            if (created.get("requestId") instanceof Number id) {
+                pendingRequestIds.add(id.longValue());
+            }
+        }
+        return response.statusCode();
+    }
+
+    private int decideRental() throws Exception {
+        Long requestId = pendingRequestIds.poll();
+        if (requestId == null) {
+            return send(admin(get("/api/rentals/pending"))).statusCode();
+        }
+        // Most requests are rejected so the fleet does not run out of available cars mid-run
+        String path = ThreadLocalRandom.current().nextInt(4) == 0
+                ? "/api/rentals/" + requestId + "/approve?carId=" + randomCarId()
+                : "/api/rentals/" + requestId + "/reject?reason=" + URLEncoder.encode("No cars left", StandardCharsets.UTF_8);
+        return send(admin(post(path).POST(HttpRequest.BodyPublishers.noBody()))).statusCode();
+    }
+
+    private int uploadImage() throws Exception {
+        String boundary = "----loadtest" + System.nanoTime();
+        byte[] image = new byte[16 * 1024];
+        ThreadLocalRandom.current().nextBytes(image);
+
+        byte[] head = ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"files\"; filename=\"car.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+
+        HttpRequest request = admin(post("/api/cars/" + randomCarId() + "/upload-images")
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(head, image, tail))));
+        return send(request).statusCode();
+    }
+
+    // --------------------- Setup ---------------------
+
+    private String login(String username, String password) throws Exception {
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        HttpResponse<String> response = send(post("/api/auth/login")
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)));
+        assertThat(response.statusCode()).isEqualTo(200);
+        return (String) readMap(response.body()).get("token");
+    }
+
+    private void seedCars() throws Exception {
+        String[] brands = {"Toyota", "Honda", "Hyundai", "Suzuki", "Mahindra"};
+        String[] locations = {"Chennai", "Bangalore", "Hyderabad", "Mumbai"};
+        for (int i = 0; i < carCount; i++) {
+            Map<String, Object> car = Map.of(
+                    "brand", brands[i % brands.length],
+                    "model", "Model " + i,
+                    "fuel", "Petrol",
+                    "carType", "Sedan",
+                    "plateNumber", "LT-" + (1000 + i),
+                    "mainLocation", locations[i % locations.length],
+                    "passengers", 5,
+                    "dailyPrice", 2000 + i * 10,
+                    "available", true
+            );
+            HttpResponse<String> response = send(admin(json(post("/api/cars"), car)));
+            assertThat(response.statusCode()).isEqualTo(201);
+            carIds.add(((Number) readMap(response.body()).get("carId")).longValue());
+        }
+    }
+
+    // --------------------- Reporting ---------------------
+
+    private void record(Operation operation, int status, long elapsedNanos) {
+        OperationStats operationStats = stats.get(operation);
+        operationStats.latencyMicros.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), MAX_LATENCY_MICROS));
+        if (status < 0) {
+            operationStats.failures.increment();
+        } else if (status >= 500) {
+            operationStats.serverErrors.increment();
+        } else if (status >= 400) {
+            operationStats.clientErrors.increment();
+        } else {
+            operationStats.success.increment();
+        }
+    }
+
+    private long writeReport() throws IOException {
+        String mode = virtualThreads ? "virtual" : "platform";
+        LocalDateTime runAt = LocalDateTime.now().withNano(0);
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Load test %s | mode=%s concurrency=%d duration=%ds warmup=%ds cars=%d%n%n",
+                runAt, mode, concurrency, durationSeconds, warmupSeconds, carCount));
+        report.append(String.format("%-40s %9s %9s %8s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "2xx/3xx", "4xx", "5xx", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+
+        StringBuilder csv = new StringBuilder();
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            OperationStats s = stats.get(operation);
+            Histogram h = s.latencyMicros;
+            long count = h.getTotalCount();
+            total += count;
+            double throughput = count / (double) durationSeconds;
+
+            report.append(String.format("%-40s %9d %9.1f %8d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.label, count, throughput, s.success.sum(), s.clientErrors.sum(),
+                    s.serverErrors.sum() + s.failures.sum(),
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                    millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue())));
+
+            csv.append(String.format("%s,%s,%s,%d,%d,%.1f,%.2f,%.2f,%.2f%n", runAt, operation.name(), mode,
+                    concurrency, count, throughput, millis(h.getValueAtPercentile(50)),
+                    millis(h.getValueAtPercentile(99)), millis(h.getMaxValue())));
+        }
+        report.append(String.format("%nTotal: %d requests, %.1f req/s%n", total, total / (double) durationSeconds));
+
+        Files.createDirectories(REPORT_DIR);
+        Path reportFile = REPORT_DIR.resolve("report-" + mode + ".txt");
+        Files.writeString(reportFile, report);
+
+        // One line per endpoint and run, so platform and virtual-thread runs can be compared side by side
+        Path summary = REPORT_DIR.resolve("summary.csv");
+        if (!Files.exists(summary)) {
+            Files.writeString(summary, "timestamp,endpoint,mode,concurrency,requests,req_per_s,p50_ms,p99_ms,max_ms\n");
+        }
+        Files.writeString(summary, csv, StandardOpenOption.APPEND);
+
+        log.info("Load test report written to {}:{}{}", reportFile.toAbsolutePath(), System.lineSeparator(), report);
+        return total;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    // --------------------- HTTP helpers ---------------------
+
+    private long randomCarId() {
+        return carIds.get(ThreadLocalRandom.current().nextInt(carIds.size()));
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(Duration.ofSeconds(30)).GET();
+    }
+
+    private HttpRequest.Builder post(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpRequest.Builder json(HttpRequest.Builder builder, Object body) throws IOException {
+        return builder.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+    }
+
+    private HttpRequest admin(HttpRequest.Builder builder) {
+        return builder.header("Authorization", "Bearer " + adminToken).build();
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder builder) throws IOException, InterruptedException {
+        return send(builder.build());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Map<String, Object> readMap(String body) throws IOException {
+        return objectMapper.readValue(body, new TypeReference<>() { });
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.rentalrequest.loadtest;
+
+import com.example.rentalrequest.service.S3Service;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Replaces S3 with a directory under target/, so image uploads exercise the full request path offline.
+ */
+@TestConfiguration
+public class LocalObjectStoreConfig {
+
+    @Bean
+    @Primary
+    public S3Service localObjectStore() throws IOException {
+        return new LocalObjectStore(Files.createDirectories(Path.of("target", "load-test", "object-store")));
+    }
+
+    static class LocalObjectStore extends S3Service {
+
+        private final Path root;
+
+        LocalObjectStore(Path root) {
+            this.root = root;
+        }
+
+        @Override
+        public String uploadFile(MultipartFile file) throws IOException {
+            String key = UUID.randomUUID() + "_" + file.getOriginalFilename();
+            file.transferTo(root.resolve(key));
+            return "http://localhost/object-store/" + key;
+        }
+    }
+}
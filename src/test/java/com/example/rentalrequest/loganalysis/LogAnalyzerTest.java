@@ -0,0 +1,93 @@
+package com.example.rentalrequest.loganalysis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogAnalyzerTest {
+
+    private static final String LAYOUT = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+    @TempDir
+    Path logDir;
+
+    @Test
+    void parsesTheConfiguredFileLayout() {
+        LogPattern.LogLine line = new LogPattern(LAYOUT)
+                .parse("2025-08-16 00:03:49 [http-nio-8080-exec-1] INFO  c.e.r.service.CarService - Fetching cars");
+
+        assertThat(line).isNotNull();
+        assertThat(line.thread()).isEqualTo("http-nio-8080-exec-1");
+        assertThat(line.level()).isEqualTo("INFO");
+        assertThat(line.logger()).isEqualTo("c.e.r.service.CarService");
+        assertThat(line.message()).isEqualTo("Fetching cars");
+        assertThat(new LogPattern(LAYOUT).parse("\tat com.example.Foo.bar(Foo.java:10)")).isNull();
+    }
+
+    @Test
+    void mergesArchivesWithTheLiveFile() throws Exception {
+        writeGzip("app.log.2025-08-15.0.gz", """
+                2025-08-15 10:00:00 [main] INFO  c.e.r.RentalrequestApplication - Starting RentalrequestApplication using Java 24
+                2025-08-15 10:00:04 [main] INFO  com.zaxxer.hikari.HikariDataSource - HikariPool-1 - Start completed.
+                2025-08-15 10:00:09 [main] INFO  o.s.b.w.e.tomcat.TomcatWebServer - Tomcat started on port 8080 (http)
+                2025-08-15 10:00:10 [main] INFO  c.e.r.RentalrequestApplication - Started RentalrequestApplication in 10.5 seconds
+                """);
+        Files.writeString(logDir.resolve("app.log"), """
+                2025-08-16 09:00:00 [exec-1] ERROR c.e.r.service.CarService - Failed to save car
+                org.springframework.dao.DataIntegrityViolationException: could not execute statement
+                \tat com.example.Foo.bar(Foo.java:10)
+                Caused by: java.sql.SQLException: Duplicate entry
+                2025-08-16 09:00:01 [exec-2] WARN  c.e.r.service.CarService - Slow query
+                """);
+
+        LogAnalyzer analyzer = new LogAnalyzer(new LogPattern(LAYOUT), "requestId", 100, 2);
+        LogStats stats = analyzer.analyze(LogAnalyzer.collectFiles(List.of(logDir)));
+
+        assertThat(stats.getRecords()).isEqualTo(6);
+        assertThat(stats.getContinuationLines()).isEqualTo(3);
+        assertThat(stats.getByLevel()).containsEntry("INFO", 4L).containsEntry("ERROR", 1L).containsEntry("WARN", 1L);
+        assertThat(stats.getProblemsByLogger()).containsEntry("ERROR c.e.r.service.CarService", 1L);
+        assertThat(stats.getExceptions()).containsEntry("org.springframework.dao.DataIntegrityViolationException", 1L);
+        assertThat(stats.getRootCauses()).containsEntry("java.sql.SQLException", 1L);
+
+        assertThat(stats.getStartups()).singleElement().satisfies(run -> {
+            assertThat(run.getReportedMillis()).isEqualTo(10_500L);
+            assertThat(run.getPhaseOffsetsMillis()).containsEntry("datasource", 4000L).containsEntry("tomcat", 9000L);
+        });
+    }
+
+    @Test
+    void measuresRequestLatencyFromCorrelationIds() throws Exception {
+        String layout = "%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] [%X{requestId}] %-5level %logger - %msg%n";
+        Files.writeString(logDir.resolve("app.log"), """
+                2025-08-16 09:00:00.000 [exec-1] [a] INFO  web - start
+                2025-08-16 09:00:00.010 [exec-2] [b] INFO  web - start
+                2025-08-16 09:00:00.120 [exec-1] [a] INFO  web - done
+                2025-08-16 09:00:00.900 [exec-2] [b] INFO  web - done
+                2025-08-16 09:00:01.000 [scheduling-1] [] INFO  job - tick
+                """);
+
+        LogStats stats = new LogAnalyzer(new LogPattern(layout), "requestId", 100, 1)
+                .analyze(List.of(logDir.resolve("app.log")));
+
+        assertThat(stats.getRecords()).isEqualTo(5);
+        assertThat(stats.getLatencyCount()).isEqualTo(2);
+        assertThat(stats.getLatencyMaxMillis()).isEqualTo(890);
+        assertThat(stats.getLatencyPercentileMillis(0.5)).isBetween(120L, 256L);
+    }
+
+    private void writeGzip(String name, String content) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(logDir.resolve(name)))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.rentalrequest.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Applies the Flyway migrations to an empty MySQL-mode H2 database and checks that the SQL shape of each hot
+ * repository query is planned through its intended index rather than a table scan. Data migrations are checked
+ * against their own databases, stopped at the version before and seeded with the rows they have to convert.
+ */
+class SchemaMigrationTest {
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrate() {
+        DataSource dataSource = database("migrations");
+        flyway(dataSource, "latest").migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', quoteCharacter = '"', textBlock = """
+            pending queue, first page                 | SELECT * FROM rental_request WHERE status_code = 0 ORDER BY pickup_date_time, id | idx_rental_request_status_pickup_id
+            pending queue, next page                  | SELECT * FROM rental_request WHERE status_code = 0 AND (pickup_date_time > TIMESTAMP '2030-01-01 10:00:00' OR (pickup_date_time = TIMESTAMP '2030-01-01 10:00:00' AND id > 42)) ORDER BY pickup_date_time, id | idx_rental_request_status_pickup_id
+            CarRepository.findByMainLocation          | SELECT * FROM car WHERE main_location = 'Chennai'                                 | idx_car_location
+            CarRepository.findByBrand                 | SELECT * FROM car WHERE brand = 'Toyota'                                          | idx_car_brand
+            available cars in a location              | SELECT * FROM car WHERE available = TRUE AND main_location = 'Chennai'            | idx_car_available_location
+            AccessoryRepository.findByCarId           | SELECT * FROM accessory WHERE car_id = 1                                          | idx_accessory_car_available
+            Car.images                                | SELECT * FROM car_image WHERE car_id = 1                                          | idx_car_image_car
+            UserRepository.findByUsername             | SELECT * FROM user WHERE username = 'sri'                                         | uk_user_username
+            IdempotencyRecordRepository.deleteExpired | SELECT * FROM idempotency_record WHERE expires_at < CURRENT_TIMESTAMP             | idx_idempotency_record_expires
+            RentalRequestRepository.findByTrackingId  | SELECT * FROM rental_request WHERE tracking_id = 'abc'                            | uk_rental_request_tracking_id
+            cache invalidation purge                  | SELECT * FROM cache_invalidation WHERE created_at < TIMESTAMP '2030-01-01 10:00:00' | idx_cache_invalidation_created_at
+            accessory reservations of a request       | SELECT * FROM accessory_reservation WHERE rental_request_id = 1                   | idx_accessory_reservation_request
+            """)
+    void hotQueryUsesIndex(String query, String sql, String expectedIndex) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+        assertThat(plan).as("plan for %s", query).containsIgnoringCase(expectedIndex);
+        assertThat(plan).as("plan for %s", query).doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void statusStringsAreConvertedToTheirCodes() {
+        DataSource dataSource = database("status-" + UUID.randomUUID());
+        flyway(dataSource, "2").migrate();
+        JdbcTemplate legacy = new JdbcTemplate(dataSource);
+        insertStatuses(legacy, "PENDING", "approved", " Rejected ");
+
+        flyway(dataSource, "latest").migrate();
+
+        assertThat(legacy.queryForList("SELECT status_code FROM rental_request ORDER BY id", Integer.class))
+                .containsExactly(0, 1, 2);
+    }
+
+    @ParameterizedTest(name = "status {0}")
+    @NullSource
+    @ValueSource(strings = {"CANCELLED", ""})
+    void anUnmappedStatusFailsTheMigrationBeforeAnythingChanges(String status) {
+        DataSource dataSource = database("status-" + UUID.randomUUID());
+        flyway(dataSource, "2").migrate();
+        JdbcTemplate legacy = new JdbcTemplate(dataSource);
+        insertStatuses(legacy, "PENDING", status);
+
+        assertThatThrownBy(() -> flyway(dataSource, "latest").migrate())
+                .isInstanceOf(FlywayException.class)
+                .hasMessageFindingMatch("(?i)ck_rental_request_status_known");
+
+        // Still at V2 with the status strings in place, so the rows can be fixed and the migration run again
+        assertThat(legacy.queryForList("SELECT status FROM rental_request ORDER BY id", String.class))
+                .containsExactly("PENDING", status);
+        legacy.update("UPDATE rental_request SET status = 'REJECTED' WHERE status IS NULL OR status <> 'PENDING'");
+        flyway(dataSource, "latest").repair();
+        flyway(dataSource, "latest").migrate();
+        assertThat(legacy.queryForList("SELECT status_code FROM rental_request ORDER BY id", Integer.class))
+                .containsExactly(0, 2);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER,YEAR", "sa", "");
+    }
+
+    private static Flyway flyway(DataSource dataSource, String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .target(target)
+                .load();
+    }
+
+    private static void insertStatuses(JdbcTemplate jdbc, String... statuses) {
+        List<Object[]> rows = Arrays.stream(statuses).map(status -> new Object[]{status}).toList();
+        jdbc.batchUpdate("INSERT INTO rental_request (customer_name, status) VALUES ('Legacy Customer', ?)", rows);
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.dto.AccessoryStockDTO;
+import com.example.rentalrequest.dto.RentalRequestDTO;
+import com.example.rentalrequest.model.AccessoryReservation;
+import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.model.RentalStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reserves pooled accessories through the rental request lifecycle against the embedded database and checks
+ * the per-day counters and the in-memory availability agree.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AccessoryInventoryTest {
+
+    private static final String LOCATION = "Chennai";
+    private static final String CHILD_SEAT = "Child seat";
+
+    @Autowired
+    private AccessoryInventoryService accessoryInventoryService;
+
+    @Autowired
+    private RentalRequestService rentalRequestService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        List.of("accessory_reservation", "accessory_stock_day", "accessory_stock", "outbox_event", "rental_request",
+                        "accessory", "car")
+                .forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+    }
+
+    @Test
+    void approvalsReserveUntilTheStockRunsOut() {
+        createStock(2);
+        Long first = createRequest(5, 7);
+        Long second = createRequest(6, 8);
+        Long third = createRequest(7, 9);
+        Long later = createRequest(10, 11);
+
+        rentalRequestService.approveRequest(first, createCar());
+        rentalRequestService.approveRequest(second, createCar());
+        Long thirdCar = createCar();
+
+        assertThatThrownBy(() -> rentalRequestService.approveRequest(third, thirdCar))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Not enough accessories");
+        // Rolled back as a whole: the request and its car are untouched
+        assertThat(rentalRequestService.getRequestById(third).getStatus()).isEqualTo(RentalStatus.PENDING);
+        assertThat(carService.getCarById(thirdCar).isAvailable()).isTrue();
+
+        assertThat(available(day(5), day(5))).isEqualTo(1);
+        assertThat(available(day(6), day(7))).isZero();
+        assertThat(reservedOn(day(7))).isEqualTo(2);
+
+        rentalRequestService.approveRequest(later, thirdCar);
+        assertThat(reservedOn(day(10))).isEqualTo(1);
+    }
+
+    @Test
+    void rejectionAndReleaseGiveUnitsBack() {
+        createStock(1);
+        Long approved = createRequest(3, 4);
+        Long rejected = createRequest(3, 4);
+        rentalRequestService.approveRequest(approved, createCar());
+        assertThat(available(day(3), day(4))).isZero();
+
+        rentalRequestService.rejectRequest(rejected, "No seats");
+        assertThat(statuses(rejected)).containsExactly(AccessoryReservation.Status.CANCELLED);
+
+        // Drop-off plus a negative buffer is already in the past, so the car and its accessories come back now
+        rentalRequestService.releaseCar(approved, Duration.ofDays(-30));
+
+        assertThat(statuses(approved)).containsExactly(AccessoryReservation.Status.RELEASED);
+        assertThat(reservedOn(day(3))).isZero();
+        assertThat(available(day(3), day(4))).isEqualTo(1);
+    }
+
+    @Test
+    void staleCopyDoesNotTurnAwayAnApprovalThatFits() {
+        createStock(1);
+        rentalRequestService.approveRequest(createRequest(3, 4), createCar());
+        assertThat(available(day(3), day(4))).isZero();
+
+        // Given back on another node whose invalidation hasn't arrived yet: this node's copy still says none free
+        jdbcTemplate.update("UPDATE accessory_stock_day SET reserved = 0");
+        assertThat(available(day(3), day(4))).isZero();
+
+        rentalRequestService.approveRequest(createRequest(3, 4), createCar());
+        assertThat(reservedOn(day(3))).isEqualTo(1);
+    }
+
+    @Test
+    void quantityCannotDropBelowWhatIsReserved() {
+        Long stock = createStock(2);
+        rentalRequestService.approveRequest(createRequest(2, 3, 2), createCar());
+
+        assertThatThrownBy(() -> accessoryInventoryService.updateStock(stock, new AccessoryStockDTO(null, CHILD_SEAT, 1)))
+                .isInstanceOf(IllegalStateException.class);
+
+        accessoryInventoryService.updateStock(stock, new AccessoryStockDTO(null, CHILD_SEAT, 3));
+        assertThat(available(day(2), day(3))).isEqualTo(1);
+    }
+
+    @Test
+    void unknownAccessoriesAreRejected() {
+        createStock(1);
+
+        assertThatThrownBy(() -> rentalRequestService.createRentalRequest(rental(2, 3, Map.of("Roof box", 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void concurrentApprovalsNeverOverbook() throws Exception {
+        createStock(2);
+        List<Long> requests = new ArrayList<>();
+        List<Long> cars = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(createRequest(4, 6));
+            cars.add(createCar());
+        }
+
+        List<CompletableFuture<Boolean>> approvals = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(6)) {
+            for (int i = 0; i < requests.size(); i++) {
+                Long request = requests.get(i);
+                Long car = cars.get(i);
+                approvals.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        rentalRequestService.approveRequest(request, car);
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                }, executor));
+            }
+        }
+
+        assertThat(approvals.stream().filter(CompletableFuture::join).count()).isEqualTo(2);
+        assertThat(reservedOn(day(5))).isEqualTo(2);
+        assertThat(available(day(4), day(6))).isZero();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private Long createStock(int quantity) {
+        return accessoryInventoryService.createStock(new AccessoryStockDTO(LOCATION, CHILD_SEAT, quantity)).getId();
+    }
+
+    private Long createCar() {
+        Car car = new Car();
+        car.setBrand("Toyota");
+        car.setModel("Innova");
+        car.setMainLocation(LOCATION);
+        car.setDailyPrice(BigDecimal.valueOf(2500));
+        car.setAvailable(true);
+        return carService.createCar(car).getId();
+    }
+
+    private Long createRequest(int pickupInDays, int dropInDays) {
+        return createRequest(pickupInDays, dropInDays, 1);
+    }
+
+    private Long createRequest(int pickupInDays, int dropInDays, int seats) {
+        return (Long) rentalRequestService.createRentalRequest(rental(pickupInDays, dropInDays, Map.of(CHILD_SEAT, seats))).get("id");
+    }
+
+    private static RentalRequestDTO rental(int pickupInDays, int dropInDays, Map<String, Integer> accessories) {
+        RentalRequestDTO dto = new RentalRequestDTO();
+        dto.setCustomerName("Customer " + pickupInDays);
+        dto.setPhoneNumber("+91 9000000000");
+        dto.setEmail("customer@example.com");
+        dto.setLocation(LOCATION);
+        dto.setPickupDateTime(day(pickupInDays).atTime(10, 0));
+        dto.setDropDateTime(day(dropInDays).atTime(18, 0));
+        dto.setAccessories(accessories);
+        return dto;
+    }
+
+    private static LocalDate day(int inDays) {
+        return LocalDateTime.now().plusDays(inDays).toLocalDate();
+    }
+
+    private int available(LocalDate from, LocalDate to) {
+        return (Integer) accessoryInventoryService.getStockAt(LOCATION, from, to).get(0).get("available");
+    }
+
+    private int reservedOn(LocalDate day) {
+        Integer reserved = jdbcTemplate.queryForObject("SELECT MAX(reserved) FROM accessory_stock_day WHERE stock_date = ?",
+                Integer.class, day);
+        return reserved == null ? 0 : reserved;
+    }
+
+    private List<AccessoryReservation.Status> statuses(Long requestId) {
+        return accessoryInventoryService.getReservations(requestId).stream().map(AccessoryReservation::getStatus).toList();
+    }
+}
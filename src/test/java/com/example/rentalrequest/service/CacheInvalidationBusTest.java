@@ -0,0 +1,169 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.CacheInvalidation;
+import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.model.User;
+import com.example.rentalrequest.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plays the other node by writing change-log rows with a foreign origin straight into {@code cache_invalidation},
+ * after changing the underlying rows behind the caches' backs. The scheduled flush and poll are slowed down so
+ * the tests drive them.
+ */
+@SpringBootTest(properties = {
+        "app.cache.invalidation.flush-interval-ms=3600000",
+        "app.cache.invalidation.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class CacheInvalidationBusTest {
+
+    private static final String OTHER_NODE = "other-node";
+    private static final String USERNAME = "cache-test-user";
+
+    @Autowired
+    private CacheInvalidationBus bus;
+
+    @Autowired
+    private SchedulerLeaseService schedulerLeaseService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> createdCars = new ArrayList<>();
+
+    @BeforeEach
+    void catchUp() {
+        // Places the change-log cursor before anything a test writes
+        bus.poll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        createdCars.forEach(carService::deleteCar);
+        userRepository.findByUsername(USERNAME).ifPresent(userRepository::delete);
+        bus.flush();
+        jdbcTemplate.update("DELETE FROM cache_invalidation");
+    }
+
+    @Test
+    void invalidationsAreQueuedAtCommitAndCoalesced() {
+        transactionTemplate.executeWithoutResult(status -> {
+            bus.publish(CacheInvalidation.of(CacheInvalidation.CAR, 1L));
+            bus.publish(CacheInvalidation.of(CacheInvalidation.CAR, 1L));
+            bus.publish(CacheInvalidation.of(CacheInvalidation.ACCESSORY, 7L));
+            bus.publish(CacheInvalidation.of(CacheInvalidation.CAR, 2L));
+            assertThat(bus.getQueueDepth()).isZero();
+        });
+        assertThat(bus.getQueueDepth()).isEqualTo(3);
+
+        bus.flush();
+
+        assertThat(bus.getQueueDepth()).isZero();
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT region, entity_key FROM cache_invalidation WHERE origin = ? ORDER BY id", schedulerLeaseService.getOwner());
+        assertThat(rows).extracting(row -> row.get("region") + ":" + row.get("entity_key"))
+                .containsExactly("car:1", "car:2", "accessory:7");
+    }
+
+    @Test
+    void rolledBackChangesAreNotPublished() {
+        transactionTemplate.executeWithoutResult(status -> {
+            bus.publish(CacheInvalidation.of(CacheInvalidation.CAR, 1L));
+            status.setRollbackOnly();
+        });
+
+        assertThat(bus.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void anotherNodesCarChangeEvictsTheSecondLevelCache() {
+        Long id = createCar();
+        assertThat(carService.getCarById(id).getModel()).isEqualTo("Innova");
+
+        jdbcTemplate.update("UPDATE car SET model = 'Crysta' WHERE id = ?", id);
+        // Still served from the second-level cache
+        assertThat(carService.getCarById(id).getModel()).isEqualTo("Innova");
+
+        appendFromOtherNode(CacheInvalidation.CAR, id.toString());
+        bus.poll();
+
+        assertThat(carService.getCarById(id).getModel()).isEqualTo("Crysta");
+    }
+
+    @Test
+    void anotherNodesUserChangeEvictsTheUserCache() {
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setPassword("old-hash");
+        user.setRole(User.Role.ADMIN);
+        userRepository.save(user);
+        assertThat(userDetailsService.loadUserByUsername(USERNAME).getPassword()).isEqualTo("old-hash");
+
+        jdbcTemplate.update("UPDATE user SET password = 'new-hash' WHERE username = ?", USERNAME);
+        assertThat(userDetailsService.loadUserByUsername(USERNAME).getPassword()).isEqualTo("old-hash");
+
+        appendFromOtherNode(CacheInvalidation.USER, USERNAME);
+        bus.poll();
+
+        UserDetails reloaded = userDetailsService.loadUserByUsername(USERNAME);
+        assertThat(reloaded.getPassword()).isEqualTo("new-hash");
+    }
+
+    @Test
+    void ownInvalidationsAreNotAppliedAgain() {
+        long receivedBefore = bus.getReceivedCount();
+        bus.publish(CacheInvalidation.of(CacheInvalidation.CAR, 1L));
+        bus.flush();
+
+        bus.poll();
+
+        assertThat(bus.getReceivedCount()).isEqualTo(receivedBefore);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private Long createCar() {
+        Car car = new Car();
+        car.setBrand("Toyota");
+        car.setModel("Innova");
+        car.setMainLocation("Chennai");
+        car.setDailyPrice(BigDecimal.valueOf(2500));
+        car.setAvailable(true);
+        Long id = carService.createCar(car).getId();
+        createdCars.add(id);
+        return id;
+    }
+
+    private void appendFromOtherNode(String region, String key) {
+        jdbcTemplate.update("INSERT INTO cache_invalidation (region, entity_key, origin, created_at)"
+                + " VALUES (?, ?, ?, CURRENT_TIMESTAMP(6))", region, key, OTHER_NODE);
+    }
+}
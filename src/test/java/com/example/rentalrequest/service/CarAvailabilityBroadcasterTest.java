@@ -0,0 +1,158 @@
+package com.example.rentalrequest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Opens real streams on {@code /api/cars/stream} and publishes changes straight into the broadcaster. Buffers
+ * and the replay ring are tiny so a resume that is longer than the live buffer is exercised, and only two
+ * streams may be open at once.
+ */
+@SpringBootTest(properties = {
+        "app.cars.stream.buffer-size=4",
+        "app.cars.stream.replay-size=16",
+        "app.cars.stream.max-subscribers=2",
+        "app.cars.stream.reconnect-ms=3000",
+        "app.cars.stream.heartbeat-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CarAvailabilityBroadcasterTest {
+
+    private static final AtomicLong CAR_IDS = new AtomicLong(1000);
+
+    @Autowired
+    private CarAvailabilityBroadcaster broadcaster;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final List<MvcResult> streams = new ArrayList<>();
+
+    @AfterEach
+    void closeStreams() throws Exception {
+        for (MvcResult stream : streams) {
+            stream.getRequest().getAsyncContext().complete();
+        }
+        awaitSubscribers(0);
+    }
+
+    @Test
+    void changesFanOutToEverySubscriber() throws Exception {
+        MvcResult first = open(null);
+        MvcResult second = open(null);
+        awaitSubscribers(2);
+
+        long carId = publish();
+
+        assertThat(await(first, carId)).contains("event:car");
+        assertThat(await(second, carId)).contains("event:car");
+    }
+
+    @Test
+    void reconnectsReplayMoreThanTheLiveBufferHolds() throws Exception {
+        long before = publish();
+        String lastEventId = lastEventId();
+        List<Long> missed = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            missed.add(publish());
+        }
+
+        MvcResult resumed = open(lastEventId);
+
+        String content = await(resumed, missed.get(missed.size() - 1));
+        assertThat(missed).allSatisfy(carId -> assertThat(content).contains(carJson(carId)));
+        assertThat(content).doesNotContain(carJson(before)).doesNotContain("event:reset");
+        assertThat(broadcaster.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownOrExpiredIdsGetAReset() throws Exception {
+        MvcResult foreign = open("someone-else-7");
+        assertThat(await(foreign, "event:reset")).contains("event:reset");
+
+        publish();
+        String expired = lastEventId();
+        for (int i = 0; i < 20; i++) {
+            publish();
+        }
+        MvcResult late = open(expired);
+        assertThat(await(late, "event:reset")).contains("event:reset");
+    }
+
+    @Test
+    void streamsPastTheLimitAreTurnedAway() throws Exception {
+        open(null);
+        open(null);
+
+        mockMvc.perform(get("/api/cars/stream"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"));
+        assertThat(broadcaster.getRefusedCount()).isPositive();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private MvcResult open(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/api/cars/stream");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        MvcResult stream = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        streams.add(stream);
+        return stream;
+    }
+
+    private long publish() {
+        long carId = CAR_IDS.incrementAndGet();
+        broadcaster.onCarChanged(CarChangedEvent.deleted(carId));
+        return carId;
+    }
+
+    private String lastEventId() {
+        return (String) broadcaster.getStats().get("lastEventId");
+    }
+
+    private static String carJson(long carId) {
+        return "\"carId\":" + carId + ",";
+    }
+
+    private static String await(MvcResult stream, long carId) throws Exception {
+        return await(stream, carJson(carId));
+    }
+
+    private static String await(MvcResult stream, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = stream.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = stream.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (broadcaster.getSubscriberCount() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(broadcaster.getSubscriberCount()).isEqualTo(count);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.dto.RentalRequestDTO;
+import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.model.RentalRequest;
+import com.example.rentalrequest.model.RentalStatus;
+import com.example.rentalrequest.repository.RentalRequestRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a release scheduler by hand against the embedded database, with a 50 ms wheel, no release buffer and a
+ * short lease. The application's own scheduler is switched off so it never competes for the lease; another node
+ * is simulated by writing the lease row directly.
+ */
+@SpringBootTest(properties = "app.rentals.release.enabled=false")
+@ActiveProfiles("test")
+class CarReleaseSchedulerTest {
+
+    private static final long LEASE_MS = 300;
+
+    @Autowired
+    private RentalRequestRepository rentalRequestRepository;
+
+    @Autowired
+    private RentalRequestService rentalRequestService;
+
+    @Autowired
+    private SchedulerLeaseService schedulerLeaseService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private CarReleaseScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        freeLease();
+        scheduler = new CarReleaseScheduler(rentalRequestRepository, rentalRequestService, schedulerLeaseService, shardRouter);
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "bufferMinutes", 0L);
+        ReflectionTestUtils.setField(scheduler, "tickMs", 50L);
+        ReflectionTestUtils.setField(scheduler, "leaseMs", LEASE_MS);
+        ReflectionTestUtils.setField(scheduler, "syncIntervalMs", 0L);
+        ReflectionTestUtils.setField(scheduler, "retryDelayMs", 60000L);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        scheduler.stop();
+        List.of("outbox_event", "accessory_reservation", "rental_request", "accessory", "car_image", "car")
+                .forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+        freeLease();
+    }
+
+    @Test
+    void releasesTheCarWhenTheRentalEnds() throws Exception {
+        scheduler.tick();
+        Long car = createCar();
+        Long request = approvedRental(car, LocalDateTime.now().plusNanos(400_000_000));
+
+        scheduler.tick();
+        assertThat(available(car)).isFalse();
+
+        Thread.sleep(550);
+        scheduler.tick();
+
+        assertThat(available(car)).isTrue();
+        assertThat(rentalRequestService.getRequestById(request).getCarReleasedAt()).isNotNull();
+        assertThat(scheduler.getStats()).containsEntry("released", 1L).containsEntry("scheduled", 0);
+    }
+
+    @Test
+    void aMovedDropOffIsReleasedAtTheNewTime() throws Exception {
+        scheduler.tick();
+        Long car = createCar();
+        Long request = approvedRental(car, LocalDateTime.now().plusNanos(300_000_000));
+        scheduler.tick();
+
+        setDropOff(request, LocalDateTime.now().plusNanos(900_000_000));
+        Thread.sleep(450);
+        scheduler.tick();
+        // Fell due at the old time, found the later drop-off and went back on the wheel
+        assertThat(available(car)).isFalse();
+        assertThat(scheduler.getStats()).containsEntry("scheduled", 1);
+
+        Thread.sleep(650);
+        scheduler.tick();
+        assertThat(available(car)).isTrue();
+    }
+
+    @Test
+    void theNodeThatTakesOverTheLeaseReleasesWhatIsPending() throws Exception {
+        jdbcTemplate.update("UPDATE scheduler_lease SET owner = 'other-node', expires_at = ? WHERE name = ?",
+                LocalDateTime.now().plusHours(1), CarReleaseScheduler.LEASE_NAME);
+        Long car = createCar();
+        approvedRental(car, LocalDateTime.now().minusMinutes(1));
+
+        scheduler.tick();
+        assertThat(scheduler.getStats()).containsEntry("leader", false);
+        assertThat(available(car)).isFalse();
+
+        // The other node stops renewing; once its lease has lapsed this one rebuilds from the table
+        jdbcTemplate.update("UPDATE scheduler_lease SET expires_at = ? WHERE name = ?",
+                LocalDateTime.now().minusSeconds(1), CarReleaseScheduler.LEASE_NAME);
+        Thread.sleep(LEASE_MS / 2);
+        scheduler.tick();
+
+        assertThat(scheduler.getStats()).containsEntry("leader", true);
+        assertThat(available(car)).isTrue();
+    }
+
+    @Test
+    void approvingThroughAnUpdateSchedulesTheRelease() throws Exception {
+        scheduler.tick();
+        Long car = createCar();
+        Long request = (Long) rentalRequestService.createRentalRequest(rental()).get("id");
+        RentalRequest approval = new RentalRequest();
+        approval.setStatus(RentalStatus.APPROVED);
+        approval.setCarId(car);
+
+        RentalRequest approved = rentalRequestService.updateRentalRequest(request, approval);
+        assertThat(approved.getApprovedAt()).isNotNull();
+        assertThat(approved.getCarId()).isEqualTo(car);
+        assertThat(available(car)).isFalse();
+
+        setDropOff(request, LocalDateTime.now().minusMinutes(1));
+        scheduler.tick();
+        assertThat(available(car)).isTrue();
+    }
+
+    @Test
+    void deletingAnApprovedRentalFreesItsCar() {
+        Long car = createCar();
+        Long request = approvedRental(car, LocalDateTime.now().plusDays(3));
+
+        rentalRequestService.deleteRentalRequest(request);
+
+        assertThat(available(car)).isTrue();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private Long createCar() {
+        Car car = new Car();
+        car.setBrand("Toyota");
+        car.setModel("Innova");
+        car.setMainLocation("Chennai");
+        car.setDailyPrice(BigDecimal.valueOf(2500));
+        car.setAvailable(true);
+        return carService.createCar(car).getId();
+    }
+
+    private Long approvedRental(Long car, LocalDateTime dropOff) {
+        Long request = (Long) rentalRequestService.createRentalRequest(rental()).get("id");
+        rentalRequestService.approveRequest(request, car);
+        setDropOff(request, dropOff);
+        return request;
+    }
+
+    private static RentalRequestDTO rental() {
+        RentalRequestDTO dto = new RentalRequestDTO();
+        dto.setCustomerName("Release Customer");
+        dto.setPhoneNumber("+91 9000000000");
+        dto.setEmail("release@example.com");
+        dto.setLocation("Chennai");
+        dto.setPickupDateTime(LocalDateTime.now().plusDays(1));
+        dto.setDropDateTime(LocalDateTime.now().plusDays(2));
+        return dto;
+    }
+
+    private void setDropOff(Long request, LocalDateTime dropOff) {
+        jdbcTemplate.update("UPDATE rental_request SET pickup_date_time = ?, drop_date_time = ? WHERE id = ?",
+                dropOff.minusDays(1), dropOff, request);
+    }
+
+    private boolean available(Long car) {
+        return jdbcTemplate.queryForObject("SELECT available FROM car WHERE id = ?", Boolean.class, car);
+    }
+
+    private void freeLease() {
+        jdbcTemplate.update("UPDATE scheduler_lease SET owner = NULL, expires_at = ? WHERE name = ?",
+                LocalDateTime.of(1970, 1, 1, 0, 0), CarReleaseScheduler.LEASE_NAME);
+    }
+}
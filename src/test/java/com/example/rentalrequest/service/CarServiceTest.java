@@ -0,0 +1,100 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.Car;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Catalog reads with column selection and expansions against the embedded database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CarServiceTest {
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        List.of("accessory", "car_image", "car").forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+    }
+
+    @Test
+    void selectsOnlyTheRequestedFields() {
+        createCar("Chennai");
+
+        List<Map<String, Object>> cars = carService.findAvailableCars("brand, model", null);
+
+        assertThat(cars).singleElement().satisfies(car -> assertThat(car).containsOnlyKeys("brand", "model"));
+    }
+
+    @Test
+    void emptyFieldsMeanTheFullPayload() {
+        createCar("Chennai");
+
+        assertThat(carService.findAvailableCars("", null)).singleElement()
+                .satisfies(car -> assertThat(car).containsKeys("id", "brand", "dailyPrice", "accessories", "imageUrls"));
+        // An empty expand still drops the expansions
+        assertThat(carService.findAvailableCars(" ", "")).singleElement()
+                .satisfies(car -> assertThat(car).containsKey("brand").doesNotContainKeys("accessories", "imageUrls"));
+    }
+
+    @Test
+    void selectionsNamingNothingOrUnknownFieldsAreRejected() {
+        assertThatThrownBy(() -> carService.findAvailableCars(",", null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> carService.findAvailableCars("brand,colour", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("colour");
+    }
+
+    @Test
+    void locationSearchMatchesCitiesStartingWithTheName() {
+        createCar("Chennai");
+        createCar("Chennai Airport");
+        createCar("Old Chennai");
+        createCar("Bangalore");
+
+        assertThat(locations("Chennai")).containsExactly("Chennai", "Chennai Airport");
+        assertThat(locations(" Chennai Air")).containsExactly("Chennai Airport");
+    }
+
+    @Test
+    void locationSearchFallsBackToSubstringsWhenNoCityStartsWithIt() {
+        createCar("Chennai Airport");
+        createCar("Bangalore");
+
+        assertThat(locations("airport")).containsExactly("Chennai Airport");
+        assertThat(locations("Mumbai")).isEmpty();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private List<Object> locations(String search) {
+        return carService.findCarsByLocation(search, "mainLocation", null).stream().map(car -> car.get("mainLocation")).toList();
+    }
+
+    private Long createCar(String location) {
+        Car car = new Car();
+        car.setBrand("Toyota");
+        car.setModel("Innova");
+        car.setMainLocation(location);
+        car.setDailyPrice(BigDecimal.valueOf(2500));
+        car.setAvailable(true);
+        return carService.createCar(car).getId();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.dto.RentalRequestDTO;
+import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.model.OutboxEvent;
+import com.example.rentalrequest.model.RentalRequest;
+import com.example.rentalrequest.model.RentalStatus;
+import com.example.rentalrequest.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applies fleet stats deltas the way the outbox delivers them (outbox delivery itself is off in the test profile,
+ * so events stay pending until a test hands them to {@link FleetStatsHandler}) and reconciles around events that
+ * are still undelivered.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FleetStatsServiceTest {
+
+    @Autowired
+    private FleetStatsService fleetStatsService;
+
+    @Autowired
+    private FleetStatsHandler fleetStatsHandler;
+
+    @Autowired
+    private RentalRequestService rentalRequestService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        List.of("fleet_daily_stats", "fleet_stats_applied_event", "outbox_event", "accessory_reservation", "rental_request",
+                        "car")
+                .forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+    }
+
+    @Test
+    void deltasAreAppliedOncePerEvent() throws Exception {
+        Long id = createRequest();
+        deliver(id, "rental.created");
+        deliver(id, "rental.created");
+        assertThat(count(today(), "requestsCreated")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM fleet_stats_applied_event", Long.class)).isEqualTo(1);
+
+        rentalRequestService.rejectRequest(id, "No cars");
+        deliver(id, "rental.rejected");
+        assertThat(count(today(), "rejections")).isEqualTo(1);
+
+        rentalRequestService.deleteRentalRequest(id);
+        deliver(id, "rental.deleted");
+        deliver(id, "rental.deleted");
+        assertThat(count(today(), "requestsCreated")).isZero();
+        assertThat(count(today(), "rejections")).isZero();
+    }
+
+    @Test
+    void reconcileFencesEventsThatWereStillUndelivered() throws Exception {
+        Long deleted = createRequest();
+        deliver(deleted, "rental.created");
+        Long kept = createRequest();
+        rentalRequestService.deleteRentalRequest(deleted);
+
+        // Rebuilt from rental_request, which already reflects both undelivered events
+        fleetStatsService.reconcile(today(), today());
+        assertThat(count(today(), "requestsCreated")).isEqualTo(1);
+
+        deliver(kept, "rental.created");
+        deliver(deleted, "rental.deleted");
+        assertThat(count(today(), "requestsCreated")).isEqualTo(1);
+
+        // Committed after the reconciliation read, so not part of it
+        Long later = createRequest();
+        deliver(later, "rental.created");
+        deliver(kept, "rental.created");
+        assertThat(count(today(), "requestsCreated")).isEqualTo(2);
+    }
+
+    @Test
+    void fencedEventsStillApplyToDaysOutsideTheReconciledRange() throws Exception {
+        LocalDateTime created = LocalDateTime.now().minusDays(2);
+        RentalStatsFacts facts = new RentalStatsFacts(created, null, LocalDateTime.now(), null, 2, BigDecimal.ZERO);
+        fleetStatsService.apply(Long.MAX_VALUE - 1, "rental.created", facts);
+        fleetStatsService.apply(Long.MAX_VALUE - 2, "rental.rejected", facts);
+        OutboxEvent deletion = outboxEventRepository.save(new OutboxEvent(null, OutboxService.RENTAL_REQUEST, 1L,
+                "rental.deleted", FleetStatsHandler.NAME, objectMapper.writeValueAsString(Map.of("stats", facts)),
+                OutboxEvent.Status.PENDING, 0, LocalDateTime.now(), LocalDateTime.now(), null, null));
+
+        // Only today is rebuilt; the request is gone, so today has nothing
+        fleetStatsService.reconcile(today(), today());
+        fleetStatsHandler.handle(deletion);
+
+        // The creation two days ago is still subtracted, the rejection today is not subtracted twice
+        assertThat(count(created.toLocalDate(), "requestsCreated")).isZero();
+        assertThat(count(today(), "rejections")).isZero();
+    }
+
+    @Test
+    void dateEditsThroughUpdateMoveTheBookedDays() throws Exception {
+        Long id = createRequest();
+        deliver(id, "rental.created");
+        rentalRequestService.approveRequest(id, createCar());
+        deliver(id, "rental.approved");
+        assertThat(count(today(), "bookedDays")).isEqualTo(2);
+
+        RentalRequest longer = new RentalRequest();
+        longer.setDropDateTime(rentalRequestService.getRequestById(id).getDropDateTime().plusDays(3));
+        rentalRequestService.updateRentalRequest(id, longer);
+        deliver(id, "rental.updated");
+
+        assertThat(count(today(), "bookedDays")).isEqualTo(5);
+        assertThat(count(today(), "bookings")).isEqualTo(1);
+        assertThat(count(today(), "requestsCreated")).isEqualTo(1);
+    }
+
+    @Test
+    void statusEditsThroughUpdateMoveTheCounts() throws Exception {
+        Long id = createRequest();
+        deliver(id, "rental.created");
+        rentalRequestService.rejectRequest(id, "No cars");
+        deliver(id, "rental.rejected");
+        assertThat(count(today(), "rejections")).isEqualTo(1);
+
+        RentalRequest reopened = new RentalRequest();
+        reopened.setStatus(RentalStatus.PENDING);
+        rentalRequestService.updateRentalRequest(id, reopened);
+        deliver(id, "rental.updated");
+
+        assertThat(count(today(), "rejections")).isZero();
+        assertThat(count(today(), "requestsCreated")).isEqualTo(1);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private Long createCar() {
+        Car car = new Car();
+        car.setBrand("Toyota");
+        car.setModel("Innova");
+        car.setMainLocation("Chennai");
+        car.setDailyPrice(BigDecimal.valueOf(2500));
+        car.setAvailable(true);
+        return carService.createCar(car).getId();
+    }
+
+    private Long createRequest() {
+        RentalRequestDTO dto = new RentalRequestDTO();
+        dto.setCustomerName("Stats Customer");
+        dto.setPhoneNumber("+91 9000000000");
+        dto.setEmail("stats@example.com");
+        dto.setPickupDateTime(LocalDateTime.now().plusDays(3));
+        dto.setDropDateTime(LocalDateTime.now().plusDays(5));
+        return (Long) rentalRequestService.createRentalRequest(dto).get("id");
+    }
+
+    private void deliver(Long requestId, String eventType) throws Exception {
+        OutboxEvent event = outboxEventRepository.findAll().stream()
+                .filter(e -> FleetStatsHandler.NAME.equals(e.getHandler()) && requestId.equals(e.getAggregateId())
+                        && eventType.equals(e.getEventType()))
+                .findFirst()
+                .orElseThrow();
+        fleetStatsHandler.handle(event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long count(LocalDate day, String counter) {
+        List<Map<String, Object>> groups = (List<Map<String, Object>>) fleetStatsService.getFleetStats(day, day, "day").get("data");
+        return groups.isEmpty() ? 0 : ((Number) groups.get(0).get(counter)).longValue();
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now();
+    }
+}
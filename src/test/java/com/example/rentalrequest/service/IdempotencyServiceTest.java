@@ -0,0 +1,118 @@
+package com.example.rentalrequest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs idempotent submissions through the database-backed store, the one shared between nodes.
+ */
+@SpringBootTest(properties = {
+        "app.idempotency.store=database",
+        "app.idempotency.claim-lease=30s",
+        "app.idempotency.in-flight-wait-ms=300"
+})
+@ActiveProfiles("test")
+class IdempotencyServiceTest {
+
+    private static final String KEY = "rental-42";
+    private static final Map<String, Object> PAYLOAD = Map.of("customerName", "Idempotent Customer");
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JpaIdempotencyStore idempotencyStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM idempotency_record");
+    }
+
+    @Test
+    void retriesReplayTheStoredResponse() {
+        ResponseEntity<Map<String, Object>> first = idempotencyService.execute(KEY, PAYLOAD, created());
+        ResponseEntity<Map<String, Object>> retry = idempotencyService.execute(KEY, PAYLOAD, created());
+
+        assertThat(executions).hasValue(1);
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.getStatusCode().value()).isEqualTo(201);
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getBody()).containsEntry("id", 1);
+        // Kept for the replay TTL, not the claim lease
+        assertThat(expiresAt()).isAfter(LocalDateTime.now().plusHours(23));
+    }
+
+    @Test
+    void sameKeyWithADifferentPayloadIsRejected() {
+        idempotencyService.execute(KEY, PAYLOAD, created());
+
+        assertThatThrownBy(() -> idempotencyService.execute(KEY, Map.of("customerName", "Someone Else"), created()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("different request");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void failedRequestsReleaseTheKey() {
+        assertThatThrownBy(() -> idempotencyService.execute(KEY, PAYLOAD, () -> {
+            throw new IllegalStateException("No cars");
+        })).isInstanceOf(IllegalStateException.class);
+
+        idempotencyService.execute(KEY, PAYLOAD, created());
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void inFlightClaimOnlyHoldsTheKeyForItsLease() {
+        // Claimed by a node that then died before completing
+        assertThat(idempotencyStore.claim(KEY, "fingerprint", Duration.ofSeconds(30))).isTrue();
+        assertThat(expiresAt()).isBefore(LocalDateTime.now().plusSeconds(31));
+
+        assertThatThrownBy(() -> idempotencyService.execute(KEY, PAYLOAD, created()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("still being processed");
+        assertThat(executions).hasValue(0);
+
+        jdbcTemplate.update("UPDATE idempotency_record SET expires_at = ?", LocalDateTime.now().minusSeconds(1));
+
+        assertThat(idempotencyService.execute(KEY, PAYLOAD, created()).getStatusCode().value()).isEqualTo(201);
+        assertThat(executions).hasValue(1);
+        assertThat(expiresAt()).isAfter(LocalDateTime.now().plusHours(23));
+    }
+
+    @Test
+    void liveClaimsAreNotTakenOver() {
+        assertThat(idempotencyStore.claim(KEY, "fingerprint", Duration.ofSeconds(30))).isTrue();
+        assertThat(idempotencyStore.claim(KEY, "fingerprint", Duration.ofSeconds(30))).isFalse();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private Supplier<ResponseEntity<Map<String, Object>>> created() {
+        return () -> ResponseEntity.status(201).body(Map.of("id", executions.incrementAndGet()));
+    }
+
+    private LocalDateTime expiresAt() {
+        return jdbcTemplate.queryForObject("SELECT expires_at FROM idempotency_record WHERE idempotency_key = ?",
+                LocalDateTime.class, KEY);
+    }
+}
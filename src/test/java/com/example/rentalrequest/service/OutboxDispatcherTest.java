@@ -0,0 +1,286 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.OutboxEvent;
+import com.example.rentalrequest.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the dispatcher by hand against the embedded database with a scripted handler and a gated one that
+ * stays busy until released. Scheduled polling is slowed down so only the tests claim events.
+ */
+@SpringBootTest(properties = {
+        "app.outbox.enabled=true",
+        "app.outbox.poll-interval-ms=3600000",
+        "app.outbox.lease-ms=60000",
+        "app.outbox.max-attempts=3",
+        "app.outbox.initial-backoff-ms=10000",
+        "app.outbox.max-backoff-ms=60000"
+})
+@ActiveProfiles("test")
+class OutboxDispatcherTest {
+
+    private static final String AGGREGATE = "test";
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ScriptedHandler handler;
+
+    @Autowired
+    private GatedHandler gatedHandler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void reset() {
+        jdbcTemplate.update("DELETE FROM outbox_event");
+        handler.handled.clear();
+        handler.failuresLeft.clear();
+        handler.leaseSeen.clear();
+        gatedHandler.reset();
+    }
+
+    @AfterEach
+    void releaseGate() {
+        gatedHandler.release.countDown();
+    }
+
+    @Test
+    void claimLeasesEventsUntilTheyAreDelivered() {
+        Long id = event(1, LocalDateTime.now());
+
+        dispatch();
+
+        assertThat(handler.handled).containsExactly(id);
+        // While it was being handled, the row was hidden from other nodes for the lease
+        assertThat(handler.leaseSeen.get(id)).isAfter(LocalDateTime.now().plusSeconds(50));
+        assertThat(status(id)).isEqualTo(OutboxEvent.Status.DELIVERED);
+    }
+
+    @Test
+    void leasedEventsWaitForTheLeaseToExpire() {
+        // Claimed by a node that then went away: invisible until the lease runs out, and so is its successor
+        Long leased = event(1, LocalDateTime.now().plusMinutes(1));
+        Long next = event(1, LocalDateTime.now());
+
+        dispatch();
+        assertThat(handler.handled).isEmpty();
+
+        makeDue(leased);
+        dispatch();
+        dispatch();
+
+        assertThat(handler.handled).containsExactly(leased, next);
+    }
+
+    @Test
+    void failedEventHoldsBackLaterEventsOfItsAggregateOnly() {
+        Long created = event(1, LocalDateTime.now());
+        Long approved = event(1, LocalDateTime.now());
+        Long other = event(2, LocalDateTime.now());
+        handler.failuresLeft.put(created, 1);
+
+        dispatch();
+        dispatch();
+
+        // The other rental goes through; the failed event's successor is not delivered ahead of it
+        assertThat(handler.handled).containsExactly(created, other);
+        assertThat(status(created)).isEqualTo(OutboxEvent.Status.PENDING);
+        assertThat(status(approved)).isEqualTo(OutboxEvent.Status.PENDING);
+        assertThat(outboxEventRepository.findById(approved).orElseThrow().getAttempts()).isZero();
+
+        makeDue(created);
+        dispatch();
+        dispatch();
+
+        assertThat(handler.handled).containsExactly(created, other, created, approved);
+        assertThat(status(approved)).isEqualTo(OutboxEvent.Status.DELIVERED);
+    }
+
+    @Test
+    void failuresBackOffAndAreDeadLetteredAfterMaxAttempts() {
+        Long poison = event(1, LocalDateTime.now());
+        Long next = event(1, LocalDateTime.now());
+        handler.failuresLeft.put(poison, Integer.MAX_VALUE);
+
+        dispatch();
+        OutboxEvent first = outboxEventRepository.findById(poison).orElseThrow();
+        assertThat(first.getAttempts()).isEqualTo(1);
+        assertThat(first.getLastError()).contains("scripted failure");
+        // 10s with +/-20% jitter
+        assertThat(first.getAvailableAt()).isBetween(LocalDateTime.now().plusSeconds(7), LocalDateTime.now().plusSeconds(13));
+
+        makeDue(poison);
+        dispatch();
+        // Doubled: 20s with jitter
+        assertThat(outboxEventRepository.findById(poison).orElseThrow().getAvailableAt())
+                .isAfter(LocalDateTime.now().plusSeconds(15));
+        assertThat(handler.handled).containsExactly(poison, poison);
+
+        makeDue(poison);
+        dispatch();
+        assertThat(status(poison)).isEqualTo(OutboxEvent.Status.DEAD);
+        assertThat(outboxEventRepository.findById(poison).orElseThrow().getAttempts()).isEqualTo(3);
+
+        // A dead-lettered event no longer holds its aggregate back
+        dispatch();
+        assertThat(handler.handled).containsExactly(poison, poison, poison, next);
+        assertThat(status(next)).isEqualTo(OutboxEvent.Status.DELIVERED);
+    }
+
+    @Test
+    void aSlowHandlerDoesNotHoldUpTheOthers() throws Exception {
+        Long stuck = event(GatedHandler.NAME, 1, LocalDateTime.now());
+        Long first = event(1, LocalDateTime.now());
+
+        CompletableFuture<Void> gatedDrain = dispatcher.drain(GatedHandler.NAME);
+        assertThat(gatedHandler.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The scripted handler drains its events, and keeps doing so on later polls, while the gated one is busy
+        dispatcher.drain(ScriptedHandler.NAME).get(5, TimeUnit.SECONDS);
+        Long second = event(2, LocalDateTime.now());
+        dispatcher.dispatch();
+        dispatcher.drain(ScriptedHandler.NAME).get(5, TimeUnit.SECONDS);
+
+        assertThat(handler.handled).containsExactly(first, second);
+        assertThat(status(second)).isEqualTo(OutboxEvent.Status.DELIVERED);
+        assertThat(gatedDrain).isNotDone();
+        // The busy handler was not started a second time, and its event is still leased to it
+        assertThat(dispatcher.drain(GatedHandler.NAME)).isSameAs(gatedDrain);
+        assertThat(gatedHandler.handled).containsExactly(stuck);
+        assertThat(status(stuck)).isEqualTo(OutboxEvent.Status.PENDING);
+
+        gatedHandler.release.countDown();
+        gatedDrain.get(5, TimeUnit.SECONDS);
+        assertThat(status(stuck)).isEqualTo(OutboxEvent.Status.DELIVERED);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private void dispatch() {
+        dispatcher.dispatchAll().join();
+    }
+
+    private Long event(long aggregateId, LocalDateTime availableAt) {
+        return event(ScriptedHandler.NAME, aggregateId, availableAt);
+    }
+
+    private Long event(String handlerName, long aggregateId, LocalDateTime availableAt) {
+        return outboxEventRepository.save(new OutboxEvent(null, AGGREGATE, aggregateId, "test.event", handlerName,
+                "{}", OutboxEvent.Status.PENDING, 0, LocalDateTime.now(), availableAt, null, null)).getId();
+    }
+
+    private void makeDue(Long id) {
+        jdbcTemplate.update("UPDATE outbox_event SET available_at = ? WHERE id = ?", LocalDateTime.now().minusSeconds(1), id);
+    }
+
+    private OutboxEvent.Status status(Long id) {
+        return outboxEventRepository.findById(id).orElseThrow().getStatus();
+    }
+
+    @TestConfiguration
+    static class ScriptedHandlerConfig {
+
+        @Bean
+        ScriptedHandler scriptedHandler(JdbcTemplate jdbcTemplate) {
+            return new ScriptedHandler(jdbcTemplate);
+        }
+
+        @Bean
+        GatedHandler gatedHandler() {
+            return new GatedHandler();
+        }
+    }
+
+    static class ScriptedHandler implements OutboxEventHandler {
+
+        static final String NAME = "scripted";
+
+        private final JdbcTemplate jdbcTemplate;
+        final List<Long> handled = new CopyOnWriteArrayList<>();
+        final Map<Long, Integer> failuresLeft = new ConcurrentHashMap<>();
+        final Map<Long, LocalDateTime> leaseSeen = new ConcurrentHashMap<>();
+
+        ScriptedHandler(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public boolean supports(String eventType) {
+            return eventType.startsWith("test.");
+        }
+
+        @Override
+        public void handle(OutboxEvent event) {
+            handled.add(event.getId());
+            leaseSeen.put(event.getId(), jdbcTemplate.queryForObject(
+                    "SELECT available_at FROM outbox_event WHERE id = ?", LocalDateTime.class, event.getId()));
+            if (failuresLeft.getOrDefault(event.getId(), 0) > 0) {
+                failuresLeft.merge(event.getId(), -1, Integer::sum);
+                throw new IllegalStateException("scripted failure");
+            }
+        }
+    }
+
+    // Stands in for a partner system that has stopped answering: blocks until the test releases it
+    static class GatedHandler implements OutboxEventHandler {
+
+        static final String NAME = "gated";
+
+        final List<Long> handled = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch entered = new CountDownLatch(1);
+        volatile CountDownLatch release = new CountDownLatch(1);
+
+        void reset() {
+            handled.clear();
+            entered = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public boolean supports(String eventType) {
+            return false;
+        }
+
+        @Override
+        public void handle(OutboxEvent event) throws InterruptedException {
+            handled.add(event.getId());
+            entered.countDown();
+            release.await(30, TimeUnit.SECONDS);
+        }
+    }
+}
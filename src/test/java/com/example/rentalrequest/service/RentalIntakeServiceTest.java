@@ -0,0 +1,182 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.dto.RentalRequestDTO;
+import com.example.rentalrequest.exception.ResourceNotFoundException;
+import com.example.rentalrequest.service.RentalIntakeJournal.IntakeRecord;
+import com.example.rentalrequest.service.RentalIntakeJournal.JournalEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Journal-mode intake against the embedded database. The scheduled drain is slowed down so the tests decide when
+ * records move from the journal to the database, and restarts are simulated by reopening a journal directory.
+ */
+@SpringBootTest(properties = {
+        "app.rentals.intake.mode=journal",
+        "app.rentals.intake.journal-dir=target/test-intake/service",
+        "app.rentals.intake.fsync=false",
+        "app.rentals.intake.drain-interval-ms=3600000",
+        "app.rentals.intake.retry-backoff-ms=0",
+        "app.rentals.intake.max-attempts=" + RentalIntakeServiceTest.MAX_ATTEMPTS
+})
+@ActiveProfiles("test")
+class RentalIntakeServiceTest {
+
+    static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private RentalIntakeService rentalIntakeService;
+
+    @Autowired
+    private RentalRequestService rentalRequestService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path journalDir;
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        // Leaves nothing queued from an earlier run behind
+        rentalIntakeService.drain();
+        List.of("outbox_event", "rental_request").forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+    }
+
+    @Test
+    void trackingFollowsTheRequestFromTheJournalToTheDatabase() {
+        String trackingId = (String) rentalIntakeService.submit(rental("Tracked Customer")).get("trackingId");
+
+        assertThat(rentalIntakeService.getTrackingStatus(trackingId))
+                .containsEntry("status", "QUEUED")
+                .containsEntry("requestId", null);
+
+        rentalIntakeService.drain();
+
+        Map<String, Object> persisted = rentalIntakeService.getTrackingStatus(trackingId);
+        assertThat(persisted).containsEntry("status", "PERSISTED");
+        assertThat(persisted.get("requestId")).isNotNull();
+        assertThat(rentalIntakeService.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void unknownTrackingIdsAreNotFound() {
+        assertThatThrownBy(() -> rentalIntakeService.getTrackingStatus(UUID.randomUUID().toString()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void recordsReplayedAfterACrashArePersistedExactlyOnce() throws Exception {
+        List<IntakeRecord> records = List.of(record("First"), record("Second"), record("Third"));
+        RentalIntakeJournal journal = open();
+        for (IntakeRecord record : records) {
+            journal.append(record);
+        }
+
+        // Two records reach the database, then the node dies before the checkpoint and mid-way through an append
+        List<JournalEntry> firstBatch = journal.readBatch(2);
+        assertThat(rentalRequestService.persistJournaledRequests(firstBatch.stream().map(JournalEntry::getRecord).toList()))
+                .isEqualTo(2);
+        journal.close();
+        Files.write(journalDir.resolve("rental-intake.journal"), "{\"trackingId\":\"torn".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        RentalIntakeJournal restarted = open();
+        assertThat(restarted.getPendingCount()).isEqualTo(3);
+        assertThat(records).allSatisfy(record -> assertThat(restarted.isPending(record.getTrackingId())).isTrue());
+
+        List<JournalEntry> replay = restarted.readBatch(10);
+        assertThat(replay).hasSize(3);
+        assertThat(rentalRequestService.persistJournaledRequests(replay.stream().map(JournalEntry::getRecord).toList()))
+                .isEqualTo(1);
+        restarted.commit(replay);
+        assertThat(restarted.isPending(records.get(0).getTrackingId())).isFalse();
+        restarted.close();
+
+        RentalIntakeJournal drained = open();
+        assertThat(drained.getPendingCount()).isZero();
+        assertThat(drained.readBatch(10)).isEmpty();
+        drained.close();
+
+        for (IntakeRecord record : records) {
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rental_request WHERE tracking_id = ?",
+                    Long.class, record.getTrackingId())).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void aRecordTheDatabaseKeepsRefusingIsQuarantinedAndTheRecordsBehindItDrain() throws Exception {
+        long quarantinedBefore = rentalIntakeService.getQuarantinedCount();
+        String before = (String) rentalIntakeService.submit(rental("Before Poison")).get("trackingId");
+        // Passed validation when it was accepted, but can never be inserted
+        IntakeRecord poison = record("Poison");
+        poison.getRequest().setPhoneNumber(null);
+        ((RentalIntakeJournal) ReflectionTestUtils.getField(rentalIntakeService, "journal")).append(poison);
+        String after = (String) rentalIntakeService.submit(rental("After Poison")).get("trackingId");
+
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            rentalIntakeService.drain();
+            assertThat(rentalIntakeService.getTrackingStatus(before)).containsEntry("status", "PERSISTED");
+            assertThat(rentalIntakeService.getTrackingStatus(poison.getTrackingId())).containsEntry("status", "QUEUED");
+            assertThat(rentalIntakeService.getTrackingStatus(after)).containsEntry("status", "QUEUED");
+        }
+
+        rentalIntakeService.drain();
+
+        assertThat(rentalIntakeService.getTrackingStatus(poison.getTrackingId())).containsEntry("status", "QUARANTINED");
+        assertThat(rentalIntakeService.getTrackingStatus(after)).containsEntry("status", "PERSISTED");
+        assertThat(rentalIntakeService.getQueueDepth()).isZero();
+        assertThat(rentalIntakeService.getQuarantinedCount()).isEqualTo(quarantinedBefore + 1);
+        assertThat(Files.readString(Path.of("target/test-intake/service/rental-intake.deadletter")))
+                .contains(poison.getTrackingId());
+
+        // Later submissions are not held up by it either
+        String later = (String) rentalIntakeService.submit(rental("Later Customer")).get("trackingId");
+        rentalIntakeService.drain();
+        assertThat(rentalIntakeService.getTrackingStatus(later)).containsEntry("status", "PERSISTED");
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private RentalIntakeJournal open() throws Exception {
+        return new RentalIntakeJournal(objectMapper, journalDir, false, Long.MAX_VALUE);
+    }
+
+    private static IntakeRecord record(String customer) {
+        return new IntakeRecord(UUID.randomUUID().toString(), LocalDateTime.now(), rental(customer));
+    }
+
+    private static RentalRequestDTO rental(String customer) {
+        RentalRequestDTO dto = new RentalRequestDTO();
+        dto.setCustomerName(customer);
+        dto.setPhoneNumber("+91 9000000000");
+        dto.setEmail("intake@example.com");
+        dto.setPickupDateTime(LocalDateTime.now().plusDays(3));
+        dto.setDropDateTime(LocalDateTime.now().plusDays(5));
+        return dto;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.dto.RentalRequestDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Admin listings and the pending queue's keyset pages against the embedded database. The parallel decrypt
+ * threshold is lowered so a modest fixture already takes the parallel render path.
+ */
+@SpringBootTest(properties = "app.rentals.listing.parallel-decrypt-threshold=8")
+@ActiveProfiles("test")
+class RentalListingServiceTest {
+
+    @Autowired
+    private RentalListingService rentalListingService;
+
+    @Autowired
+    private RentalRequestService rentalRequestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        List.of("outbox_event", "accessory_reservation", "rental_request").forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+    }
+
+    @Test
+    void fieldsSelectOnlyTheRequestedColumns() {
+        createRequests(2);
+
+        assertThat(rentalListingService.getAllRequests("status, id"))
+                .hasSize(2)
+                .allSatisfy(row -> assertThat(row.keySet()).containsExactly("status", "id"));
+        assertThat(rentalListingService.getAllRequests(null).get(0).keySet())
+                .containsExactlyElementsOf(RentalListingService.FIELDS);
+        assertThatThrownBy(() -> rentalListingService.getAllRequests("id,password"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("password");
+    }
+
+    @Test
+    void personalDataIsStoredEncryptedAndReturnedDecrypted() {
+        List<Long> ids = createRequests(1);
+
+        String stored = jdbcTemplate.queryForObject("SELECT customer_name FROM rental_request WHERE id = ?", String.class, ids.get(0));
+        assertThat(stored).isNotEqualTo("Customer 0");
+
+        assertThat(rentalListingService.getAllRequests("customerName,phoneNumber,email")).singleElement()
+                .satisfies(row -> assertThat(row)
+                        .containsEntry("customerName", "Customer 0")
+                        .containsEntry("phoneNumber", "+91 9000000000")
+                        .containsEntry("email", "customer0@example.com"));
+        assertThat(rentalListingService.getRequestsByCustomerName(" Customer 0 ", "id")).singleElement()
+                .satisfies(row -> assertThat(row).containsEntry("id", ids.get(0)));
+    }
+
+    @Test
+    void largePagesDecryptInParallelAndKeepIdOrder() {
+        List<Long> ids = createRequests(40);
+
+        List<Map<String, Object>> rows = rentalListingService.getAllRequests("id,customerName,email");
+
+        assertThat(rows).extracting(row -> row.get("id")).containsExactlyElementsOf(ids);
+        assertThat(rows).extracting(row -> row.get("customerName"))
+                .containsExactlyElementsOf(IntStream.range(0, 40).mapToObj(i -> "Customer " + i).toList());
+        assertThat(rows).extracting(row -> row.get("email"))
+                .containsExactlyElementsOf(IntStream.range(0, 40).mapToObj(i -> "customer" + i + "@example.com").toList());
+    }
+
+    @Test
+    void pendingPagesWalkEqualAndMissingPickupTimesExactlyOnce() {
+        List<Long> ids = createRequests(8);
+        LocalDateTime sharedPickup = LocalDateTime.now().plusDays(30).withNano(0);
+        jdbcTemplate.update("UPDATE rental_request SET pickup_date_time = NULL WHERE id IN (?, ?, ?)", ids.get(1), ids.get(4), ids.get(6));
+        jdbcTemplate.update("UPDATE rental_request SET pickup_date_time = ? WHERE id IN (?, ?, ?)", sharedPickup,
+                ids.get(0), ids.get(3), ids.get(5));
+
+        List<Object> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Map<String, Object> page = rentalListingService.getPendingRequests(cursor, 2, "id");
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> data = (List<Map<String, Object>>) page.get("data");
+            data.forEach(row -> walked.add(row.get("id")));
+            cursor = (String) page.get("nextCursor");
+            pages++;
+        } while (cursor != null);
+
+        // No pickup first, then by pickup time, ties broken by id
+        assertThat(walked).containsExactly(ids.get(1), ids.get(4), ids.get(6), ids.get(2), ids.get(7),
+                ids.get(0), ids.get(3), ids.get(5));
+        assertThat(pages).isEqualTo(4);
+    }
+
+    @Test
+    void malformedCursorsAreRejectedAsBadRequests() {
+        createRequests(1);
+
+        List.of("not base64!", encode("garbage"), encode("2030-01-01T10:00|abc"), encode("yesterday|5"), encode("|"))
+                .forEach(cursor -> assertThatThrownBy(() -> rentalListingService.getPendingRequests(cursor, 2, "id"))
+                        .as(cursor)
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessageContaining("cursor"));
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Long> createRequests(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            RentalRequestDTO dto = new RentalRequestDTO();
+            dto.setCustomerName("Customer " + i);
+            dto.setPhoneNumber("+91 9000000000");
+            dto.setEmail("customer" + i + "@example.com");
+            dto.setPickupDateTime(LocalDateTime.now().plusDays(1 + i));
+            dto.setDropDateTime(LocalDateTime.now().plusDays(3 + i));
+            ids.add((Long) rentalRequestService.createRentalRequest(dto).get("id"));
+        }
+        return ids;
+    }
+}
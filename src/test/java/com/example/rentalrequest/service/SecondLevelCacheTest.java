@@ -0,0 +1,105 @@
+package com.example.rentalrequest.service;
+
+import com.example.rentalrequest.model.CacheInvalidation;
+import com.example.rentalrequest.model.Car;
+import com.example.rentalrequest.support.SqlStatementCounter;
+import com.example.rentalrequest.support.SqlStatementCounterConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The Car entity and collection regions seen from the SQL side: what a cached read costs, and what an update
+ * leaves behind for the next one.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(SqlStatementCounterConfig.class)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long carId;
+
+    @BeforeEach
+    void setUp() {
+        carId = carService.createCar(car(new BigDecimal("2500.00"))).getId();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        List.of("accessory", "car_image", "car").forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void aSecondReadOfACachedCarIssuesNoSql() throws Exception {
+        SqlStatementCounter.Recording first = SqlStatementCounter.record(() -> carService.getCarById(carId));
+        SqlStatementCounter.Recording second = SqlStatementCounter.record(() -> carService.getCarById(carId));
+
+        assertThat(first.count("SELECT")).isPositive();
+        assertThat(second.statements()).isEmpty();
+        assertThat(entityManagerFactory.getCache().contains(Car.class, carId)).isTrue();
+    }
+
+    @Test
+    void anUpdateIsServedOnTheNextReadInsteadOfTheCachedCar() throws Exception {
+        carService.getCarById(carId);
+
+        carService.updateCar(carId, car(new BigDecimal("3100.00")));
+
+        // READ_WRITE replaces the entry at commit, so the new price comes back without going to the database
+        SqlStatementCounter.Recording reread = SqlStatementCounter.record(() ->
+                assertThat(carService.getCarById(carId).getDailyPrice()).isEqualByComparingTo("3100.00"));
+        assertThat(reread.statements()).isEmpty();
+    }
+
+    @Test
+    void anUpdateOnAnotherNodeEvictsTheCachedCar() throws Exception {
+        carService.getCarById(carId);
+        // The other node's write, which this node only learns about through the invalidation bus
+        jdbcTemplate.update("UPDATE car SET daily_price = ? WHERE id = ?", new BigDecimal("2900.00"), carId);
+        assertThat(carService.getCarById(carId).getDailyPrice()).isEqualByComparingTo("2500.00");
+
+        secondLevelCacheService.invalidate(CacheInvalidation.CAR, List.of(carId.toString()));
+
+        assertThat(entityManagerFactory.getCache().contains(Car.class, carId)).isFalse();
+        SqlStatementCounter.Recording reread = SqlStatementCounter.record(() ->
+                assertThat(carService.getCarById(carId).getDailyPrice()).isEqualByComparingTo("2900.00"));
+        assertThat(reread.count("SELECT")).isPositive();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private static Car car(BigDecimal dailyPrice) {
+        Car car = new Car();
+        car.setBrand("Toyota");
+        car.setModel("Innova");
+        car.setMainLocation("Chennai");
+        car.setDailyPrice(dailyPrice);
+        car.setAvailable(true);
+        return car;
+    }
+}
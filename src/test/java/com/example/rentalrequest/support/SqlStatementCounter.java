@@ -0,0 +1,74 @@
+package com.example.rentalrequest.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Records every JDBC statement executed on the calling thread. MockMvc and direct service calls run on the
+ * test thread, so the recording covers exactly one request while background jobs stay out of it.
+ */
+public class SqlStatementCounter implements QueryExecutionListener {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    /**
+     * Runs {@code action} and returns the statements it issued. A JDBC batch counts as one round trip.
+     */
+    public static Recording record(Callable<?> action) throws Exception {
+        List<String> statements = new ArrayList<>();
+        STATEMENTS.set(statements);
+        try {
+            action.call();
+        } finally {
+            STATEMENTS.remove();
+        }
+        return new Recording(statements);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<String> statements = STATEMENTS.get();
+        if (statements == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        String sql = queryInfoList.get(0).getQuery();
+        statements.add(execInfo.isBatch() ? sql + " [batch x" + execInfo.getBatchSize() + "]" : sql);
+    }
+
+    public record Recording(List<String> statements) {
+
+        public int count() {
+            return statements.size();
+        }
+
+        public long count(String verb) {
+            return statements.stream()
+                    .filter(sql -> sql.stripLeading().regionMatches(true, 0, verb, 0, verb.length()))
+                    .count();
+        }
+
+        /**
+         * Fails with the full statement log when more than {@code budget} statements were executed.
+         */
+        public void assertWithinBudget(String label, int budget) {
+            if (count() > budget) {
+                StringBuilder message = new StringBuilder()
+                        .append(label).append(" executed ").append(count())
+                        .append(" SQL statements, budget is ").append(budget).append(':');
+                for (int i = 0; i < statements.size(); i++) {
+                    message.append(System.lineSeparator()).append("  ").append(i + 1).append(". ").append(statements.get(i));
+                }
+                throw new AssertionError(message.toString());
+            }
+        }
+    }
+}
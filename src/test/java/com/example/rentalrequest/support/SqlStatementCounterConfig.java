@@ -0,0 +1,32 @@
+package com.example.rentalrequest.support;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a datasource-proxy that feeds {@link SqlStatementCounter}.
+ */
+@TestConfiguration
+public class SqlStatementCounterConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlStatementCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new SqlStatementCounter())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.rentalrequest.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round trips through the pooled ciphers, including from many virtual threads at once.
+ */
+class EncryptionUtilTest {
+
+    private final EncryptionUtil encryptionUtil = new EncryptionUtil();
+
+    EncryptionUtilTest() {
+        ReflectionTestUtils.setField(encryptionUtil, "encryptionKey", "TestEncryptionKey123456789012345");
+    }
+
+    @Test
+    void encryptionIsDeterministicAndReversible() {
+        String encrypted = encryptionUtil.encrypt("Customer Name");
+
+        assertThat(encrypted).isNotEqualTo("Customer Name").isEqualTo(encryptionUtil.encrypt("Customer Name"));
+        assertThat(encryptionUtil.decrypt(encrypted)).isEqualTo("Customer Name");
+    }
+
+    @Test
+    void blankAndUnreadableValuesPassThrough() {
+        assertThat(encryptionUtil.encrypt(null)).isNull();
+        assertThat(encryptionUtil.encrypt(" ")).isEqualTo(" ");
+        assertThat(encryptionUtil.decrypt("not ciphertext")).isEqualTo("not ciphertext");
+        assertThat(encryptionUtil.decrypt("AAAAAAAAAAAAAAAAAAAAAA==")).isEqualTo("AAAAAAAAAAAAAAAAAAAAAA==");
+
+        // A failed decrypt leaves the pool usable
+        assertThat(encryptionUtil.decrypt(encryptionUtil.encrypt("after failure"))).isEqualTo("after failure");
+    }
+
+    @Test
+    void concurrentCallersNeverShareACipher() throws Exception {
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 2000; i++) {
+                String value = "customer-" + i + "@example.com";
+                results.add(executor.submit(() -> value.equals(encryptionUtil.decrypt(encryptionUtil.encrypt(value)))));
+            }
+        }
+
+        for (Future<Boolean> result : results) {
+            assertThat(result.get()).isTrue();
+        }
+    }
+}
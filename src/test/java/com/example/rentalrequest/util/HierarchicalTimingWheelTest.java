@@ -0,0 +1,80 @@
+package com.example.rentalrequest.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Small wheels (8 slots, 3 levels of 1-second ticks) so cascades and the overflow list are exercised quickly.
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    private final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 8, 3, START);
+
+    @Test
+    void rejectsDeadlinesThatAreAlreadyDue() {
+        assertThat(wheel.add(START, "now")).isFalse();
+        assertThat(wheel.add(START - 5000, "past")).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void neverFiresBeforeTheDeadline() {
+        wheel.add(START + 2500, "a");
+
+        assertThat(advanceTo(START + 2999)).isEmpty();
+        assertThat(advanceTo(START + 3000)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadesThroughHigherLevelsAndTheOverflowList() {
+        long span = wheel.getSpanMillis();
+        wheel.add(START + 70_000, "level 1");
+        wheel.add(START + 300_000, "level 2");
+        wheel.add(START + 3 * span, "overflow");
+
+        assertThat(advanceTo(START + 69_000)).isEmpty();
+        assertThat(advanceTo(START + 70_000)).containsExactly("level 1");
+        assertThat(advanceTo(START + 300_000)).containsExactly("level 2");
+        assertThat(advanceTo(START + 3 * span - 1000)).isEmpty();
+        assertThat(advanceTo(START + 3 * span)).containsExactly("overflow");
+    }
+
+    @Test
+    void firesEveryTimerExactlyOnceWhenAdvancingInLargeSteps() {
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long deadline = START + 1000 + random.nextInt(2_000_000);
+            deadlines.add(deadline);
+            wheel.add(deadline, Long.toString(deadline));
+        }
+
+        List<String> fired = new ArrayList<>();
+        for (long now = START; now <= START + 2_100_000; now += 37_000) {
+            long current = now;
+            wheel.advance(now, item -> {
+                assertThat(Long.parseLong(item)).isLessThanOrEqualTo(current);
+                fired.add(item);
+            });
+        }
+
+        assertThat(fired).hasSize(deadlines.size());
+        assertThat(wheel.size()).isZero();
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private List<String> advanceTo(long now) {
+        List<String> fired = new ArrayList<>();
+        wheel.advance(now, fired::add);
+        return fired;
+    }
+}
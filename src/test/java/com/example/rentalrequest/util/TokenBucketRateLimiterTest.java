@@ -0,0 +1,103 @@
+package com.example.rentalrequest.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the limiter on a hand-driven clock: a burst of 3 refilling at 60 per minute, so one token per second,
+ * with room for two clients.
+ */
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long now = 1_000 * SECOND;
+
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 3, 60, 2, () -> now);
+
+    @Test
+    void allowsTheBurstThenRefillsOneTokenPerInterval() {
+        assertThat(acquire("a", 3)).isEqualTo(3);
+
+        long wait = limiter.tryAcquire("a");
+        assertThat(wait).isEqualTo(SECOND);
+
+        now += SECOND - 1;
+        assertThat(limiter.tryAcquire("a")).isEqualTo(1);
+        now += 1;
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+
+        // A long pause refills to the burst and no further
+        now += 60 * SECOND;
+        assertThat(acquire("a", 5)).isEqualTo(3);
+
+        assertThat(limiter.getAllowedCount()).isEqualTo(7);
+        assertThat(limiter.getRejectedCount()).isEqualTo(5);
+    }
+
+    @Test
+    void clientsHaveTheirOwnBuckets() {
+        assertThat(acquire("a", 3)).isEqualTo(3);
+        assertThat(acquire("b", 3)).isEqualTo(3);
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void newClientsShareTheOverflowBucketOnceTheCapIsReached() {
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+
+        // Neither gets a bucket of its own, and together they only get one burst
+        assertThat(acquire("c", 2) + acquire("d", 2)).isEqualTo(3);
+        assertThat(limiter.getBucketCount()).isEqualTo(2);
+        assertThat(limiter.getOverflowCount()).isEqualTo(4);
+
+        // Tracked clients are unaffected
+        assertThat(limiter.tryAcquire("a")).isZero();
+    }
+
+    @Test
+    void evictsOnlyBucketsThatHaveFullyRefilled() {
+        acquire("a", 1);
+        acquire("b", 3);
+
+        now += SECOND;
+        assertThat(limiter.evictIdle()).isEqualTo(1);
+        assertThat(limiter.getBucketCount()).isEqualTo(1);
+
+        // Room again, so a new client gets its own bucket instead of the overflow one
+        assertThat(limiter.tryAcquire("c")).isZero();
+        assertThat(limiter.getOverflowCount()).isZero();
+        assertThat(limiter.getBucketCount()).isEqualTo(2);
+
+        // The drained client kept its debt: one second gave back one token
+        assertThat(acquire("b", 3)).isEqualTo(1);
+        now += 3 * SECOND;
+        assertThat(limiter.evictIdle()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsPoliciesWithoutCapacityOrRefill() {
+        assertThatThrownBy(() -> new TokenBucketRateLimiter("bad", 0, 10, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketRateLimiter("bad", 10, 0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // --------------------- Private helpers ---------------------
+
+    private int acquire(String key, int attempts) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryAcquire(key) == 0) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+}